@@ -7,22 +7,23 @@
 package com.skcraft.launcher.creator.controller.task;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
-import com.skcraft.launcher.util.MorePaths;
+import com.skcraft.launcher.builder.FileTreeWalker;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
-import java.util.Set;
 import java.util.concurrent.Callable;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+/**
+ * Lists the files and directories in a directory that are accepted by a
+ * filter, optionally including those in subdirectories. Links are not
+ * followed out of the directory and each directory is listed once.
+ */
 public class DirectoryWalker implements Callable<List<File>> {
 
     @Getter private final File dir;
@@ -40,31 +41,18 @@ public class DirectoryWalker implements Callable<List<File>> {
             throw new IllegalArgumentException(dir.getAbsolutePath() + " is not a directory");
         }
 
-        List<File> matched = Lists.newArrayList();
-        Set<String> seen = Sets.newHashSet();
-
-        Queue<File> queue = new LinkedList<>();
-        queue.add(dir);
-
-        File cur;
-        while ((cur = queue.poll()) != null) {
-            String canonical = cur.getCanonicalPath();
-            if (!seen.contains(canonical) && MorePaths.isSubDirectory(dir, cur)) {
-                File[] files = cur.listFiles();
+        FileTreeWalker walker = new FileTreeWalker();
+        walker.setRecursive(recursive);
+        walker.setDirectoriesIncluded(true);
+        walker.setRevisitsAllowed(false);
+        walker.setEscapingLinksFollowed(false);
 
-                if (files != null) {
-                    for (File file : files) {
-                        if (recursive && file.isDirectory()) {
-                            queue.add(file);
-                        }
-
-                        if (fileFilter.accept(file)) {
-                            matched.add(file);
-                        }
-                    }
-                }
+        List<File> matched = Lists.newArrayList();
+        for (FileTreeWalker.Entry entry : walker.walk(dir.toPath())) {
+            File file = entry.getPath().toFile();
+            if (fileFilter.accept(file)) {
+                matched.add(file);
             }
-
         }
 
         return matched;
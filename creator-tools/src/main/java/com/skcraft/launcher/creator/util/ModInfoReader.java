@@ -17,6 +17,7 @@ import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.CharStreams;
 import com.google.common.io.Closer;
+import com.skcraft.launcher.util.JsonCodec;
 import lombok.Data;
 import lombok.extern.java.Log;
 
@@ -37,7 +38,7 @@ public class ModInfoReader {
 
     private static final String FORGE_INFO_FILENAME = "mcmod.info";
     private static final String LITELOADER_INFO_FILENAME = "litemod.json";
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectMapper mapper = JsonCodec.getMapper();
 
     /**
      * Detect the mods listed in the given .jar
@@ -0,0 +1,349 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skcraft.launcher.model.modpack.DownloadableFile;
+import com.skcraft.launcher.persistence.AtomicFileByteSink;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Remembers the results of expensive build steps between runs of the
+ * builder, so that a rebuild only redoes the work whose inputs changed.
+ *
+ * <p>Results computed from a file are keyed by a name and the file's size,
+ * modification time and file key (the inode, where there is one), and are
+ * discarded as soon as any of them differ. Files modified within the last
+ * few seconds are not cached, as another change in the same clock tick
+ * would go unnoticed. Where each library was found is kept by its path.
+ * Repositories that lacked a group of libraries are remembered for a week.
+ * Other results that are not used during a build are dropped when the
+ * cache is saved.</p>
+ *
+ * <p>A cache without a file works the same within one build and is never
+ * saved.</p>
+ */
+@Log
+public class BuildCache {
+
+    private static final int VERSION = 1;
+    private static final long RACY_INTERVAL = 2000;
+    private static final long MISS_LIFETIME = TimeUnit.DAYS.toMillis(7);
+
+    private final File file;
+    private final ObjectMapper mapper;
+    private final long started = System.currentTimeMillis();
+    private final Map<String, Record> files = new ConcurrentHashMap<String, Record>();
+    private final Map<String, Record> objects = new ConcurrentHashMap<String, Record>();
+    private final Map<String, String> librarySources = new ConcurrentHashMap<String, String>();
+    private final Map<String, Long> misses = new ConcurrentHashMap<String, Long>();
+    private final Set<String> used = ConcurrentHashMap.newKeySet();
+
+    private BuildCache(File file, ObjectMapper mapper) {
+        this.file = file;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Create a cache that lasts for one build.
+     *
+     * @return the cache
+     */
+    public static BuildCache create() {
+        return new BuildCache(null, null);
+    }
+
+    /**
+     * Load a cache from the given file, which need not exist.
+     *
+     * @param file the file
+     * @param mapper the mapper
+     * @return the cache
+     */
+    public static BuildCache load(@NonNull File file, @NonNull ObjectMapper mapper) {
+        BuildCache cache = new BuildCache(file, mapper);
+
+        if (file.exists()) {
+            try {
+                Index index = mapper.readValue(file, Index.class);
+                if (index.getVersion() == VERSION) {
+                    cache.files.putAll(index.getFiles());
+                    cache.objects.putAll(index.getObjects());
+                    cache.librarySources.putAll(index.getLibrarySources());
+                    cache.misses.putAll(index.getMisses());
+                    log.info("Loaded the build cache from " + file.getAbsolutePath() + " (" +
+                            cache.files.size() + " file(s), " + cache.objects.size() + " object(s))");
+                }
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to read the build cache at " + file.getAbsolutePath() + "; starting over", e);
+            }
+        }
+
+        return cache;
+    }
+
+    /**
+     * Get the hash of a file, as remembered from an earlier build.
+     *
+     * @param key the key, usually the path of the file in the pack
+     * @param fingerprint the fingerprint of the file, taken before hashing
+     * @return the hash, or null if it has to be computed
+     */
+    public String getHash(@NonNull String key, @NonNull Fingerprint fingerprint) {
+        Record record = files.get(key);
+        if (record != null && record.matches(fingerprint)) {
+            used.add("f:" + key);
+            return record.getHash();
+        }
+        return null;
+    }
+
+    /**
+     * Remember the hash of a file.
+     *
+     * @param key the key, usually the path of the file in the pack
+     * @param fingerprint the fingerprint of the file, taken before hashing
+     * @param hash the hash
+     */
+    public void putHash(@NonNull String key, @NonNull Fingerprint fingerprint, @NonNull String hash) {
+        if (isCacheable(fingerprint)) {
+            files.put(key, new Record(fingerprint, hash, 0));
+            used.add("f:" + key);
+        }
+    }
+
+    /**
+     * Get an object that was extracted from a file in an earlier build. The
+     * object must still exist in the given objects directory.
+     *
+     * @param key the key, naming the file and what was extracted from it
+     * @param fingerprint the fingerprint of the file
+     * @param objectsDir the objects directory
+     * @return the object, or null if it has to be extracted again
+     */
+    public DownloadableFile getObject(@NonNull String key, @NonNull Fingerprint fingerprint, @NonNull File objectsDir) {
+        Record record = objects.get(key);
+        if (record != null && record.matches(fingerprint)) {
+            DownloadableFile entry = new DownloadableFile();
+            entry.setHash(record.getHash());
+            entry.setLocation(getObjectLocation(record.getHash()));
+            entry.setSize((int) record.getLength());
+
+            File object = new File(objectsDir, entry.getLocation());
+            if (object.length() == record.getLength() && object.isFile()) {
+                used.add("o:" + key);
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remember an object extracted from a file.
+     *
+     * @param key the key, naming the file and what was extracted from it
+     * @param fingerprint the fingerprint of the file, taken before extraction
+     * @param entry the object
+     */
+    public void putObject(@NonNull String key, @NonNull Fingerprint fingerprint, @NonNull DownloadableFile entry) {
+        if (isCacheable(fingerprint)) {
+            objects.put(key, new Record(fingerprint, entry.getHash(), entry.getSize()));
+            used.add("o:" + key);
+        }
+    }
+
+    /**
+     * Get the URL that a library was downloaded from in an earlier build.
+     *
+     * @param path the path of the library in the libraries directory
+     * @return the URL, or null if it is not known
+     */
+    public String getLibrarySource(@NonNull String path) {
+        String url = librarySources.get(path);
+        if (url != null) {
+            used.add("l:" + path);
+        }
+        return url;
+    }
+
+    /**
+     * Remember the URL that a library was downloaded from.
+     *
+     * @param path the path of the library in the libraries directory
+     * @param url the URL
+     */
+    public void putLibrarySource(@NonNull String path, @NonNull String url) {
+        librarySources.put(path, url);
+        used.add("l:" + path);
+    }
+
+    /**
+     * Return whether a repository recently had nothing from a group.
+     *
+     * @param repository the base URL of the repository
+     * @param group the group
+     * @return true if the repository is likely to lack the group
+     */
+    public boolean isMissing(@NonNull String repository, @NonNull String group) {
+        Long time = misses.get(repository + " " + group);
+        return time != null && time > System.currentTimeMillis() - MISS_LIFETIME;
+    }
+
+    /**
+     * Remember that a repository had nothing from a group.
+     *
+     * @param repository the base URL of the repository
+     * @param group the group
+     */
+    public void putMissing(@NonNull String repository, @NonNull String group) {
+        misses.put(repository + " " + group, System.currentTimeMillis());
+    }
+
+    /**
+     * Forget that a repository had nothing from a group.
+     *
+     * @param repository the base URL of the repository
+     * @param group the group
+     */
+    public void removeMissing(@NonNull String repository, @NonNull String group) {
+        misses.remove(repository + " " + group);
+    }
+
+    /**
+     * Save the results used in this build, if the cache has a file.
+     */
+    public void save() {
+        if (file == null) {
+            return;
+        }
+
+        Index index = new Index();
+        index.setVersion(VERSION);
+        for (Map.Entry<String, Record> entry : files.entrySet()) {
+            if (used.contains("f:" + entry.getKey())) {
+                index.getFiles().put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Record> entry : objects.entrySet()) {
+            if (used.contains("o:" + entry.getKey())) {
+                index.getObjects().put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, String> entry : librarySources.entrySet()) {
+            if (used.contains("l:" + entry.getKey())) {
+                index.getLibrarySources().put(entry.getKey(), entry.getValue());
+            }
+        }
+        long expiry = System.currentTimeMillis() - MISS_LIFETIME;
+        for (Map.Entry<String, Long> entry : misses.entrySet()) {
+            if (entry.getValue() > expiry) {
+                index.getMisses().put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        try {
+            new AtomicFileByteSink(file).write(mapper.writeValueAsBytes(index));
+            log.info("Saved the build cache to " + file.getAbsolutePath());
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to save the build cache to " + file.getAbsolutePath(), e);
+        }
+    }
+
+    private boolean isCacheable(Fingerprint fingerprint) {
+        return fingerprint.getModified() < started - RACY_INTERVAL;
+    }
+
+    static String getObjectLocation(String hash) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    /**
+     * What a file looked like when a result was computed from it.
+     */
+    @Data
+    public static class Fingerprint {
+        private long size;
+        private long modified;
+        private String fileKey;
+
+        /**
+         * Get the fingerprint of a file.
+         *
+         * @param file the file
+         * @return the fingerprint
+         * @throws IOException on I/O error
+         */
+        public static Fingerprint of(@NonNull File file) throws IOException {
+            return of(Files.readAttributes(file.toPath(), BasicFileAttributes.class));
+        }
+
+        /**
+         * Get the fingerprint of a file from attributes that were already read.
+         *
+         * @param attributes the attributes of the file
+         * @return the fingerprint
+         */
+        public static Fingerprint of(@NonNull BasicFileAttributes attributes) {
+            Fingerprint fingerprint = new Fingerprint();
+            fingerprint.setSize(attributes.size());
+            fingerprint.setModified(attributes.lastModifiedTime().toMillis());
+            Object fileKey = attributes.fileKey();
+            fingerprint.setFileKey(fileKey != null ? fileKey.toString() : null);
+            return fingerprint;
+        }
+    }
+
+    @Data
+    public static class Record {
+        private long size;
+        private long modified;
+        private String fileKey;
+        private String hash;
+        private long length;
+
+        public Record() {
+        }
+
+        private Record(Fingerprint fingerprint, String hash, long length) {
+            this.size = fingerprint.getSize();
+            this.modified = fingerprint.getModified();
+            this.fileKey = fingerprint.getFileKey();
+            this.hash = hash;
+            this.length = length;
+        }
+
+        boolean matches(Fingerprint fingerprint) {
+            return size == fingerprint.getSize() && modified == fingerprint.getModified()
+                    && (fileKey == null ? fingerprint.getFileKey() == null : fileKey.equals(fingerprint.getFileKey()));
+        }
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Index {
+        private int version;
+        private Map<String, Record> files = new TreeMap<String, Record>();
+        private Map<String, Record> objects = new TreeMap<String, Record>();
+        private Map<String, String> librarySources = new TreeMap<String, String>();
+        private Map<String, Long> misses = new TreeMap<String, Long>();
+    }
+
+}
@@ -9,6 +9,7 @@ package com.skcraft.launcher.builder;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.Lists;
 import com.skcraft.launcher.model.modpack.LaunchModifier;
+import com.skcraft.launcher.model.modpack.LaunchRequirements;
 import com.skcraft.launcher.model.modpack.Manifest;
 import lombok.Data;
 
@@ -25,6 +26,8 @@ public class BuilderConfig {
     private String gameVersion;
     @JsonProperty("launch")
     private LaunchModifier launchModifier = new LaunchModifier();
+    @JsonProperty("requirements")
+    private LaunchRequirements launchRequirements;
     private List<FeaturePattern> features = Lists.newArrayList();
     private FnPatternList userFiles = new FnPatternList();
 
@@ -45,6 +48,7 @@ public class BuilderConfig {
         manifest.updateTitle(getTitle());
         manifest.updateGameVersion(getGameVersion());
         manifest.setLaunchModifier(getLaunchModifier());
+        manifest.setLaunchRequirements(getLaunchRequirements());
     }
 
     public void registerProperties(PropertiesApplicator applicator) {
@@ -19,6 +19,8 @@ public class BuilderOptions {
     public static final String DEFAULT_VERSION_FILENAME = "version.json";
     public static final String DEFAULT_SRC_DIRNAME = "src";
     public static final String DEFAULT_LOADERS_DIRNAME = "loaders";
+    public static final String DEFAULT_CACHE_FILENAME = ".build-cache.json";
+    public static final String DEFAULT_UPSTREAM_CACHE_DIRNAME = ".skcraft-builder/upstream";
 
     // Configuration
 
@@ -51,6 +53,10 @@ public class BuilderOptions {
     private File filesDir;
     @Parameter(names = "--loaders")
     private File loadersDir;
+    @Parameter(names = "--cache")
+    private File cachePath;
+    @Parameter(names = "--upstream-cache", description = "The directory to keep downloaded game metadata, loader metadata and libraries in, which can be shared between packs")
+    private File upstreamCachePath;
 
     // Output paths
     @Parameter(names = "--objects-dest")
@@ -66,6 +72,14 @@ public class BuilderOptions {
     // Misc
     @Parameter(names = "--pretty-print")
     private boolean prettyPrinting;
+    @Parameter(names = "--object-links", description = "Hard link files into the objects directory instead of copying them, which is only safe if source files are never edited in place")
+    private boolean objectLinksEnabled;
+    @Parameter(names = "--no-cache", description = "Hash and extract every file again instead of using the build cache")
+    private boolean cacheDisabled;
+    @Parameter(names = "--bake-processors", description = "Run the client processors of loaders now and publish their outputs for clients to download")
+    private boolean processorsBaked;
+    @Parameter(names = "--offline", description = "Build using only what is in the upstream cache, without making any requests")
+    private boolean offline;
 
     public void choosePaths() throws ParameterException {
         if (configPath == null) {
@@ -88,6 +102,15 @@ public class BuilderOptions {
             loadersDir = new File(inputPath, DEFAULT_LOADERS_DIRNAME);
         }
 
+        if (cachePath == null) {
+            // Kept next to the source files, as it is keyed by their paths
+            cachePath = new File(filesDir.getAbsoluteFile().getParentFile(), DEFAULT_CACHE_FILENAME);
+        }
+
+        if (upstreamCachePath == null) {
+            upstreamCachePath = new File(System.getProperty("user.home"), DEFAULT_UPSTREAM_CACHE_DIRNAME);
+        }
+
         if (objectsDir == null) {
             requireOutputPath("--objects-dest");
             objectsDir = new File(outputPath, objectsLocation);
@@ -6,30 +6,72 @@
 
 package com.skcraft.launcher.builder;
 
+import com.google.common.base.Functions;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.*;
 import com.skcraft.launcher.model.modpack.FileInstall;
 import com.skcraft.launcher.model.modpack.Manifest;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import lombok.extern.java.Log;
 import org.apache.commons.io.FilenameUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 
 /**
  * Walks a path and adds hashed path versions to the given
  * {@link com.skcraft.launcher.model.modpack.Manifest}.
+ *
+ * <p>Collection is a pipeline: the walk runs on the calling thread and
+ * hands each file to a pool that hashes it and applies its properties,
+ * which hands the object to a smaller pool that stores it. An object that
+ * already exists with the right size is not stored again, and each object
+ * is stored once even if several files have the same contents. Objects are
+ * copied, or hard linked to their source file when links have been turned
+ * on and both are on the same file system. A linked object changes with its
+ * source file, so links are only safe if source files are replaced rather
+ * than edited in place. Entries are added to the manifest in walk order
+ * once every file has been collected.</p>
  */
 @Log
 public class ClientFileCollector extends DirectoryWalker {
 
+    private static final int STORE_THREADS = 4;
+
     private final Manifest manifest;
     private final PropertiesApplicator applicator;
     private final File destDir;
     private HashFunction hf = Hashing.sha1();
 
+    @Getter @Setter private int hashThreads = Runtime.getRuntime().availableProcessors();
+    @Getter @Setter private boolean linkingAllowed;
+    @Getter @Setter @NonNull private BuildCache buildCache = BuildCache.create();
+
+    private ListeningExecutorService hashExecutor;
+    private ListeningExecutorService storeExecutor;
+    private volatile boolean linking;
+    private Path root;
+    private final List<ListenableFuture<FileInstall>> pending = new ArrayList<ListenableFuture<FileInstall>>();
+    private final ConcurrentMap<String, ListenableFuture<Void>> stored = new ConcurrentHashMap<String, ListenableFuture<Void>>();
+    private final AtomicInteger hashedCount = new AtomicInteger();
+    private final AtomicInteger copiedCount = new AtomicInteger();
+    private final AtomicInteger linkedCount = new AtomicInteger();
+    private final AtomicInteger existingCount = new AtomicInteger();
+
     /**
      * Create a new collector.
      *
@@ -44,48 +86,176 @@ public class ClientFileCollector extends DirectoryWalker {
         this.destDir = destDir;
     }
 
+    /**
+     * Collect the files in the given directory and wait for them to be
+     * hashed and stored.
+     *
+     * @param dir the directory
+     * @throws IOException thrown on I/O error
+     * @throws InterruptedException thrown on interruption
+     */
+    public void collect(@NonNull File dir) throws IOException, InterruptedException {
+        destDir.mkdirs();
+        root = dir.toPath();
+        linking = linkingAllowed && isSameFileStore(dir, destDir);
+
+        hashExecutor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(Math.max(1, hashThreads),
+                new ThreadFactoryBuilder().setNameFormat("File hasher %d").setDaemon(true).build()));
+        storeExecutor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(STORE_THREADS,
+                new ThreadFactoryBuilder().setNameFormat("Object store %d").setDaemon(true).build()));
+
+        try {
+            walk(dir);
+
+            List<FileInstall> entries;
+            try {
+                entries = Futures.allAsList(pending).get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("Failed to collect files", e.getCause());
+            }
+
+            for (FileInstall entry : entries) {
+                manifest.getTasks().add(entry);
+            }
+
+            log.info(String.format("Collected %d file(s), %d hashed: %d object(s) copied, %d linked, %d already present",
+                    entries.size(), hashedCount.get(), copiedCount.get(), linkedCount.get(), existingCount.get()));
+        } finally {
+            hashExecutor.shutdownNow();
+            storeExecutor.shutdownNow();
+            pending.clear();
+            stored.clear();
+        }
+    }
+
     @Override
     protected DirectoryBehavior getBehavior(@NonNull String name) {
         return getDirectoryBehavior(name);
     }
 
     @Override
-    protected void onFile(File file, String relPath) throws IOException {
+    protected void onFile(final File file, final String relPath, final BasicFileAttributes attributes) throws IOException {
         if (file.getName().endsWith(FileInfoScanner.FILE_SUFFIX)
                 || file.getName().endsWith(FileUrlScanner.URL_FILE_SUFFIX)) {
             return;
         }
 
-        FileInstall entry = new FileInstall();
-        String hash = Files.hash(file, hf).toString();
-        String to = FilenameUtils.separatorsToUnix(FilenameUtils.normalize(relPath));
-        
         // url.txt override file
         File urlFile = new File(file.getAbsoluteFile().getParentFile(),
                 file.getName() + FileUrlScanner.URL_FILE_SUFFIX);
-        String location;
-        boolean copy = true;
+        final String redirectUrl;
         if (urlFile.exists() && FileUrlScanner.isEnabled()) {
-            FileUrlRedirect redirect = FileUrlRedirect.fromFile(urlFile);
-
-            location = redirect.getUrl().toString();
-            copy = false;
+            redirectUrl = FileUrlRedirect.fromFile(urlFile).getUrl().toString();
         } else {
-            location = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+            redirectUrl = null;
+        }
+
+        ListenableFuture<FileInstall> hashed = hashExecutor.submit(new Callable<FileInstall>() {
+            @Override
+            public FileInstall call() throws Exception {
+                // Keyed by the source path, as ignored directories can give two files the same target
+                String key = FilenameUtils.separatorsToUnix(root.relativize(file.toPath()).toString());
+                BuildCache.Fingerprint fingerprint = BuildCache.Fingerprint.of(attributes);
+                String hash = buildCache.getHash(key, fingerprint);
+                if (hash == null) {
+                    hash = Files.hash(file, hf).toString();
+                    buildCache.putHash(key, fingerprint, hash);
+                    hashedCount.incrementAndGet();
+                }
+
+                String location = redirectUrl != null ? redirectUrl : BuildCache.getObjectLocation(hash);
+
+                FileInstall entry = new FileInstall();
+                entry.setHash(hash);
+                entry.setLocation(location);
+                entry.setTo(FilenameUtils.separatorsToUnix(FilenameUtils.normalize(relPath)));
+                entry.setSize(fingerprint.getSize());
+                applicator.apply(entry);
+                ClientFileCollector.log.info(String.format("Adding %s from %s...", relPath, file.getAbsolutePath()));
+                return entry;
+            }
+        });
+
+        pending.add(Futures.transform(hashed, new AsyncFunction<FileInstall, FileInstall>() {
+            @Override
+            public ListenableFuture<FileInstall> apply(FileInstall entry) {
+                if (redirectUrl != null) {
+                    return Futures.immediateFuture(entry);
+                }
+                return Futures.transform(store(file, entry.getLocation()), Functions.constant(entry),
+                        MoreExecutors.sameThreadExecutor());
+            }
+        }, MoreExecutors.sameThreadExecutor()));
+    }
+
+    private ListenableFuture<Void> store(final File file, String location) {
+        final File destPath = new File(destDir, location);
+        ListenableFutureTask<Void> task = ListenableFutureTask.create(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                storeObject(file, destPath);
+                return null;
+            }
+        });
+
+        ListenableFuture<Void> existing = stored.putIfAbsent(location, task);
+        if (existing != null) {
+            return existing;
+        }
+
+        storeExecutor.execute(task);
+        return task;
+    }
+
+    private void storeObject(File file, File destPath) throws IOException {
+        if (destPath.isFile() && destPath.length() == file.length()) {
+            existingCount.incrementAndGet();
+            return;
         }
-        
-        File destPath = new File(destDir, location);
-        entry.setHash(hash);
-        entry.setLocation(location);
-        entry.setTo(to);
-        entry.setSize(file.length());
-        applicator.apply(entry);
+
         destPath.getParentFile().mkdirs();
-        ClientFileCollector.log.info(String.format("Adding %s from %s...", relPath, file.getAbsolutePath()));
-        if (copy) {
-            Files.copy(file, destPath);
+
+        // Linked or copied beside the object and moved over it, so that an old copy is never missing
+        File tempPath = new File(destPath.getParentFile(), destPath.getName() + ".tmp");
+        tempPath.delete();
+
+        if (linking) {
+            try {
+                java.nio.file.Files.createLink(tempPath.toPath(), file.toPath());
+                moveObject(tempPath, destPath);
+                linkedCount.incrementAndGet();
+                return;
+            } catch (FileSystemException e) {
+                log.log(Level.WARNING, "Failed to link " + destPath + " to " + file + "; copying objects from now on", e);
+                linking = false;
+                tempPath.delete();
+            } catch (UnsupportedOperationException e) {
+                linking = false;
+            }
+        }
+
+        java.nio.file.Files.copy(file.toPath(), tempPath.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        moveObject(tempPath, destPath);
+        copiedCount.incrementAndGet();
+    }
+
+    private static void moveObject(File tempPath, File destPath) throws IOException {
+        try {
+            java.nio.file.Files.move(tempPath.toPath(), destPath.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            java.nio.file.Files.move(tempPath.toPath(), destPath.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static boolean isSameFileStore(File a, File b) {
+        try {
+            return java.nio.file.Files.getFileStore(a.toPath()).equals(java.nio.file.Files.getFileStore(b.toPath()));
+        } catch (IOException e) {
+            return false;
         }
-        manifest.getTasks().add(entry);
     }
 
     public static DirectoryBehavior getDirectoryBehavior(@NonNull String name) {
@@ -10,11 +10,19 @@ import lombok.NonNull;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.attribute.BasicFileAttributes;
 
 /**
  * Abstract class to recursively walk a directory, keep track of a relative
  * path (which may be modified by dropping certain directory entries),
  * and call {@link #onFile(java.io.File, String)} with each file.
+ *
+ * <p>The tree is listed by a {@link FileTreeWalker}, so
+ * {@link #getBehavior(String)} may be called from several threads, but
+ * files are passed to {@link #onFile(File, String, BasicFileAttributes)}
+ * on the calling thread, in walk order. Each file is passed on as soon as
+ * the directories before it have been listed, while the rest of the tree
+ * is still being listed.</p>
  */
 public abstract class DirectoryWalker {
 
@@ -40,40 +48,23 @@ public abstract class DirectoryWalker {
      * @throws IOException thrown on I/O error
      */
     public final void walk(@NonNull File dir) throws IOException {
-        walk(dir, "");
-    }
-
-    /**
-     * Recursively walk the given directory and keep track of the relative path.
-     *
-     * @param dir the directory
-     * @param basePath the base path
-     * @throws IOException
-     */
-    private void walk(@NonNull File dir, @NonNull String basePath) throws IOException {
         if (!dir.isDirectory()) {
             throw new IllegalArgumentException(dir.getAbsolutePath() + " is not a directory");
         }
 
-        File[] files = dir.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    String newPath = basePath;
+        FileTreeWalker walker = new FileTreeWalker() {
+            @Override
+            protected DirectoryBehavior getBehavior(Entry directory) {
+                return DirectoryWalker.this.getBehavior(directory.getPath().getFileName().toString());
+            }
+        };
 
-                    switch (getBehavior(file.getName())) {
-                        case CONTINUE:
-                            newPath += file.getName() + "/";
-                        case IGNORE:
-                            walk(file, newPath);
-                            break;
-                        case SKIP: break;
-                    }
-                } else {
-                    onFile(file, basePath + file.getName());
-                }
+        walker.walk(dir.toPath(), new FileTreeWalker.Visitor() {
+            @Override
+            public void visit(FileTreeWalker.Entry entry) throws IOException {
+                onFile(entry.getPath().toFile(), entry.getRelativePath(), entry.getAttributes());
             }
-        }
+        });
     }
 
     /**
@@ -87,13 +78,28 @@ public abstract class DirectoryWalker {
     }
 
     /**
-     * Callback on each file.
+     * Callback on each file, with the attributes read during the walk.
+     * By default, this calls {@link #onFile(File, String)}.
      *
      * @param file the file
      * @param relPath the relative path
+     * @param attributes the attributes of the file
      * @throws IOException thrown on I/O error
      */
-    protected abstract void onFile(File file, String relPath) throws IOException;
+    protected void onFile(File file, String relPath, BasicFileAttributes attributes) throws IOException {
+        onFile(file, relPath);
+    }
+
+    /**
+     * Callback on each file. Subclasses override either this or
+     * {@link #onFile(File, String, BasicFileAttributes)}.
+     *
+     * @param file the file
+     * @param relPath the relative path
+     * @throws IOException thrown on I/O error
+     */
+    protected void onFile(File file, String relPath) throws IOException {
+    }
 
 
 }
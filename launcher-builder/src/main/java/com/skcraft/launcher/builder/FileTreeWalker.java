@@ -0,0 +1,334 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder;
+
+import com.skcraft.launcher.builder.DirectoryWalker.DirectoryBehavior;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Lists every file in a directory tree together with its attributes.
+ *
+ * <p>Each directory is listed with a {@link DirectoryStream} and each entry
+ * is read once with {@link Files#readAttributes(Path, Class, LinkOption...)},
+ * so that callers do not need to ask the file system about a file again.
+ * Subdirectories are listed in parallel on a shared {@link ForkJoinPool},
+ * but the entries are returned depth first with the entries of each
+ * directory sorted by name, so that the result does not depend on timing.
+ * A {@link Visitor} is given each entry as soon as the directories before it
+ * have been listed, so that it can work while the rest of the tree is still
+ * being listed.</p>
+ *
+ * <p>Symbolic links are followed. A link to a directory that the walk is
+ * already inside of is skipped, which is detected from the file key of the
+ * directory (its device and inode on Unix) rather than by resolving every
+ * path. Links that are broken are skipped. If revisits are not allowed, a
+ * directory reached more than once is walked where it comes first in walk
+ * order, which is settled on the visiting thread as the results are joined,
+ * so it does not depend on which listing finished first.</p>
+ */
+@Log
+public class FileTreeWalker {
+
+    private static final ForkJoinPool pool = new ForkJoinPool(
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+
+    /**
+     * Whether subdirectories are walked. If false, only the given directory
+     * is listed.
+     */
+    @Getter @Setter private boolean recursive = true;
+
+    /**
+     * Whether directories are included in the result.
+     */
+    @Getter @Setter private boolean directoriesIncluded;
+
+    /**
+     * Whether a directory that was already walked through another link is
+     * walked again.
+     */
+    @Getter @Setter private boolean revisitsAllowed = true;
+
+    /**
+     * Whether links to directories outside of the tree are followed.
+     */
+    @Getter @Setter private boolean escapingLinksFollowed = true;
+
+    /**
+     * Walk the given directory.
+     *
+     * @param dir the directory
+     * @return the entries, in walk order
+     * @throws IOException thrown on I/O error
+     */
+    public List<Entry> walk(@NonNull Path dir) throws IOException {
+        final List<Entry> entries = new ArrayList<Entry>();
+        walk(dir, new Visitor() {
+            @Override
+            public void visit(Entry entry) {
+                entries.add(entry);
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * Walk the given directory, passing each entry to the visitor on the
+     * calling thread, in walk order.
+     *
+     * @param dir the directory
+     * @param visitor the visitor
+     * @throws IOException thrown on I/O error, or by the visitor
+     */
+    public void walk(@NonNull Path dir, @NonNull Visitor visitor) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(dir, BasicFileAttributes.class);
+        if (!attributes.isDirectory()) {
+            throw new IllegalArgumentException(dir.toAbsolutePath() + " is not a directory");
+        }
+
+        Walk walk = new Walk(dir);
+        Object key = walk.getKey(dir, attributes);
+        walk.visited.add(key);
+
+        DirectoryTask root = new DirectoryTask(walk, dir, "", new Ancestor(key, null));
+        pool.execute(root);
+
+        boolean completed = false;
+        try {
+            visit(root, visitor);
+            completed = true;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (!completed) {
+                // Directories that are still queued have nobody to give their entries to
+                walk.abandoned = true;
+            }
+        }
+    }
+
+    private void visit(DirectoryTask task, Visitor visitor) throws IOException {
+        for (Object result : task.join()) {
+            if (result instanceof DirectoryTask) {
+                DirectoryTask child = (DirectoryTask) result;
+                if (!revisitsAllowed && !child.walk.visited.add(child.ancestors.key)) {
+                    // Reached earlier in walk order through another link
+                    child.cancel(false);
+                    continue;
+                }
+                visit(child, visitor);
+            } else {
+                visitor.visit((Entry) result);
+            }
+        }
+    }
+
+    /**
+     * Return the behavior for the given directory. This is called from
+     * several threads at once.
+     *
+     * @param directory the directory
+     * @return the behavior
+     */
+    protected DirectoryBehavior getBehavior(Entry directory) {
+        return DirectoryBehavior.CONTINUE;
+    }
+
+    /**
+     * Receives the entries of a walk.
+     */
+    public interface Visitor {
+        /**
+         * Called for each entry, in walk order.
+         *
+         * @param entry the entry
+         * @throws IOException thrown on I/O error, which stops the walk
+         */
+        void visit(Entry entry) throws IOException;
+    }
+
+    /**
+     * A file or directory found by the walk.
+     */
+    @Data
+    public static class Entry {
+        private final Path path;
+        private final String relativePath;
+        private final BasicFileAttributes attributes;
+    }
+
+    private class Walk {
+        private final Path root;
+        // Only added to by the visiting thread, in walk order
+        private final Set<Object> visited = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+        private volatile boolean abandoned;
+        private Path realRoot;
+
+        private Walk(Path root) {
+            this.root = root;
+        }
+
+        private Object getKey(Path dir, BasicFileAttributes attributes) throws IOException {
+            Object key = attributes.fileKey();
+            return key != null ? key : dir.toRealPath();
+        }
+
+        private synchronized boolean isInside(Path dir) throws IOException {
+            if (realRoot == null) {
+                realRoot = root.toRealPath();
+            }
+            return dir.toRealPath().startsWith(realRoot);
+        }
+    }
+
+    private static class Ancestor {
+        private final Object key;
+        private final Ancestor parent;
+
+        private Ancestor(Object key, Ancestor parent) {
+            this.key = key;
+            this.parent = parent;
+        }
+
+        private boolean contains(Object key) {
+            for (Ancestor ancestor = this; ancestor != null; ancestor = ancestor.parent) {
+                if (ancestor.key.equals(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Lists one directory. Its result holds the directory's entries and, in
+     * their place, the tasks that list its subdirectories, which have been
+     * started but are not waited for.
+     */
+    private class DirectoryTask extends RecursiveTask<List<Object>> {
+        private final Walk walk;
+        private final Path dir;
+        private final String basePath;
+        private final Ancestor ancestors;
+
+        private DirectoryTask(Walk walk, Path dir, String basePath, Ancestor ancestors) {
+            this.walk = walk;
+            this.dir = dir;
+            this.basePath = basePath;
+            this.ancestors = ancestors;
+        }
+
+        @Override
+        protected List<Object> compute() {
+            if (walk.abandoned) {
+                return Collections.emptyList();
+            }
+
+            try {
+                return list();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<Object> list() throws IOException {
+            List<Path> children = new ArrayList<Path>();
+            DirectoryStream<Path> stream;
+            try {
+                stream = Files.newDirectoryStream(dir);
+            } catch (AccessDeniedException e) {
+                log.warning("Skipping " + dir.toAbsolutePath() + " because it cannot be read");
+                return Collections.emptyList();
+            }
+            try {
+                for (Path child : stream) {
+                    children.add(child);
+                }
+            } finally {
+                stream.close();
+            }
+
+            Collections.sort(children, new Comparator<Path>() {
+                @Override
+                public int compare(Path o1, Path o2) {
+                    return o1.getFileName().toString().compareTo(o2.getFileName().toString());
+                }
+            });
+
+            // Each child is an entry or the task that lists it
+            List<Object> results = new ArrayList<Object>();
+
+            for (Path child : children) {
+                String name = child.getFileName().toString();
+                BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                boolean link = attributes.isSymbolicLink();
+
+                if (link) {
+                    try {
+                        attributes = Files.readAttributes(child, BasicFileAttributes.class);
+                    } catch (NoSuchFileException e) {
+                        log.warning("Skipping broken link " + child.toAbsolutePath());
+                        continue;
+                    }
+                }
+
+                if (!attributes.isDirectory()) {
+                    results.add(new Entry(child, basePath + name, attributes));
+                    continue;
+                }
+
+                Entry entry = new Entry(child, basePath + name, attributes);
+                DirectoryBehavior behavior = getBehavior(entry);
+                if (behavior == DirectoryBehavior.SKIP) {
+                    continue;
+                }
+
+                if (directoriesIncluded) {
+                    results.add(entry);
+                }
+
+                if (!recursive) {
+                    continue;
+                }
+
+                Object key = walk.getKey(child, attributes);
+                if (ancestors.contains(key)) {
+                    log.warning("Skipping " + child.toAbsolutePath() + " because it links back to a parent directory");
+                    continue;
+                }
+                if (!revisitsAllowed && walk.visited.contains(key)) {
+                    // Already walked at an earlier place in walk order, as the visitor has got past it
+                    continue;
+                }
+                if (link && !escapingLinksFollowed && !walk.isInside(child)) {
+                    continue;
+                }
+
+                String newPath = behavior == DirectoryBehavior.CONTINUE ? basePath + name + "/" : basePath;
+                DirectoryTask task = new DirectoryTask(walk, child, newPath, new Ancestor(key, ancestors));
+                results.add(task);
+                task.fork();
+            }
+
+            return results;
+        }
+    }
+
+}
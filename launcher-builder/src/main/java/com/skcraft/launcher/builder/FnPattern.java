@@ -0,0 +1,410 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+/**
+ * A pattern that has been parsed once so that it can be matched against
+ * many paths, with the same results as {@link FnMatch#fnmatch(String, String, EnumSet)}.
+ *
+ * <p>The pattern is turned into a list of steps, and everything that
+ * {@link FnMatch} works out as it goes, such as where a bracket expression
+ * ends or where {@link FnMatch.Flag#PERIOD} stops applying, is worked out up
+ * front. With {@link FnMatch.Flag#CASEFOLD}, the path is lowercased once
+ * instead of every character being lowercased at every comparison. Patterns
+ * that {@link FnMatch} would fail on, and patterns using
+ * {@link FnMatch.Flag#LEADING_DIR}, are handed to {@link FnMatch}.</p>
+ *
+ * <p>Instances are immutable and can be shared between threads.</p>
+ */
+public final class FnPattern {
+
+    private static final int LITERAL = 0;
+    private static final int ANY = 1;
+    private static final int RANGE = 2;
+    private static final int NEVER = 3;
+    private static final int STAR = 4;
+    private static final int STAR_TO_SLASH = 5;
+    private static final int STAR_TO_END = 6;
+
+    @Getter private final String pattern;
+    private final EnumSet<FnMatch.Flag> flags;
+    private final boolean interpreted;
+    private final boolean caseFolded;
+    private final boolean pathname;
+    private final int[] steps;
+    private final char[] literals;
+    private final boolean[] periods;
+    private final Range[] ranges;
+    @Getter private final String prefix;
+
+    private FnPattern(String pattern, EnumSet<FnMatch.Flag> flags) {
+        this.pattern = pattern;
+        this.flags = EnumSet.copyOf(flags);
+        this.caseFolded = flags.contains(FnMatch.Flag.CASEFOLD);
+        this.pathname = flags.contains(FnMatch.Flag.PATHNAME);
+
+        Compiler compiler = new Compiler(pattern, flags);
+        this.interpreted = flags.contains(FnMatch.Flag.LEADING_DIR) || !compiler.compile();
+        this.steps = compiler.steps;
+        this.literals = compiler.literals;
+        this.periods = compiler.periods;
+        this.ranges = compiler.ranges;
+
+        StringBuilder prefix = new StringBuilder();
+        if (!interpreted) {
+            for (int i = 0; i < steps.length && steps[i] == LITERAL; i++) {
+                prefix.append(literals[i]);
+            }
+        }
+        this.prefix = prefix.toString();
+    }
+
+    /**
+     * Compile a pattern.
+     *
+     * @param pattern the pattern
+     * @param flags the flags
+     * @return the compiled pattern
+     */
+    public static FnPattern compile(@NonNull String pattern, @NonNull EnumSet<FnMatch.Flag> flags) {
+        return new FnPattern(pattern, flags);
+    }
+
+    /**
+     * Return whether this pattern compares characters without regard to
+     * case, in which case {@link #getPrefix()} is lowercase.
+     *
+     * @return true if case is ignored
+     */
+    public boolean isCaseFolded() {
+        return caseFolded;
+    }
+
+    /**
+     * Test whether the given path matches.
+     *
+     * @param path the path
+     * @return true if the path matches
+     */
+    public boolean matches(@NonNull String path) {
+        return matches(path, caseFolded ? fold(path) : path);
+    }
+
+    /**
+     * Test whether the given path matches, given the path and its
+     * lowercased form from {@link #fold(String)}.
+     *
+     * @param path the path
+     * @param folded the lowercased path
+     * @return true if the path matches
+     */
+    boolean matches(String path, String folded) {
+        if (interpreted) {
+            return FnMatch.fnmatch(pattern, path, flags);
+        }
+        return match(0, caseFolded ? folded : path, 0);
+    }
+
+    private boolean match(int step, String string, int pos) {
+        int length = string.length();
+
+        for (; step < steps.length; step++) {
+            switch (steps[step]) {
+                case LITERAL:
+                    if (pos >= length || string.charAt(pos) != literals[step]) {
+                        return false;
+                    }
+                    pos++;
+                    break;
+
+                case ANY:
+                case RANGE:
+                    if (pos >= length) {
+                        return false;
+                    }
+                    char c = string.charAt(pos);
+                    if (c == '/' && pathname) {
+                        return false;
+                    }
+                    if (hasLeadingPeriod(step, string, pos)) {
+                        return false;
+                    }
+                    if (steps[step] == RANGE && !ranges[step].contains(c)) {
+                        return false;
+                    }
+                    pos++;
+                    break;
+
+                case NEVER:
+                    return false;
+
+                case STAR:
+                    if (hasLeadingPeriod(step, string, pos)) {
+                        return false;
+                    }
+                    for (; pos < length; pos++) {
+                        if (match(step + 1, string, pos)) {
+                            return true;
+                        }
+                        if (string.charAt(pos) == '/' && pathname) {
+                            break;
+                        }
+                    }
+                    return false;
+
+                case STAR_TO_SLASH:
+                    if (hasLeadingPeriod(step, string, pos)) {
+                        return false;
+                    }
+                    pos = string.indexOf('/', pos);
+                    if (pos == -1) {
+                        return false;
+                    }
+                    break;
+
+                case STAR_TO_END:
+                    if (hasLeadingPeriod(step, string, pos)) {
+                        return false;
+                    }
+                    return !pathname || string.indexOf('/', pos) == -1;
+            }
+        }
+
+        return pos == length;
+    }
+
+    private boolean hasLeadingPeriod(int step, String string, int pos) {
+        return periods[step] && pos < string.length() && string.charAt(pos) == '.'
+                && (pos == 0 || (pathname && string.charAt(pos - 1) == '/'));
+    }
+
+    /**
+     * Lowercase a path the way {@link FnMatch.Flag#CASEFOLD} compares it,
+     * one character at a time.
+     *
+     * @param path the path
+     * @return the lowercased path
+     */
+    static String fold(String path) {
+        char[] chars = null;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            char lower = Character.toLowerCase(c);
+            if (lower != c) {
+                if (chars == null) {
+                    chars = path.toCharArray();
+                }
+                chars[i] = lower;
+            }
+        }
+        return chars != null ? new String(chars) : path;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    /**
+     * The characters accepted by a bracket expression, after lowercasing
+     * if the pattern ignores case.
+     */
+    private static class Range {
+        private final boolean negate;
+        private final char[] from;
+        private final char[] to;
+
+        private Range(boolean negate, char[] from, char[] to) {
+            this.negate = negate;
+            this.from = from;
+            this.to = to;
+        }
+
+        private boolean contains(char c) {
+            boolean ok = false;
+            for (int i = 0; i < from.length; i++) {
+                if (from[i] <= c && c <= to[i]) {
+                    ok = true;
+                    break;
+                }
+            }
+            return ok != negate;
+        }
+    }
+
+    /**
+     * Parses a pattern the same way that {@link FnMatch} walks it.
+     */
+    private static class Compiler {
+        private final String pattern;
+        private final boolean noEscape;
+        private final boolean pathname;
+        private final boolean caseFold;
+        private boolean period;
+        private int pos;
+        private int count;
+        private int[] steps = new int[8];
+        private char[] literals = new char[8];
+        private boolean[] periods = new boolean[8];
+        private Range[] ranges = new Range[8];
+
+        private Compiler(String pattern, EnumSet<FnMatch.Flag> flags) {
+            this.pattern = pattern;
+            this.noEscape = flags.contains(FnMatch.Flag.NOESCAPE);
+            this.pathname = flags.contains(FnMatch.Flag.PATHNAME);
+            this.caseFold = flags.contains(FnMatch.Flag.CASEFOLD);
+            this.period = flags.contains(FnMatch.Flag.PERIOD);
+        }
+
+        /**
+         * Compile the pattern.
+         *
+         * @return false if the pattern has to be interpreted
+         */
+        private boolean compile() {
+            try {
+                while (pos < pattern.length()) {
+                    char c = pattern.charAt(pos++);
+                    switch (c) {
+                        case '?':
+                            add(ANY, c, null);
+                            continue;
+
+                        case '*':
+                            while (pos < pattern.length() && (c = pattern.charAt(pos)) == '*') {
+                                pos++;
+                            }
+                            if (pos == pattern.length()) {
+                                add(STAR_TO_END, c, null);
+                            } else if (c == '/' && pathname) {
+                                add(STAR_TO_SLASH, c, null);
+                            } else {
+                                add(STAR, c, null);
+                                // FnMatch drops the flag for whatever follows a star
+                                period = false;
+                            }
+                            continue;
+
+                        case '[':
+                            if (!compileRange()) {
+                                return true;
+                            }
+                            continue;
+
+                        case '\\':
+                            if (!noEscape) {
+                                c = pos >= pattern.length() ? '\\' : pattern.charAt(pos++);
+                            }
+                            break;
+                    }
+
+                    add(LITERAL, caseFold ? Character.toLowerCase(c) : c, null);
+                }
+                return true;
+            } catch (IndexOutOfBoundsException e) {
+                // FnMatch throws on some malformed bracket expressions, so leave it to FnMatch
+                return false;
+            } finally {
+                steps = Arrays.copyOf(steps, count);
+            }
+        }
+
+        /**
+         * Compile a bracket expression, following {@code FnMatch.matchRange}.
+         *
+         * @return false if nothing after it can match
+         */
+        private boolean compileRange() {
+            int start = pos;
+            StringBuilder from = new StringBuilder();
+            StringBuilder to = new StringBuilder();
+
+            if (pos >= pattern.length()) {
+                add(LITERAL, '[', null);
+                return true;
+            }
+
+            char c = pattern.charAt(pos);
+            boolean negate = c == '!' || c == '^';
+            if (negate) {
+                ++pos;
+            }
+
+            while (true) {
+                if (pos >= pattern.length()) {
+                    // Not a bracket expression, so the bracket is matched as itself
+                    pos = start;
+                    add(LITERAL, '[', null);
+                    return true;
+                }
+
+                c = pattern.charAt(pos++);
+                if (c == ']') {
+                    break;
+                }
+
+                if (c == '\\' && !noEscape) {
+                    c = pattern.charAt(pos++);
+                }
+                if (c == '/' && pathname) {
+                    add(NEVER, c, null);
+                    return false;
+                }
+                if (caseFold) {
+                    c = Character.toLowerCase(c);
+                }
+                char c2;
+                if (pattern.charAt(pos) == '-' &&
+                        pos + 1 < pattern.length() &&
+                        (c2 = pattern.charAt(pos + 1)) != ']') {
+                    pos += 2;
+                    if (c2 == '\\' && !noEscape) {
+                        if (pos >= pattern.length()) {
+                            pos = start;
+                            add(LITERAL, '[', null);
+                            return true;
+                        }
+                        // FnMatch reads the escaped character into the start of the range
+                        c = pattern.charAt(pos++);
+                    }
+                    if (caseFold) {
+                        c2 = Character.toLowerCase(c2);
+                    }
+                    from.append(c);
+                    to.append(c2);
+                } else {
+                    from.append(c);
+                    to.append(c);
+                }
+            }
+
+            add(RANGE, '[', new Range(negate, from.toString().toCharArray(), to.toString().toCharArray()));
+            return true;
+        }
+
+        private void add(int step, char literal, Range range) {
+            if (count == steps.length) {
+                steps = Arrays.copyOf(steps, count * 2);
+                literals = Arrays.copyOf(literals, count * 2);
+                periods = Arrays.copyOf(periods, count * 2);
+                ranges = Arrays.copyOf(ranges, count * 2);
+            }
+            steps[count] = step;
+            literals[count] = literal;
+            periods[count] = period;
+            ranges[count] = range;
+            count++;
+        }
+    }
+
+}
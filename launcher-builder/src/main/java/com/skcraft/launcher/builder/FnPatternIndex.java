@@ -0,0 +1,152 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder;
+
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * Finds which of many {@link FnPatternList}s match a path, without trying
+ * every pattern against every path.
+ *
+ * <p>Each include pattern is compiled to a {@link FnPattern} and filed in
+ * a tree under the literal text it starts with, so that a lookup only tries
+ * the patterns whose prefix the path starts with, plus those that start with
+ * a wildcard. A list matches a path under the same rules as
+ * {@link FnPatternList#matches(String)}.</p>
+ *
+ * <p>An index can be used from several threads once it has been built.</p>
+ *
+ * @param <T> the type of value stored with each list
+ */
+public class FnPatternIndex<T> {
+
+    private final List<T> values = new ArrayList<T>();
+    private final List<List<FnPattern>> excludes = new ArrayList<List<FnPattern>>();
+    private final Node foldedRoot = new Node();
+    private final Node exactRoot = new Node();
+
+    /**
+     * Add a list of patterns.
+     *
+     * @param patterns the list
+     * @param value the value to return when the list matches
+     */
+    public void add(@NonNull FnPatternList patterns, @NonNull T value) {
+        int id = values.size();
+        values.add(value);
+
+        List<FnPattern> exclude = new ArrayList<FnPattern>();
+        if (patterns.getExclude() != null) {
+            for (String pattern : patterns.getExclude()) {
+                exclude.add(FnPattern.compile(pattern, patterns.getFlags()));
+            }
+        }
+        excludes.add(exclude);
+
+        if (patterns.getInclude() != null) {
+            for (String pattern : patterns.getInclude()) {
+                FnPattern compiled = FnPattern.compile(pattern, patterns.getFlags());
+                Node node = compiled.isCaseFolded() ? foldedRoot : exactRoot;
+                String prefix = compiled.getPrefix();
+                for (int i = 0; i < prefix.length(); i++) {
+                    node = node.getChild(prefix.charAt(i));
+                }
+                node.entries.add(new Entry(compiled, id));
+            }
+        }
+    }
+
+    /**
+     * Get the values of the lists that match the given path.
+     *
+     * @param path the path
+     * @return the values, in the order that their lists were added
+     */
+    public List<T> getMatches(@NonNull String path) {
+        BitSet matched = match(path, false);
+        List<T> result = new ArrayList<T>(matched.cardinality());
+        for (int id = matched.nextSetBit(0); id >= 0; id = matched.nextSetBit(id + 1)) {
+            result.add(values.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * Test whether any list matches the given path.
+     *
+     * @param path the path
+     * @return true if a list matches
+     */
+    public boolean matches(@NonNull String path) {
+        return !match(path, true).isEmpty();
+    }
+
+    private BitSet match(String path, boolean first) {
+        String folded = FnPattern.fold(path);
+        BitSet tried = new BitSet(values.size());
+        BitSet matched = new BitSet(values.size());
+
+        for (Node node : new Node[] { foldedRoot, exactRoot }) {
+            String key = node == foldedRoot ? folded : path;
+
+            for (int i = 0; node != null; i++) {
+                for (Entry entry : node.entries) {
+                    if (tried.get(entry.id) || !entry.pattern.matches(path, folded)) {
+                        continue;
+                    }
+                    tried.set(entry.id);
+                    if (!isExcluded(entry.id, path, folded)) {
+                        matched.set(entry.id);
+                        if (first) {
+                            return matched;
+                        }
+                    }
+                }
+
+                node = i < key.length() ? node.children.get(key.charAt(i)) : null;
+            }
+        }
+
+        return matched;
+    }
+
+    private boolean isExcluded(int id, String path, String folded) {
+        for (FnPattern pattern : excludes.get(id)) {
+            if (pattern.matches(path, folded)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<Character, Node>();
+        private final List<Entry> entries = new ArrayList<Entry>();
+
+        private Node getChild(char c) {
+            Node child = children.get(c);
+            if (child == null) {
+                child = new Node();
+                children.put(c, child);
+            }
+            return child;
+        }
+    }
+
+    private static class Entry {
+        private final FnPattern pattern;
+        private final int id;
+
+        private Entry(FnPattern pattern, int id) {
+            this.pattern = pattern;
+            this.id = id;
+        }
+    }
+
+}
@@ -0,0 +1,377 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closer;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.skcraft.launcher.LauncherUtils;
+import com.skcraft.launcher.model.minecraft.Library;
+import com.skcraft.launcher.util.FileUtils;
+import com.skcraft.launcher.util.HttpRequest;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+
+import static com.skcraft.launcher.util.HttpRequest.url;
+
+/**
+ * Downloads the libraries of a package into the libraries directory.
+ *
+ * <p>Libraries are resolved concurrently. Each one is first fetched from
+ * where it was found by the last build, then from its own URL, the maven
+ * repositories inside the loader jars, and its URL as a repository. After
+ * that, the known repositories are all asked for it at once with HEAD
+ * requests, and it is downloaded from the first one in list order that has
+ * it, without waiting for the repositories after that one. Repositories that answered that they lack a library's group are
+ * only asked if no other repository has the library.</p>
+ *
+ * <p>Downloads go through the {@link UpstreamCache}. When it is offline, the
+ * repositories are not asked, and only libraries that it has are used.</p>
+ */
+@Log
+public class LibraryResolver {
+
+    private static final int RESOLVE_THREADS = 8;
+    private static final int PROBE_THREADS = 16;
+
+    private final List<String> mavenRepos;
+    private final List<URL> jarMavens;
+    private final BuildCache buildCache;
+    private final UpstreamCache upstreamCache;
+    private ExecutorService probeExecutor;
+
+    /**
+     * Create a new resolver.
+     *
+     * @param mavenRepos the base URLs of the known repositories, in order of preference
+     * @param jarMavens the repositories inside loader jars
+     * @param buildCache the build cache
+     * @param upstreamCache the cache of downloaded libraries
+     */
+    public LibraryResolver(@NonNull List<String> mavenRepos, @NonNull List<URL> jarMavens,
+                           @NonNull BuildCache buildCache, @NonNull UpstreamCache upstreamCache) {
+        this.mavenRepos = mavenRepos;
+        this.jarMavens = jarMavens;
+        this.buildCache = buildCache;
+        this.upstreamCache = upstreamCache;
+    }
+
+    /**
+     * Download every artifact of the given libraries that is not in the
+     * libraries directory yet.
+     *
+     * @param libraries the libraries
+     * @param librariesDir the libraries directory
+     * @throws IOException thrown on I/O error
+     * @throws InterruptedException thrown on interruption
+     */
+    public void resolve(@NonNull Iterable<Library> libraries, @NonNull File librariesDir)
+            throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(RESOLVE_THREADS,
+                new ThreadFactoryBuilder().setNameFormat("Library resolver %d").setDaemon(true).build());
+        probeExecutor = Executors.newFixedThreadPool(PROBE_THREADS,
+                new ThreadFactoryBuilder().setNameFormat("Repository probe %d").setDaemon(true).build());
+
+        try {
+            Map<String, Future<?>> futures = new LinkedHashMap<String, Future<?>>();
+
+            for (final Library library : libraries) {
+                library.ensureDownloadsExist();
+
+                for (final Library.Artifact artifact : library.getDownloads().getAllArtifacts()) {
+                    final File outputPath = new File(librariesDir, artifact.getPath());
+
+                    if (outputPath.exists() || futures.containsKey(artifact.getPath())) {
+                        continue;
+                    }
+
+                    futures.put(artifact.getPath(), executor.submit(new Callable<Object>() {
+                        @Override
+                        public Object call() throws Exception {
+                            Files.createParentDirs(outputPath);
+                            if (!resolve(library, artifact, outputPath)) {
+                                log.warning("!! Failed to download the library " + library.getName() +
+                                        " -- this means your copy of the libraries will lack this file");
+                            }
+                            return null;
+                        }
+                    }));
+                }
+            }
+
+            for (Future<?> future : futures.values()) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException("Failed to download libraries", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            probeExecutor.shutdownNow();
+        }
+    }
+
+    private boolean resolve(Library library, Library.Artifact artifact, File outputPath)
+            throws IOException, InterruptedException {
+        String path = artifact.getPath();
+        boolean urlEmpty = artifact.getUrl().isEmpty();
+
+        // Where it was found last time
+        String known = buildCache.getLibrarySource(path);
+        if (known != null && tryDownloadLibrary(library, artifact, known, outputPath)) {
+            return true;
+        }
+
+        // If URL doesn't end with a /, it might be the direct file
+        if (!urlEmpty && !artifact.getUrl().endsWith("/")
+                && tryDownloadLibrary(library, artifact, artifact.getUrl(), outputPath)) {
+            buildCache.putLibrarySource(path, artifact.getUrl());
+            return true;
+        }
+
+        // Look inside the loader JARs
+        for (URL base : jarMavens) {
+            if (tryFetchLibrary(library, new URL(base, path), outputPath)) {
+                return true;
+            }
+        }
+
+        // Assume artifact URL is a maven repository URL and try that
+        if (!urlEmpty) {
+            String url = LauncherUtils.concat(url(artifact.getUrl()), path).toString();
+            if (tryDownloadLibrary(library, artifact, url, outputPath)) {
+                buildCache.putLibrarySource(path, url);
+                return true;
+            }
+        }
+
+        // Ask the known repositories, skipping those that lack the group unless nothing else has it
+        String group = library.getName().getGroup();
+        List<String> likely = new ArrayList<String>();
+        List<String> unlikely = new ArrayList<String>();
+        for (String baseUrl : mavenRepos) {
+            (buildCache.isMissing(baseUrl, group) ? unlikely : likely).add(baseUrl);
+        }
+
+        for (List<String> repos : Arrays.asList(likely, unlikely)) {
+            if (tryRepositories(library, artifact, repos, group, path, outputPath)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Ask each repository at once whether it has a file, and download it
+     * from the first one in list order that has it. The answers of later
+     * repositories are not waited for, and the requests still running when
+     * the file is downloaded are cancelled. When offline, the repositories
+     * whose copy of the file is cached are tried instead.
+     *
+     * @return true if the file was downloaded
+     */
+    private boolean tryRepositories(Library library, Library.Artifact artifact, List<String> repos,
+                                    final String group, String path, File outputPath) throws IOException, InterruptedException {
+        if (upstreamCache.isOffline()) {
+            for (String baseUrl : repos) {
+                String url = baseUrl + path;
+                if (upstreamCache.hasArtifact(getRequestUrl(url)) && tryDownloadLibrary(library, artifact, url, outputPath)) {
+                    buildCache.putLibrarySource(path, url);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<String> urls = new ArrayList<String>();
+        List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+
+        for (final String baseUrl : repos) {
+            final String url = baseUrl + path;
+            urls.add(url);
+            futures.add(probeExecutor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    HttpRequest request = HttpRequest.head(getRequestUrl(url));
+                    try {
+                        int code = request.execute().getResponseCode();
+                        if (code == 404 || code == 410) {
+                            buildCache.putMissing(baseUrl, group);
+                            return false;
+                        } else if (code == 200) {
+                            buildCache.removeMissing(baseUrl, group);
+                        }
+                        return true;
+                    } finally {
+                        request.close();
+                    }
+                }
+            }));
+        }
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                String url = urls.get(i);
+                boolean found;
+                try {
+                    found = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    // The repository could not be reached, so it is left out
+                    log.log(Level.FINE, "Failed to probe " + url, e.getCause());
+                    found = false;
+                }
+
+                if (found && tryDownloadLibrary(library, artifact, url, outputPath)) {
+                    buildCache.putLibrarySource(path, url);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            for (Future<Boolean> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static URL getRequestUrl(String url) throws IOException {
+        URL requestUrl = new URL(url);
+
+        // Some repositories compress their files
+        for (Compressor compressor : Lists.reverse(BuilderUtils.getCompressors(url))) {
+            requestUrl = new URL(compressor.transformPathname(requestUrl.toString()));
+        }
+
+        return requestUrl;
+    }
+
+    private boolean tryDownloadLibrary(Library library, Library.Artifact artifact, String baseUrl, File outputPath)
+            throws IOException, InterruptedException {
+        URL url = new URL(baseUrl);
+
+        if (url.getPath().isEmpty() || url.getPath().equals("/")) {
+            // empty path, this is probably the first "is this a full URL" try.
+            return false;
+        }
+
+        url = getRequestUrl(baseUrl);
+        List<Compressor> compressors = BuilderUtils.getCompressors(baseUrl);
+        File tempFile = File.createTempFile("launcherlib", null, outputPath.getParentFile());
+
+        try {
+            log.info("Downloading library " + library.getName() + " from " + url + "...");
+            upstreamCache.download(url, tempFile, compressors.isEmpty() ? getValidator(artifact) : null,
+                    "application/java-archive", "application/octet-stream", "application/zip");
+        } catch (IOException e) {
+            log.info("Could not get file from " + url + ": " + e.getMessage());
+            tempFile.delete();
+            return false;
+        }
+
+        writeLibraryToFile(outputPath, tempFile, compressors);
+
+        // A compressed artifact can only be checked once it is decompressed
+        if (!compressors.isEmpty() && artifact.getSha1() != null) {
+            String hash = FileUtils.getShaHash(outputPath);
+            if (!hash.equalsIgnoreCase(artifact.getSha1())) {
+                log.warning("The library " + library.getName() + " from " + url + " has the hash " + hash +
+                        " instead of " + artifact.getSha1() + "; removing it from the upstream cache");
+                upstreamCache.removeArtifact(url);
+                outputPath.delete();
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the check that a downloaded library must pass before it is kept,
+     * which is its published hash if it has one, and otherwise that a jar or
+     * zip file opens as one.
+     *
+     * @param artifact the artifact
+     * @return the validator, or null if the artifact cannot be checked
+     */
+    private static UpstreamCache.Validator getValidator(Library.Artifact artifact) {
+        if (artifact.getSha1() != null) {
+            return UpstreamCache.sha1(artifact.getSha1());
+        }
+
+        String path = artifact.getPath().toLowerCase(Locale.ROOT);
+        if (path.endsWith(".jar") || path.endsWith(".zip")) {
+            return UpstreamCache.ZIP;
+        }
+
+        return null;
+    }
+
+    private boolean tryFetchLibrary(Library library, URL url, File outputPath) throws IOException {
+        File tempFile = File.createTempFile("launcherlib", null, outputPath.getParentFile());
+
+        Closer closer = Closer.create();
+        try {
+            log.info("Reading library " + library.getName() + " from " + url.toString());
+            InputStream stream = closer.register(url.openStream());
+            stream = closer.register(new BufferedInputStream(stream));
+
+            ByteStreams.copy(stream, closer.register(new FileOutputStream(tempFile)));
+        } catch (IOException e) {
+            log.info("Could not get file from " + url + ": " + e.getMessage());
+            tempFile.delete();
+            return false;
+        } finally {
+            closer.close();
+        }
+
+        writeLibraryToFile(outputPath, tempFile, Collections.<Compressor>emptyList());
+        return true;
+    }
+
+    private void writeLibraryToFile(File outputPath, File inputFile, List<Compressor> compressors) throws IOException {
+        File tempFile = inputFile;
+
+        try {
+            if (!compressors.isEmpty()) {
+                // Decompress and write to file
+                tempFile = File.createTempFile("launcherlib", null, outputPath.getParentFile());
+                Closer closer = Closer.create();
+                try {
+                    InputStream inputStream = closer.register(new FileInputStream(inputFile));
+                    inputStream = closer.register(new BufferedInputStream(inputStream));
+                    for (Compressor compressor : compressors) {
+                        inputStream = closer.register(compressor.createInputStream(inputStream));
+                    }
+                    ByteStreams.copy(inputStream, closer.register(new FileOutputStream(tempFile)));
+                } finally {
+                    closer.close();
+                }
+            }
+
+            // Moved into place so that an interrupted build never leaves a partial library behind
+            java.nio.file.Files.move(tempFile.toPath(), outputPath.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            inputFile.delete();
+            tempFile.delete();
+        }
+    }
+
+}
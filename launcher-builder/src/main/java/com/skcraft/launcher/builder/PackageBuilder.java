@@ -14,19 +14,20 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
-import com.google.common.io.ByteStreams;
 import com.google.common.io.Closer;
-import com.google.common.io.Files;
 import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.LauncherUtils;
 import com.skcraft.launcher.builder.loaders.*;
 import com.skcraft.launcher.model.loader.BasicInstallProfile;
+import com.skcraft.launcher.model.loader.InstallProcessor;
+import com.skcraft.launcher.model.loader.LoaderManifest;
+import com.skcraft.launcher.model.loader.ProcessorEntry;
 import com.skcraft.launcher.model.minecraft.Library;
 import com.skcraft.launcher.model.minecraft.ReleaseList;
 import com.skcraft.launcher.model.minecraft.Version;
 import com.skcraft.launcher.model.minecraft.VersionManifest;
 import com.skcraft.launcher.model.modpack.Manifest;
-import com.skcraft.launcher.util.HttpRequest;
+import com.skcraft.launcher.model.modpack.ManifestEntry;
 import com.skcraft.launcher.util.SimpleLogFormatter;
 import lombok.Getter;
 import lombok.NonNull;
@@ -35,9 +36,9 @@ import lombok.extern.java.Log;
 
 import java.io.*;
 import java.net.URL;
-import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.jar.JarFile;
 import java.util.logging.Level;
@@ -63,6 +64,15 @@ public class PackageBuilder {
     @Getter @Setter
     private File baseDir;
 
+    @Getter @Setter
+    private boolean objectLinksAllowed;
+
+    @Getter @Setter @NonNull
+    private BuildCache buildCache = BuildCache.create();
+
+    @Getter @Setter @NonNull
+    private UpstreamCache upstreamCache = UpstreamCache.create();
+
     private List<Library> loaderLibraries = Lists.newArrayList();
     private List<Library> installerLibraries = Lists.newArrayList();
     private List<String> mavenRepos;
@@ -115,11 +125,13 @@ public class PackageBuilder {
         urlScanner.walk(dir);
     }
 
-    public void addFiles(File dir, File destDir) throws IOException {
+    public void addFiles(File dir, File destDir) throws IOException, InterruptedException {
         logSection("Adding files to modpack...");
 
         ClientFileCollector collector = new ClientFileCollector(this.manifest, applicator, destDir);
-        collector.walk(dir);
+        collector.setLinkingAllowed(objectLinksAllowed);
+        collector.setBuildCache(buildCache);
+        collector.collect(dir);
     }
 
     public void addLoaders(File dir, File librariesDir) {
@@ -165,12 +177,12 @@ public class PackageBuilder {
                 if (basicProfile.isLegacy()) {
                     processor = new OldForgeLoaderProcessor();
                 } else {
-                    processor = new ModernForgeLoaderProcessor();
+                    processor = new ModernForgeLoaderProcessor(buildCache);
                 }
             } else if (BuilderUtils.getZipEntry(jarFile, "fabric-installer.json") != null) {
-            	processor = new FabricLoaderProcessor(FabricLoaderProcessor.Variant.FABRIC);
+            	processor = new FabricLoaderProcessor(FabricLoaderProcessor.Variant.FABRIC, upstreamCache);
             } else if (BuilderUtils.getZipEntry(jarFile, "quilt_installer.json") != null) {
-                processor = new FabricLoaderProcessor(FabricLoaderProcessor.Variant.QUILT);
+                processor = new FabricLoaderProcessor(FabricLoaderProcessor.Variant.QUILT, upstreamCache);
             }
         } finally {
             closer.close();
@@ -197,119 +209,37 @@ public class PackageBuilder {
     public void downloadLibraries(File librariesDir) throws IOException, InterruptedException {
         logSection("Downloading libraries...");
 
-        for (Library library : Iterables.concat(loaderLibraries, installerLibraries)) {
-            library.ensureDownloadsExist();
-
-            for (Library.Artifact artifact : library.getDownloads().getAllArtifacts()) {
-                File outputPath = new File(librariesDir, artifact.getPath());
-
-                if (!outputPath.exists()) {
-                    Files.createParentDirs(outputPath);
-                    boolean found = false;
-                    boolean urlEmpty = artifact.getUrl().isEmpty();
-
-                    // If URL doesn't end with a /, it might be the direct file
-                    if (!urlEmpty && !artifact.getUrl().endsWith("/")) {
-                        found = tryDownloadLibrary(library, artifact, artifact.getUrl(), outputPath);
-                    }
-
-                    // Look inside the loader JARs
-                    if (!found) {
-                        for (URL base : jarMavens) {
-                            found = tryFetchLibrary(library, new URL(base, artifact.getPath()), outputPath);
-                            if (found) break;
-                        }
-                    }
-
-                    // Assume artifact URL is a maven repository URL and try that
-                    if (!found && !urlEmpty) {
-                        URL url = LauncherUtils.concat(url(artifact.getUrl()), artifact.getPath());
-                        found = tryDownloadLibrary(library, artifact, url.toString(), outputPath);
-                    }
-
-                    // Try each repository if not found yet
-                    if (!found) {
-                        for (String baseUrl : mavenRepos) {
-                            found = tryDownloadLibrary(library, artifact, baseUrl + artifact.getPath(),
-                                    outputPath);
-                            if (found) break;
-                        }
-                    }
-
-                    if (!found) {
-                        log.warning("!! Failed to download the library " + library.getName() +
-                                " -- this means your copy of the libraries will lack this file");
-                    }
-                }
-            }
-        }
+        LibraryResolver resolver = new LibraryResolver(mavenRepos, jarMavens, buildCache, upstreamCache);
+        resolver.resolve(Iterables.concat(loaderLibraries, installerLibraries), librariesDir);
     }
 
-    private boolean tryDownloadLibrary(Library library, Library.Artifact artifact, String baseUrl, File outputPath)
-            throws IOException, InterruptedException {
-        URL url = new URL(baseUrl);
-
-        if (url.getPath().isEmpty() || url.getPath().equals("/")) {
-            // empty path, this is probably the first "is this a full URL" try.
-            return false;
-        }
-
-        // Some repositories compress their files
-        List<Compressor> compressors = BuilderUtils.getCompressors(baseUrl);
-        for (Compressor compressor : Lists.reverse(compressors)) {
-            url = new URL(compressor.transformPathname(url.toString()));
-        }
-
-        File tempFile = File.createTempFile("launcherlib", null);
-
-        try {
-            log.info("Downloading library " + library.getName() + " from " + url + "...");
-            HttpRequest.get(url).execute().expectResponseCode(200)
-                    .expectContentType("application/java-archive", "application/octet-stream", "application/zip")
-                    .saveContent(tempFile);
-        } catch (IOException e) {
-            log.info("Could not get file from " + url + ": " + e.getMessage());
-            return false;
-        }
-
-        writeLibraryToFile(outputPath, tempFile, compressors);
-        return true;
-    }
-
-    private boolean tryFetchLibrary(Library library, URL url, File outputPath)
-            throws IOException {
-        File tempFile = File.createTempFile("launcherlib", null);
+    /**
+     * Run the client processors of each loader and publish their outputs,
+     * so that clients can download them instead of running the processors.
+     * The libraries must have been downloaded first.
+     *
+     * @param librariesDir the libraries directory
+     * @param objectsDir the objects directory
+     * @throws IOException thrown on I/O error
+     * @throws InterruptedException thrown on interruption
+     */
+    public void bakeProcessors(File librariesDir, File objectsDir) throws IOException, InterruptedException {
+        logSection("Running loader processors...");
 
-        Closer closer = Closer.create();
-        try {
-            log.info("Reading library " + library.getName() + " from " + url.toString());
-            InputStream stream = closer.register(url.openStream());
-            stream = closer.register(new BufferedInputStream(stream));
-
-            ByteStreams.copy(stream, closer.register(new FileOutputStream(tempFile)));
-        } catch (IOException e) {
-            log.info("Could not get file from " + url + ": " + e.getMessage());
-            return false;
-        } finally {
-            closer.close();
-        }
+        ProcessorBaker baker = new ProcessorBaker(manifest, librariesDir, objectsDir, upstreamCache);
 
-        writeLibraryToFile(outputPath, tempFile, Collections.<Compressor>emptyList());
-        return true;
-    }
+        for (Map.Entry<String, LoaderManifest> entry : manifest.getLoaders().entrySet()) {
+            List<InstallProcessor> processors = Lists.newArrayList();
+            for (ManifestEntry task : manifest.getTasks()) {
+                if (task instanceof ProcessorEntry && entry.getKey().equals(((ProcessorEntry) task).getLoaderName())) {
+                    processors.add(((ProcessorEntry) task).getProcessor());
+                }
+            }
 
-    private void writeLibraryToFile(File outputPath, File inputFile, List<Compressor> compressors) throws IOException {
-        // Decompress (if needed) and write to file
-        Closer closer = Closer.create();
-        InputStream inputStream = closer.register(new FileInputStream(inputFile));
-        inputStream = closer.register(new BufferedInputStream(inputStream));
-        for (Compressor compressor : compressors) {
-            inputStream = closer.register(compressor.createInputStream(inputStream));
+            if (!processors.isEmpty()) {
+                baker.bake(entry.getKey(), entry.getValue(), processors);
+            }
         }
-        ByteStreams.copy(inputStream, closer.register(new FileOutputStream(outputPath)));
-
-        inputFile.delete();
-        closer.close();
     }
 
     public void validateManifest() {
@@ -338,18 +268,22 @@ public class PackageBuilder {
 
             log.info("Fetching version manifest from " + url + "...");
 
-            ReleaseList releases = HttpRequest.get(url)
-                    .execute()
-                    .expectResponseCode(200)
-                    .returnContent()
-                    .asJson(ReleaseList.class);
+            ReleaseList releases = mapper.readValue(
+                    upstreamCache.getDocument(url, UpstreamCache.METADATA_MAX_AGE), ReleaseList.class);
 
             Version version = releases.find(manifest.getGameVersion());
-            VersionManifest versionManifest = HttpRequest.get(url(version.getUrl()))
-                .execute()
-                .expectResponseCode(200)
-                .returnContent()
-                .asJson(VersionManifest.class);
+            if (version == null && !upstreamCache.isOffline()) {
+                // The cached list may predate the version
+                releases = mapper.readValue(upstreamCache.getDocument(url, 0), ReleaseList.class);
+                version = releases.find(manifest.getGameVersion());
+            }
+            if (version == null) {
+                throw new IOException("The game version " + manifest.getGameVersion() + " is not listed at " + url);
+            }
+
+            VersionManifest versionManifest = mapper.readValue(
+                    upstreamCache.getDocument(url(version.getUrl()), UpstreamCache.METADATA_MAX_AGE),
+                    VersionManifest.class);
 
             manifest.setVersionManifest(versionManifest);
         }
@@ -418,6 +352,11 @@ public class PackageBuilder {
         manifest.setMinimumVersion(Manifest.MIN_PROTOCOL_VERSION);
         PackageBuilder builder = new PackageBuilder(mapper, manifest);
         builder.setPrettyPrint(options.isPrettyPrinting());
+        builder.setObjectLinksAllowed(options.isObjectLinksEnabled());
+        if (!options.isCacheDisabled()) {
+            builder.setBuildCache(BuildCache.load(options.getCachePath(), mapper));
+        }
+        builder.setUpstreamCache(UpstreamCache.open(options.getUpstreamCachePath(), mapper, options.isOffline()));
 
         // From config
         builder.readConfig(options.getConfigPath());
@@ -436,7 +375,11 @@ public class PackageBuilder {
         builder.addFiles(options.getFilesDir(), options.getObjectsDir());
         builder.addLoaders(options.getLoadersDir(), options.getLibrariesDir());
         builder.downloadLibraries(options.getLibrariesDir());
+        if (options.isProcessorsBaked()) {
+            builder.bakeProcessors(options.getLibrariesDir(), options.getObjectsDir());
+        }
         builder.writeManifest(options.getManifestPath());
+        builder.getBuildCache().save();
 
         logSection("Done");
 
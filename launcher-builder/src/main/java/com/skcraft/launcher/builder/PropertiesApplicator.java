@@ -8,20 +8,30 @@ package com.skcraft.launcher.builder;
 
 import com.skcraft.launcher.model.modpack.*;
 import lombok.Getter;
-import lombok.Setter;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Sets the features and user file flag of manifest entries from the
+ * configured patterns.
+ *
+ * <p>The patterns are compiled into a {@link FnPatternIndex} the first time
+ * an entry is looked up, and compiled again after more are registered.
+ * Entries can be applied from several threads.</p>
+ */
 public class PropertiesApplicator {
 
     private final Manifest manifest;
-    private final Set<Feature> used = new HashSet<Feature>();
+    private final Set<Feature> used = Collections.newSetFromMap(new ConcurrentHashMap<Feature, Boolean>());
     private final List<FeaturePattern> features = new ArrayList<FeaturePattern>();
-    @Getter @Setter
+    @Getter
     private FnPatternList userFiles;
+    private volatile FnPatternIndex<FeaturePattern> featureIndex;
+    private volatile FnPatternIndex<FnPatternList> userFileIndex;
 
     public PropertiesApplicator(Manifest manifest) {
         this.manifest = manifest;
@@ -40,20 +50,23 @@ public class PropertiesApplicator {
     }
 
     public boolean isUserFile(String path) {
-        if (userFiles != null) {
-            return userFiles.matches(path);
-        } else {
-            return false;
+        FnPatternIndex<FnPatternList> index = userFileIndex;
+        if (index == null) {
+            index = compileUserFiles();
         }
+        return index.matches(path);
     }
 
     public Condition fromFeature(String path) {
+        FnPatternIndex<FeaturePattern> index = featureIndex;
+        if (index == null) {
+            index = compileFeatures();
+        }
+
         List<Feature> found = new ArrayList<Feature>();
-        for (FeaturePattern pattern : features) {
-            if (pattern.matches(path)) {
-                used.add(pattern.getFeature());
-                found.add(pattern.getFeature());
-            }
+        for (FeaturePattern pattern : index.getMatches(path)) {
+            used.add(pattern.getFeature());
+            found.add(pattern.getFeature());
         }
 
         if (!found.isEmpty()) {
@@ -63,8 +76,38 @@ public class PropertiesApplicator {
         }
     }
 
-    public void register(FeaturePattern component) {
+    public synchronized void register(FeaturePattern component) {
         features.add(component);
+        featureIndex = null;
+    }
+
+    public synchronized void setUserFiles(FnPatternList userFiles) {
+        this.userFiles = userFiles;
+        userFileIndex = null;
+    }
+
+    private synchronized FnPatternIndex<FeaturePattern> compileFeatures() {
+        if (featureIndex == null) {
+            FnPatternIndex<FeaturePattern> index = new FnPatternIndex<FeaturePattern>();
+            for (FeaturePattern pattern : features) {
+                if (pattern.getFilePatterns() != null) {
+                    index.add(pattern.getFilePatterns(), pattern);
+                }
+            }
+            featureIndex = index;
+        }
+        return featureIndex;
+    }
+
+    private synchronized FnPatternIndex<FnPatternList> compileUserFiles() {
+        if (userFileIndex == null) {
+            FnPatternIndex<FnPatternList> index = new FnPatternIndex<FnPatternList>();
+            if (userFiles != null) {
+                index.add(userFiles, userFiles);
+            }
+            userFileIndex = index;
+        }
+        return userFileIndex;
     }
 
     public List<Feature> getFeaturesInUse() {
@@ -0,0 +1,367 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.skcraft.launcher.persistence.AtomicFileByteSink;
+import com.skcraft.launcher.util.FileUtils;
+import com.skcraft.launcher.util.HttpRequest;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Keeps what the builder fetches from upstream, such as the game's version
+ * metadata, loader profiles and libraries, in a directory that can be shared
+ * by any number of builds.
+ *
+ * <p>Documents are kept with the validators that the server sent. Once a
+ * document is older than the age that the caller allows, it is revalidated
+ * with a conditional request, and if the server cannot be reached, the
+ * cached copy is used with a warning. Artifacts are assumed to never change
+ * at a URL, as with Maven releases, and are never fetched twice. An artifact
+ * can be given a {@link Validator}, such as its published hash, which it must
+ * pass before it is cached and each time it is taken from the cache, so that
+ * a corrupt download or an error page is never kept.</p>
+ *
+ * <p>An offline cache never makes a request, and fails on anything that it
+ * does not have. A cache without a directory fetches everything every time.
+ * Entries are written atomically, so that builds running at the same time
+ * can share a directory.</p>
+ */
+@Log
+public class UpstreamCache {
+
+    /**
+     * The age of a document that is never revalidated.
+     */
+    public static final long FOREVER = Long.MAX_VALUE;
+
+    /**
+     * The age after which metadata that can change is revalidated.
+     */
+    public static final long METADATA_MAX_AGE = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * Accepts artifacts that can be opened as a zip file, such as jars.
+     */
+    public static final Validator ZIP = new Validator() {
+        @Override
+        public void validate(File file) throws IOException {
+            try {
+                new ZipFile(file).close();
+            } catch (ZipException e) {
+                throw new IOException("Not a zip file", e);
+            }
+        }
+    };
+
+    private final File dir;
+    private final ObjectMapper mapper;
+    @Getter private final boolean offline;
+
+    private UpstreamCache(File dir, ObjectMapper mapper, boolean offline) {
+        this.dir = dir;
+        this.mapper = mapper;
+        this.offline = offline;
+    }
+
+    /**
+     * Create a cache that keeps nothing.
+     *
+     * @return the cache
+     */
+    public static UpstreamCache create() {
+        return new UpstreamCache(null, null, false);
+    }
+
+    /**
+     * Open a cache in the given directory, which need not exist.
+     *
+     * @param dir the directory
+     * @param mapper the mapper
+     * @param offline true to never make a request
+     * @return the cache
+     */
+    public static UpstreamCache open(@NonNull File dir, @NonNull ObjectMapper mapper, boolean offline) {
+        return new UpstreamCache(dir, mapper, offline);
+    }
+
+    /**
+     * Get a document, fetching or revalidating it if the cached copy is
+     * missing or older than the given age.
+     *
+     * @param url the URL
+     * @param maxAge the age in milliseconds after which the document is revalidated
+     * @return the document
+     * @throws IOException thrown if the document cannot be fetched and is not cached
+     * @throws InterruptedException thrown on interruption
+     */
+    public String getDocument(@NonNull URL url, long maxAge) throws IOException, InterruptedException {
+        if (dir == null) {
+            return HttpRequest.get(url)
+                    .execute()
+                    .expectResponseCode(200)
+                    .returnContent()
+                    .asString("UTF-8");
+        }
+
+        String key = getKey(url);
+        File bodyFile = new File(dir, "documents/" + key);
+        File entryFile = new File(dir, "documents/" + key + ".json");
+        Entry entry = readEntry(entryFile, bodyFile);
+
+        if (entry != null && (offline || System.currentTimeMillis() - entry.getFetched() < maxAge)) {
+            return readBody(bodyFile);
+        }
+
+        if (offline) {
+            throw new IOException(url + " is not in the upstream cache at " + dir.getAbsolutePath() +
+                    " and cannot be fetched while offline");
+        }
+
+        HttpRequest request = HttpRequest.get(url);
+        if (entry != null) {
+            if (entry.getEtag() != null) {
+                request.header("If-None-Match", entry.getEtag());
+            }
+            if (entry.getLastModified() != null) {
+                request.header("If-Modified-Since", entry.getLastModified());
+            }
+        }
+
+        try {
+            request.execute();
+
+            if (entry != null && request.getResponseCode() == 304) {
+                request.close();
+                entry.setFetched(System.currentTimeMillis());
+                writeEntry(entryFile, entry);
+                return readBody(bodyFile);
+            }
+
+            Entry fetched = new Entry();
+            fetched.setUrl(url.toString());
+            fetched.setEtag(request.getResponseHeader("ETag"));
+            fetched.setLastModified(request.getResponseHeader("Last-Modified"));
+            String document = request.expectResponseCode(200).returnContent().asString("UTF-8");
+            fetched.setFetched(System.currentTimeMillis());
+
+            // The body goes first, so that an entry never describes an older body
+            new AtomicFileByteSink(bodyFile).write(document.getBytes(Charsets.UTF_8));
+            writeEntry(entryFile, fetched);
+            return document;
+        } catch (IOException e) {
+            if (entry == null) {
+                throw e;
+            }
+            log.log(Level.WARNING, "Failed to revalidate " + url + "; using the copy in the upstream cache", e);
+            return readBody(bodyFile);
+        }
+    }
+
+    /**
+     * Download an artifact to the given file, from the cache if it was
+     * downloaded before.
+     *
+     * @param url the URL
+     * @param target the file to write
+     * @param contentTypes the content types to accept, or none to accept any
+     * @throws IOException thrown if the artifact cannot be downloaded and is not cached
+     * @throws InterruptedException thrown on interruption
+     */
+    public void download(@NonNull URL url, @NonNull File target, String... contentTypes)
+            throws IOException, InterruptedException {
+        download(url, target, (Validator) null, contentTypes);
+    }
+
+    /**
+     * Download an artifact to the given file, from the cache if it was
+     * downloaded before. The artifact must pass the validator before it is
+     * cached, and a cached copy that no longer passes is fetched again.
+     *
+     * @param url the URL
+     * @param target the file to write
+     * @param validator the validator, or null to accept anything
+     * @param contentTypes the content types to accept, or none to accept any
+     * @throws IOException thrown if the artifact cannot be downloaded and is not cached, or is not valid
+     * @throws InterruptedException thrown on interruption
+     */
+    public void download(@NonNull URL url, @NonNull File target, Validator validator, String... contentTypes)
+            throws IOException, InterruptedException {
+        if (dir == null) {
+            fetch(url, target, contentTypes);
+            validate(url, target, validator);
+            return;
+        }
+
+        File cached = getArtifactFile(url);
+        if (cached.isFile() && validator != null) {
+            try {
+                validator.validate(cached);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Removing " + url + " from the upstream cache, as it is not valid", e);
+                cached.delete();
+            }
+        }
+
+        if (!cached.isFile()) {
+            if (offline) {
+                throw new IOException(url + " is not in the upstream cache at " + dir.getAbsolutePath() +
+                        " and cannot be downloaded while offline");
+            }
+
+            cached.getParentFile().mkdirs();
+            File tempFile = File.createTempFile("artifact", ".tmp", cached.getParentFile());
+            try {
+                fetch(url, tempFile, contentTypes);
+                validate(url, tempFile, validator);
+                try {
+                    Files.move(tempFile.toPath(), cached.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile.toPath(), cached.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                tempFile.delete();
+            }
+        }
+
+        Files.copy(cached.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Return whether an artifact can be had without a request.
+     *
+     * @param url the URL
+     * @return true if the artifact is cached
+     */
+    public boolean hasArtifact(@NonNull URL url) {
+        return dir != null && getArtifactFile(url).isFile();
+    }
+
+    /**
+     * Remove an artifact from the cache, such as one that turned out to be
+     * corrupt.
+     *
+     * @param url the URL
+     */
+    public void removeArtifact(@NonNull URL url) {
+        if (dir != null) {
+            getArtifactFile(url).delete();
+        }
+    }
+
+    private File getArtifactFile(URL url) {
+        return new File(dir, "artifacts/" + getKey(url));
+    }
+
+    /**
+     * Create a validator that accepts artifacts with the given SHA-1 hash.
+     *
+     * @param hash the hash, in hexadecimal
+     * @return the validator
+     */
+    public static Validator sha1(@NonNull final String hash) {
+        return new Validator() {
+            @Override
+            public void validate(File file) throws IOException {
+                String actual = FileUtils.getShaHash(file);
+                if (!actual.equalsIgnoreCase(hash)) {
+                    throw new IOException("Expected the SHA-1 hash " + hash + ", but got " + actual);
+                }
+            }
+        };
+    }
+
+    private static void validate(URL url, File file, Validator validator) throws IOException {
+        if (validator != null) {
+            try {
+                validator.validate(file);
+            } catch (IOException e) {
+                throw new IOException("The artifact from " + url + " is not valid: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static void fetch(URL url, File target, String... contentTypes) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.get(url).execute().expectResponseCode(200);
+        if (contentTypes.length > 0) {
+            request.expectContentType(contentTypes);
+        }
+        request.saveContent(target);
+    }
+
+    private Entry readEntry(File entryFile, File bodyFile) {
+        if (!entryFile.isFile() || !bodyFile.isFile()) {
+            return null;
+        }
+
+        try {
+            return mapper.readValue(entryFile, Entry.class);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to read " + entryFile.getAbsolutePath() + "; fetching it again", e);
+            return null;
+        }
+    }
+
+    private void writeEntry(File entryFile, Entry entry) {
+        try {
+            new AtomicFileByteSink(entryFile).write(mapper.writeValueAsBytes(entry));
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to write " + entryFile.getAbsolutePath(), e);
+        }
+    }
+
+    private static String readBody(File bodyFile) throws IOException {
+        return com.google.common.io.Files.toString(bodyFile, Charsets.UTF_8);
+    }
+
+    private static String getKey(URL url) {
+        return Hashing.sha1().hashString(url.toString(), Charsets.UTF_8).toString();
+    }
+
+    /**
+     * Checks a downloaded artifact.
+     */
+    public interface Validator {
+        /**
+         * Check the given file.
+         *
+         * @param file the file
+         * @throws IOException thrown if the file is not valid, or on I/O error
+         */
+        void validate(File file) throws IOException;
+    }
+
+    /**
+     * What is known about a cached document.
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Entry {
+        private String url;
+        private String etag;
+        private String lastModified;
+        private long fetched;
+    }
+
+}
@@ -3,6 +3,7 @@ package com.skcraft.launcher.builder.loaders;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.io.Closer;
 import com.skcraft.launcher.builder.BuilderUtils;
+import com.skcraft.launcher.builder.UpstreamCache;
 import com.skcraft.launcher.model.loader.FabricMod;
 import com.skcraft.launcher.model.loader.QuiltMod;
 import com.skcraft.launcher.model.loader.Versionable;
@@ -17,7 +18,6 @@ import lombok.extern.java.Log;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.net.URL;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
@@ -25,6 +25,7 @@ import java.util.zip.ZipEntry;
 @RequiredArgsConstructor
 public class FabricLoaderProcessor implements ILoaderProcessor {
 	private final Variant variant;
+	private final UpstreamCache upstreamCache;
 
 	@Override
 	public LoaderResult process(File loaderJar, Manifest manifest, ObjectMapper mapper, File baseDir) throws IOException {
@@ -47,14 +48,11 @@ public class FabricLoaderProcessor implements ILoaderProcessor {
 				return null;
 			}
 
-			log.info(String.format("Downloading %s metadata...", variant.friendlyName));
-			URL metaUrl = HttpRequest.url(
-					String.format(variant.metaUrl, manifest.getGameVersion(), loaderMod.getVersion()));
-			VersionManifest fabricManifest = HttpRequest.get(metaUrl)
-					.execute()
-					.expectResponseCode(200)
-					.returnContent()
-					.asJson(VersionManifest.class);
+			// The profile of a given loader and game version does not change, so it is never revalidated
+			String metaUrl = String.format(variant.metaUrl, manifest.getGameVersion(), loaderMod.getVersion());
+			log.info(String.format("Reading %s metadata...", variant.friendlyName));
+			String metadata = upstreamCache.getDocument(HttpRequest.url(metaUrl), UpstreamCache.FOREVER);
+			VersionManifest fabricManifest = mapper.readValue(metadata, VersionManifest.class);
 
 			for (Library library : fabricManifest.getLibraries()) {
 				// To quote a famous comment: "And here we come upon a sad state of affairs."
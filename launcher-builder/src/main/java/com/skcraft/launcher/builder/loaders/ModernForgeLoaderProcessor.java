@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
 import com.google.common.io.CharStreams;
 import com.google.common.io.Closer;
+import com.skcraft.launcher.builder.BuildCache;
 import com.skcraft.launcher.builder.BuilderUtils;
 import com.skcraft.launcher.model.loader.LoaderManifest;
 import com.skcraft.launcher.model.loader.SidedData;
@@ -16,6 +17,7 @@ import com.skcraft.launcher.model.minecraft.VersionManifest;
 import com.skcraft.launcher.model.modpack.DownloadableFile;
 import com.skcraft.launcher.model.modpack.Manifest;
 import com.skcraft.launcher.util.FileUtils;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.java.Log;
 
 import java.io.*;
@@ -25,7 +27,10 @@ import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
 @Log
+@RequiredArgsConstructor
 public class ModernForgeLoaderProcessor implements ILoaderProcessor {
+	private final BuildCache buildCache;
+
 	@Override
 	public LoaderResult process(File loaderJar, Manifest manifest, ObjectMapper mapper, File baseDir) throws IOException {
 		JarFile jarFile = new JarFile(loaderJar);
@@ -114,9 +119,7 @@ public class ModernForgeLoaderProcessor implements ILoaderProcessor {
 
 				ZipEntry clientBinpatch = BuilderUtils.getZipEntry(jarFile, "data/client.lzma");
 				if (clientBinpatch != null) {
-					DownloadableFile entry = FileUtils.saveStreamToObjectsDir(
-							closer.register(jarFile.getInputStream(clientBinpatch)),
-							objectsDir);
+					DownloadableFile entry = extractObject(loaderJar, jarFile, clientBinpatch, objectsDir, closer);
 
 					entry.setName("client.lzma");
 					entry.setSide(Side.CLIENT);
@@ -126,9 +129,7 @@ public class ModernForgeLoaderProcessor implements ILoaderProcessor {
 
 				ZipEntry serverBinpatch = BuilderUtils.getZipEntry(jarFile, "data/server.lzma");
 				if (serverBinpatch != null) {
-					DownloadableFile entry = FileUtils.saveStreamToObjectsDir(
-							closer.register(jarFile.getInputStream(serverBinpatch)),
-							objectsDir);
+					DownloadableFile entry = extractObject(loaderJar, jarFile, serverBinpatch, objectsDir, closer);
 
 					entry.setName("server.lzma");
 					entry.setSide(Side.SERVER);
@@ -140,8 +141,7 @@ public class ModernForgeLoaderProcessor implements ILoaderProcessor {
 				if (profile.getSpec() >= 1) {
 					// Add the installer itself to the extra files.
 					// This is for a server-only task like above, but hey.
-					DownloadableFile entry = FileUtils.saveStreamToObjectsDir(
-							closer.register(new FileInputStream(loaderJar)), objectsDir);
+					DownloadableFile entry = extractObject(loaderJar, jarFile, null, objectsDir, closer);
 
 					entry.setName(loaderJar.getName());
 					entry.setSide(Side.SERVER);
@@ -188,4 +188,25 @@ public class ModernForgeLoaderProcessor implements ILoaderProcessor {
 
 		return result;
 	}
+
+	/**
+	 * Save an entry of the loader, or the whole loader if the entry is null,
+	 * to the objects directory, unless it was saved by an earlier build.
+	 */
+	private DownloadableFile extractObject(File loaderJar, JarFile jarFile, ZipEntry zipEntry, File objectsDir,
+										   Closer closer) throws IOException {
+		String key = loaderJar.getName() + (zipEntry != null ? "!/" + zipEntry.getName() : "");
+		BuildCache.Fingerprint fingerprint = BuildCache.Fingerprint.of(loaderJar);
+
+		DownloadableFile entry = buildCache.getObject(key, fingerprint, objectsDir);
+		if (entry != null) {
+			log.info("Using " + key + " from the build cache");
+			return entry;
+		}
+
+		InputStream stream = zipEntry != null ? jarFile.getInputStream(zipEntry) : new FileInputStream(loaderJar);
+		entry = FileUtils.saveStreamToObjectsDir(closer.register(stream), objectsDir);
+		buildCache.putObject(key, fingerprint, entry);
+		return entry;
+	}
 }
@@ -0,0 +1,272 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder.loaders;
+
+import com.google.common.io.Closer;
+import com.skcraft.launcher.builder.BuildCache;
+import com.skcraft.launcher.builder.FileTreeWalker;
+import com.skcraft.launcher.builder.UpstreamCache;
+import com.skcraft.launcher.install.ProcessorRunner;
+import com.skcraft.launcher.model.loader.InstallProcessor;
+import com.skcraft.launcher.model.loader.LoaderManifest;
+import com.skcraft.launcher.model.loader.LoaderSubResolver;
+import com.skcraft.launcher.model.minecraft.Side;
+import com.skcraft.launcher.model.minecraft.VersionManifest;
+import com.skcraft.launcher.model.modpack.DownloadableFile;
+import com.skcraft.launcher.model.modpack.Manifest;
+import com.skcraft.launcher.util.Environment;
+import com.skcraft.launcher.util.FileUtils;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+import org.apache.commons.io.FilenameUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.logging.Level;
+
+import static com.skcraft.launcher.util.HttpRequest.url;
+
+/**
+ * Runs the client processors of a loader at build time and publishes the
+ * files that they write as objects, so that clients only have to download
+ * them.
+ *
+ * <p>The processors are run against the builder's libraries directory. The
+ * files that they create or change there, and the outputs that they declare,
+ * are stored in the objects directory and listed in the loader's manifest,
+ * and then removed again so that they are not uploaded as libraries. Existing
+ * libraries that a processor declares as outputs are backed up before it runs
+ * and restored afterwards, and the other libraries are made read-only while
+ * the processors run. If a processor fails, does not write a declared output
+ * or changes a library that it did not declare, nothing is published and
+ * clients run the processors themselves, as they do for packages built
+ * without this step.</p>
+ */
+@Log
+public class ProcessorBaker {
+	private final Manifest manifest;
+	private final File librariesDir;
+	private final File objectsDir;
+	private final UpstreamCache upstreamCache;
+
+	/**
+	 * Create a new baker.
+	 *
+	 * @param manifest the manifest
+	 * @param librariesDir the libraries directory, with the libraries of the loaders downloaded
+	 * @param objectsDir the objects directory
+	 * @param upstreamCache the cache to download the game from
+	 */
+	public ProcessorBaker(@NonNull Manifest manifest, @NonNull File librariesDir, @NonNull File objectsDir,
+						  @NonNull UpstreamCache upstreamCache) {
+		this.manifest = manifest;
+		this.librariesDir = librariesDir;
+		this.objectsDir = objectsDir;
+		this.upstreamCache = upstreamCache;
+	}
+
+	/**
+	 * Run the client processors of a loader and add their outputs to its
+	 * manifest.
+	 *
+	 * @param loaderName the name of the loader
+	 * @param loader the manifest of the loader
+	 * @param processors the processors of the loader, in order
+	 * @return true if the outputs were published
+	 * @throws IOException thrown on I/O error
+	 * @throws InterruptedException thrown on interruption
+	 */
+	public boolean bake(@NonNull String loaderName, @NonNull LoaderManifest loader,
+						@NonNull List<InstallProcessor> processors) throws IOException, InterruptedException {
+		VersionManifest.Artifact clientJar = manifest.getVersionManifest().getDownloads().get("client");
+		if (clientJar == null) {
+			log.warning("The version manifest has no client jar, so the processors of " + loaderName +
+					" will be run by clients");
+			return false;
+		}
+
+		File workDir = java.nio.file.Files.createTempDirectory("processors").toFile();
+		File backupDir = new File(workDir, "backup");
+		librariesDir.mkdirs();
+		Map<String, BuildCache.Fingerprint> before = snapshot();
+		Set<String> backedUp = new HashSet<>();
+		Set<String> readOnly = new HashSet<>();
+
+		try {
+			File minecraftJar = new File(workDir, manifest.getGameVersion() + ".jar");
+			log.info("Downloading the client jar from " + clientJar.getUrl() + "...");
+			upstreamCache.download(url(clientJar.getUrl()), minecraftJar,
+					clientJar.getHash() != null ? UpstreamCache.sha1(clientJar.getHash()) : UpstreamCache.ZIP);
+
+			// The processors share the data of the loader, which must not be changed in the manifest
+			LoaderManifest workLoader = new LoaderManifest(loader.getLibraries(),
+					new HashMap<>(loader.getSidedData()), loader.getDownloadableFiles());
+			ProcessorRunner.setPaths(workLoader, new File(workDir, "install"), minecraftJar, librariesDir,
+					manifest.getGameVersion());
+
+			HashMap<String, DownloadableFile.LocalFile> localFiles = new HashMap<>();
+			for (DownloadableFile file : loader.getDownloadableFiles()) {
+				if (file.getSide() == Side.CLIENT) {
+					localFiles.put(file.getName(), new DownloadableFile.LocalFile(
+							new File(objectsDir, file.getLocation()), file.getName()));
+				}
+			}
+
+			LoaderSubResolver resolver = new LoaderSubResolver(manifest, workLoader, Environment.getInstance(),
+					Side.CLIENT, librariesDir, localFiles);
+
+			// Libraries that a processor changes without declaring it cannot be restored, so they are kept from it
+			for (String path : before.keySet()) {
+				if (new File(librariesDir, path).setWritable(false)) {
+					readOnly.add(path);
+				}
+			}
+
+			Set<String> declared = new TreeSet<>();
+			for (InstallProcessor processor : processors) {
+				if (!processor.shouldRunOn(Side.CLIENT)) {
+					continue;
+				}
+
+				for (String output : processor.resolveOutputs(resolver).keySet()) {
+					String path = getLibraryPath(new File(output));
+					if (path != null) {
+						declared.add(path);
+						if (before.containsKey(path) && backedUp.add(path)) {
+							File file = new File(librariesDir, path);
+							File backup = new File(backupDir, path);
+							backup.getParentFile().mkdirs();
+							java.nio.file.Files.copy(file.toPath(), backup.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+							if (readOnly.remove(path)) {
+								file.setWritable(true);
+							}
+						}
+					}
+				}
+
+				try {
+					new ProcessorRunner(processor, workLoader, resolver, librariesDir).run();
+				} catch (Exception e) {
+					log.log(Level.WARNING, "The processor " + processor.getJar() + " of " + loaderName +
+							" failed, so its processors will be run by clients", e);
+					return false;
+				}
+			}
+
+			for (String path : declared) {
+				if (!new File(librariesDir, path).isFile()) {
+					log.warning("The processors of " + loaderName + " did not write their output " + path +
+							", so they will be run by clients");
+					return false;
+				}
+			}
+
+			Set<String> paths = getOutputs(before, declared);
+			for (String path : paths) {
+				if (before.containsKey(path) && !backedUp.contains(path)) {
+					log.warning("The processors of " + loaderName + " changed the library " + path +
+							" without declaring it as an output, so they will be run by clients");
+					return false;
+				}
+			}
+
+			List<DownloadableFile> outputs = new ArrayList<>();
+			for (String path : paths) {
+				File file = new File(librariesDir, path);
+				Closer closer = Closer.create();
+				try {
+					DownloadableFile entry = FileUtils.saveStreamToObjectsDir(
+							closer.register(new FileInputStream(file)), objectsDir);
+					entry.setName(path);
+					entry.setSide(Side.CLIENT);
+					outputs.add(entry);
+				} finally {
+					closer.close();
+				}
+				log.info("Publishing the processor output " + path);
+			}
+
+			loader.setProcessorOutputs(outputs);
+			manifest.setMinimumVersion(Math.max(manifest.getMinimumVersion(), Manifest.PROCESSOR_OUTPUTS_PROTOCOL_VERSION));
+			log.info("Published " + outputs.size() + " processor output(s) for " + loaderName);
+			return true;
+		} finally {
+			if (cleanUp(before, backupDir, backedUp, readOnly)) {
+				org.apache.commons.io.FileUtils.deleteQuietly(workDir);
+			}
+		}
+	}
+
+	private Set<String> getOutputs(Map<String, BuildCache.Fingerprint> before, Set<String> declared) throws IOException {
+		Set<String> outputs = new TreeSet<>(declared);
+		for (Map.Entry<String, BuildCache.Fingerprint> entry : snapshot().entrySet()) {
+			if (!entry.getValue().equals(before.get(entry.getKey()))) {
+				outputs.add(entry.getKey());
+			}
+		}
+		return outputs;
+	}
+
+	/**
+	 * Remove the files that were written to the libraries directory since
+	 * the given snapshot and put back the libraries that were backed up, so
+	 * that only the original libraries are uploaded.
+	 *
+	 * @return false if a library could not be restored, and its backup is kept
+	 */
+	private boolean cleanUp(Map<String, BuildCache.Fingerprint> before, File backupDir, Set<String> backedUp,
+						 Set<String> readOnly) {
+		for (String path : readOnly) {
+			new File(librariesDir, path).setWritable(true);
+		}
+
+		boolean restored = true;
+		for (String path : backedUp) {
+			File backup = new File(backupDir, path);
+			try {
+				java.nio.file.Files.move(backup.toPath(), new File(librariesDir, path).toPath(),
+						StandardCopyOption.REPLACE_EXISTING);
+			} catch (IOException e) {
+				log.log(Level.WARNING, "Failed to restore the library " + path + " from " + backup.getAbsolutePath(), e);
+				restored = false;
+			}
+		}
+
+		try {
+			for (String path : snapshot().keySet()) {
+				if (!before.containsKey(path)) {
+					new File(librariesDir, path).delete();
+				}
+			}
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Failed to remove the processor outputs from " + librariesDir.getAbsolutePath(), e);
+		}
+
+		return restored;
+	}
+
+	private Map<String, BuildCache.Fingerprint> snapshot() throws IOException {
+		Map<String, BuildCache.Fingerprint> files = new HashMap<>();
+		for (FileTreeWalker.Entry entry : new FileTreeWalker().walk(librariesDir.toPath())) {
+			files.put(entry.getRelativePath(), BuildCache.Fingerprint.of(entry.getAttributes()));
+		}
+		return files;
+	}
+
+	private String getLibraryPath(File file) {
+		Path root = librariesDir.getAbsoluteFile().toPath().normalize();
+		Path path = file.getAbsoluteFile().toPath().normalize();
+		if (!path.startsWith(root) || path.equals(root)) {
+			return null;
+		}
+		return FilenameUtils.separatorsToUnix(root.relativize(path).toString());
+	}
+}
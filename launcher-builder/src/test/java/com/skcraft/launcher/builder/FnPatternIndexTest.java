@@ -0,0 +1,110 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link FnPatternIndex} finds the same lists as trying
+ * {@link FnPatternList#matches(String)} on each of them.
+ */
+public class FnPatternIndexTest {
+
+    private static final String[] PIECES = {
+            "a", "b", "A", "mods", "config", "jar", ".", "/", "*", "**", "?", "[ab]", "[!a]", "[a-c]", "\\*",
+    };
+
+    private static final String[] PATH_PIECES = {
+            "a", "b", "A", "B", "c", "mods", "Mods", "config", "jar", "JAR", ".", "/", "*",
+    };
+
+    @Test
+    public void testKnownMatches() {
+        FnPatternIndex<String> index = new FnPatternIndex<String>();
+        index.add(createList(Arrays.asList("mods/*.jar"), Arrays.asList("mods/optional-*")), "mods");
+        index.add(createList(Arrays.asList("config/*", "*.cfg"), new ArrayList<String>()), "config");
+        index.add(createList(Arrays.asList("*"), Arrays.asList("mods/*")), "rest");
+
+        assertEquals(Arrays.asList("mods"), index.getMatches("Mods/Example.JAR"));
+        assertEquals(Arrays.<String>asList(), index.getMatches("mods/optional-example.jar"));
+        assertEquals(Arrays.asList("config", "rest"), index.getMatches("config/example.cfg"));
+        assertTrue(index.matches("options.txt"));
+        assertFalse(index.matches(".hidden"));
+    }
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(20240502L);
+        List<EnumSet<FnMatch.Flag>> flagSets = Arrays.asList(
+                EnumSet.of(FnMatch.Flag.CASEFOLD, FnMatch.Flag.PERIOD),
+                EnumSet.noneOf(FnMatch.Flag.class),
+                EnumSet.of(FnMatch.Flag.PATHNAME),
+                EnumSet.of(FnMatch.Flag.CASEFOLD, FnMatch.Flag.PATHNAME, FnMatch.Flag.PERIOD));
+
+        for (int i = 0; i < 200; i++) {
+            FnPatternIndex<Integer> index = new FnPatternIndex<Integer>();
+            List<FnPatternList> lists = new ArrayList<FnPatternList>();
+
+            int count = 1 + random.nextInt(20);
+            for (int id = 0; id < count; id++) {
+                FnPatternList list = createList(randomPatterns(random, 1 + random.nextInt(3)),
+                        randomPatterns(random, random.nextInt(2)));
+                list.setFlags(flagSets.get(random.nextInt(flagSets.size())));
+                lists.add(list);
+                index.add(list, id);
+            }
+
+            for (int j = 0; j < 200; j++) {
+                String path = randomString(random, PATH_PIECES, 6);
+                List<Integer> expected = new ArrayList<Integer>();
+                for (int id = 0; id < lists.size(); id++) {
+                    if (lists.get(id).matches(path)) {
+                        expected.add(id);
+                    }
+                }
+
+                assertEquals(expected, index.getMatches(path), "matches of '" + path + "'");
+                assertEquals(!expected.isEmpty(), index.matches(path), "any match of '" + path + "'");
+            }
+        }
+    }
+
+    private static FnPatternList createList(List<String> include, List<String> exclude) {
+        FnPatternList list = new FnPatternList();
+        list.setInclude(include);
+        list.setExclude(exclude);
+        return list;
+    }
+
+    private static List<String> randomPatterns(Random random, int count) {
+        List<String> patterns = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            patterns.add(randomString(random, PIECES, 5));
+        }
+        return patterns;
+    }
+
+    private static String randomString(Random random, String[] pieces, int maxPieces) {
+        int length = random.nextInt(maxPieces + 1);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(pieces[random.nextInt(pieces.length)]);
+        }
+        return builder.toString();
+    }
+
+}
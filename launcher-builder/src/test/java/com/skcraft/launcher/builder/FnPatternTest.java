@@ -0,0 +1,134 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.builder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link FnPattern} gives the same results as
+ * {@link FnMatch#fnmatch(String, String, EnumSet)}, which it replaces.
+ */
+public class FnPatternTest {
+
+    private static final String[] PATTERNS = {
+            "", "*", "**", "?", "a", "A", "a*", "*a", "a*b", "*.jar", "**/*.jar", "*/*.jar",
+            "mods/*", "mods/**", "config/*.cfg", "config/*/", "*/", "a/*/b", "a?c", "??",
+            ".*", "*.*", "[a]", "[!a]", "[^a]", "[a-c]", "[A-C]x", "[]a]", "[a-]", "[z-a]",
+            "[!.]*", "*.[Jj][Aa][Rr]", "[/]", "a[/]b", "[\\]]", "[a\\-c]", "[a-\\c]x",
+            "a\\*b", "a\\", "\\?", "\\\\", "[", "a[", "[!", "[a-", "[a-z", "*[", "a/b",
+            "a/./b", "*/.hidden", "*.", ".", "/", "/*", "*/*", "?/?", "Mods/*.JAR",
+    };
+
+    private static final String[] PATHS = {
+            "", "a", "A", "b", "ab", "abc", "aXb", "a*b", "a?c", "a\\", "?", "\\", "[", "a[", "]",
+            "-", "x", ".", ".a", "a.", "a.jar", "A.JAR", "mods/a.jar", "mods/.a.jar",
+            "mods/sub/a.jar", "Mods/A.jar", "config/a.cfg", "config/sub/", "config/", "a/b",
+            "a/c/b", "a/./b", "a/.hidden", ".hidden", "dir/.hidden", "/", "/a", "a/", "//",
+            "bx", "Bx", "zx", "cx",
+    };
+
+    @Test
+    public void testKnownResults() {
+        EnumSet<FnMatch.Flag> defaults = EnumSet.of(FnMatch.Flag.CASEFOLD, FnMatch.Flag.PERIOD);
+
+        assertTrue(FnPattern.compile("*.jar", defaults).matches("Mod.JAR"));
+        assertTrue(FnPattern.compile("mods/*", defaults).matches("mods/a/b.jar"));
+        assertFalse(FnPattern.compile("*", defaults).matches(".hidden"));
+        assertFalse(FnPattern.compile("a[/]b", EnumSet.of(FnMatch.Flag.PATHNAME)).matches("a/b"));
+        assertFalse(FnPattern.compile("*.jar", EnumSet.of(FnMatch.Flag.PATHNAME)).matches("mods/a.jar"));
+        assertTrue(FnPattern.compile("a\\*b", EnumSet.noneOf(FnMatch.Flag.class)).matches("a*b"));
+        assertFalse(FnPattern.compile("a\\*b", EnumSet.noneOf(FnMatch.Flag.class)).matches("aXb"));
+        assertEquals("config/", FnPattern.compile("Config/*.cfg", defaults).getPrefix());
+    }
+
+    @Test
+    public void testCorpus() {
+        for (EnumSet<FnMatch.Flag> flags : getFlagSets()) {
+            for (String pattern : PATTERNS) {
+                FnPattern compiled = FnPattern.compile(pattern, flags);
+                for (String path : PATHS) {
+                    assertSameResult(compiled, pattern, path, flags);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(20240501L);
+        List<EnumSet<FnMatch.Flag>> flagSets = getFlagSets();
+
+        for (int i = 0; i < 20000; i++) {
+            String pattern = randomString(random, "ab./*?[]!^-\\A", 8);
+            EnumSet<FnMatch.Flag> flags = flagSets.get(random.nextInt(flagSets.size()));
+            FnPattern compiled = FnPattern.compile(pattern, flags);
+
+            for (int j = 0; j < 10; j++) {
+                assertSameResult(compiled, pattern, randomString(random, "abAB./*?[]-\\", 8), flags);
+            }
+        }
+    }
+
+    private static void assertSameResult(FnPattern compiled, String pattern, String path,
+                                         EnumSet<FnMatch.Flag> flags) {
+        assertEquals(getResult(pattern, path, flags), getResult(compiled, path),
+                "pattern '" + pattern + "' against '" + path + "' with " + flags);
+    }
+
+    private static String getResult(String pattern, String path, EnumSet<FnMatch.Flag> flags) {
+        try {
+            return String.valueOf(FnMatch.fnmatch(pattern, path, flags));
+        } catch (RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static String getResult(FnPattern compiled, String path) {
+        try {
+            return String.valueOf(compiled.matches(path));
+        } catch (RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Get every combination of flags.
+     */
+    private static List<EnumSet<FnMatch.Flag>> getFlagSets() {
+        FnMatch.Flag[] all = FnMatch.Flag.values();
+        List<EnumSet<FnMatch.Flag>> sets = new ArrayList<EnumSet<FnMatch.Flag>>();
+        for (int mask = 0; mask < 1 << all.length; mask++) {
+            EnumSet<FnMatch.Flag> flags = EnumSet.noneOf(FnMatch.Flag.class);
+            for (int i = 0; i < all.length; i++) {
+                if ((mask & 1 << i) != 0) {
+                    flags.add(all[i]);
+                }
+            }
+            sets.add(flags);
+        }
+        return sets;
+    }
+
+}
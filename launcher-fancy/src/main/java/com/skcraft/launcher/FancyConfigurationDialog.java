@@ -9,6 +9,7 @@ package com.skcraft.launcher;
 import com.skcraft.launcher.dialog.AboutDialog;
 import com.skcraft.launcher.dialog.ConsoleFrame;
 import com.skcraft.launcher.dialog.component.BetterComboBox;
+import com.skcraft.launcher.launch.TuningProfile;
 import com.skcraft.launcher.launch.runtime.AddJavaRuntime;
 import com.skcraft.launcher.launch.runtime.JavaRuntime;
 import com.skcraft.launcher.launch.runtime.JavaRuntimeFinder;
@@ -62,6 +63,7 @@ public class FancyConfigurationDialog extends JDialog {
     private JLabel availableMemoryLabel;
     private JTextField jvmArgsField;
     private JComboBox<JavaRuntime> jvmRuntime;
+    private JComboBox<TuningProfile> tuningProfileCombo;
     
     // Minecraft settings
     private JSpinner widthSpinner;
@@ -339,7 +341,7 @@ public class FancyConfigurationDialog extends JDialog {
         jvmRuntime.setForeground(TEXT_PRIMARY);
         
         // Populate with available runtimes
-        JavaRuntime[] javaRuntimes = JavaRuntimeFinder.getAvailableRuntimes().toArray(new JavaRuntime[0]);
+        JavaRuntime[] javaRuntimes = launcher.getJavaRuntimes().getRuntimes().toArray(new JavaRuntime[0]);
         DefaultComboBoxModel<JavaRuntime> model = new DefaultComboBoxModel<>(javaRuntimes);
         
         // Put the runtime from the config in the model if it isn't
@@ -396,6 +398,17 @@ public class FancyConfigurationDialog extends JDialog {
         JPanel jvmSection = createSection("Additional JVM Options");
         jvmSection.setLayout(new MigLayout("fill, insets 20", "[grow]", "[][]"));
         
+        JLabel tuningLabel = new JLabel("Performance Profile");
+        tuningLabel.setForeground(TEXT_PRIMARY);
+        tuningLabel.setFont(tuningLabel.getFont().deriveFont(Font.BOLD));
+        jvmSection.add(tuningLabel, "wrap, gapbottom 5");
+
+        tuningProfileCombo = new BetterComboBox<>();
+        tuningProfileCombo.setModel(new DefaultComboBoxModel<>(TuningProfile.values()));
+        tuningProfileCombo.setBackground(new Color(40, 40, 40));
+        tuningProfileCombo.setForeground(TEXT_PRIMARY);
+        jvmSection.add(tuningProfileCombo, "wrap, growx, gapbottom 15");
+
         JLabel jvmLabel = new JLabel("JVM Arguments");
         jvmLabel.setForeground(TEXT_PRIMARY);
         jvmLabel.setFont(jvmLabel.getFont().deriveFont(Font.BOLD));
@@ -708,6 +721,8 @@ public class FancyConfigurationDialog extends JDialog {
             jvmArgsField.setText(config.getJvmArgs());
         }
         
+        tuningProfileCombo.setSelectedItem(config.getTuningProfile());
+
         // Load Minecraft settings
         widthSpinner.setValue(config.getWindowWidth());
         heightSpinner.setValue(config.getWindowHeight());
@@ -723,6 +738,7 @@ public class FancyConfigurationDialog extends JDialog {
         
         // Save Java runtime
         config.setJavaRuntime((JavaRuntime) jvmRuntime.getSelectedItem());
+        config.setTuningProfile((TuningProfile) tuningProfileCombo.getSelectedItem());
         
         // Save Minecraft settings
         config.setWindowWidth((Integer) widthSpinner.getValue());
@@ -7,7 +7,6 @@
 package com.skcraft.launcher;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.skcraft.launcher.auth.AccountList;
 import com.skcraft.launcher.auth.SavedSession;
 import com.skcraft.launcher.dialog.AccountSelectDialog;
@@ -15,6 +14,7 @@ import com.skcraft.launcher.dialog.LauncherFrame;
 import com.skcraft.launcher.dialog.component.BetterComboBox;
 import com.skcraft.launcher.swing.SwingHelper;
 import com.skcraft.launcher.swing.WebpagePanel;
+import com.skcraft.launcher.util.JsonCodec;
 import lombok.NonNull;
 import net.miginfocom.swing.MigLayout;
 
@@ -267,8 +267,14 @@ public class FancyLauncherFrame extends LauncherFrame {
             DefaultComboBoxModel<Instance> model = (DefaultComboBoxModel<Instance>) instanceSelector.getModel();
             Object selected = instanceSelector.getSelectedItem();
             
+            // The enumerator refills the list, so copy it while holding its lock
+            java.util.List<Instance> instances;
+            synchronized (launcher.getInstances()) {
+                instances = new java.util.ArrayList<Instance>(launcher.getInstances().getInstances());
+            }
+
             model.removeAllElements();
-            for (Instance instance : launcher.getInstances().getInstances()) {
+            for (Instance instance : instances) {
                 model.addElement(instance);
             }
             
@@ -284,7 +290,7 @@ public class FancyLauncherFrame extends LauncherFrame {
     }
 
     private void pingServer() {
-        launcher.getExecutor().submit(() -> {
+        launcher.getScheduler().getNetwork().submit(() -> {
             String host = "35.221.228.109";
             int port = 6969;
 
@@ -318,10 +324,7 @@ public class FancyLauncherFrame extends LauncherFrame {
 
                 byte[] data = new byte[jsonLength];
                 in.readFully(data);
-                String json = new String(data, StandardCharsets.UTF_8);
-
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode root = mapper.readTree(json);
+                JsonNode root = JsonCodec.getMapper().readTree(data);
                 JsonNode players = root.get("players");
                 int online = players.get("online").asInt();
                 int max = players.get("max").asInt();
@@ -0,0 +1,112 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch;
+
+import com.skcraft.launcher.util.AhoCorasick;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many lines of typical game output {@link GameLogParser} gets
+ * through, and how finding the {@link PerformanceSignal}s with one
+ * {@link AhoCorasick} automaton compares to searching each line for every
+ * pattern in turn.
+ *
+ * <p>Run with <code>gradlew :launcher:jmh</code>. Scores are per line.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameLogParserBenchmark {
+
+    private static final int LINES = 10000;
+
+    private static final String[] TEMPLATES = {
+            "[12:34:56] [Render thread/INFO] [minecraft/Minecraft]: Reloading ResourceManager: Default, Mod Resources",
+            "[12:34:56] [Server thread/INFO] [minecraft/MinecraftServer]: Player joined the game",
+            "[12:34:57] [Worker-Main-12/WARN] [minecraft/ModelBakery]: Unable to load model: examplemod:block/thing#",
+            "[12:34:57] [main/DEBUG] [net.minecraftforge.fml.loading.FMLLoader/CORE]: Loading mod file examplemod.jar",
+            "[12:34:58] [Render thread/ERROR] [minecraft/TextureAtlas]: Using missing texture, unable to load textures",
+            "\tat net.minecraft.client.renderer.texture.TextureAtlas.load(TextureAtlas.java:123) ~[?:?]",
+            "[12:34:59] [Server thread/WARN] [minecraft/MinecraftServer]: Can't keep up! Is the server overloaded? "
+                    + "Running 2043ms or 40 ticks behind",
+            "[12:35:00] [modloading-worker-3/INFO] [FML]: Bar Finished: Loading took 6.421s",
+    };
+
+    private List<String> lines;
+    private AhoCorasick<PerformanceSignal> matcher;
+    private String[] patterns;
+
+    @Setup
+    public void setUp() {
+        // Mostly ordinary lines, as in a real log, with signals now and then
+        Random random = new Random(42);
+        lines = new ArrayList<String>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            int signals = TEMPLATES.length - 2;
+            int template = random.nextInt(100) < 2 ? signals + random.nextInt(2) : random.nextInt(signals);
+            lines.add(TEMPLATES[template] + " " + i);
+        }
+
+        AhoCorasick.Builder<PerformanceSignal> builder = new AhoCorasick.Builder<PerformanceSignal>();
+        List<String> patterns = new ArrayList<String>();
+        for (PerformanceSignal signal : PerformanceSignal.values()) {
+            for (String pattern : signal.getPatterns()) {
+                builder.add(pattern, signal);
+                patterns.add(pattern);
+            }
+        }
+        matcher = builder.build();
+        this.patterns = patterns.toArray(new String[patterns.size()]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public LogSummary parse() {
+        LogSummary summary = new LogSummary();
+        GameLogParser parser = new GameLogParser(summary);
+        for (String line : lines) {
+            parser.lineRead(line);
+        }
+        return summary;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void matchSignals(final Blackhole blackhole) {
+        AhoCorasick.MatchListener<PerformanceSignal> listener = new AhoCorasick.MatchListener<PerformanceSignal>() {
+            @Override
+            public void matched(PerformanceSignal value, int end) {
+                blackhole.consume(value);
+            }
+        };
+        for (String line : lines) {
+            matcher.match(line, listener);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void searchEachPattern(Blackhole blackhole) {
+        for (String line : lines) {
+            for (String pattern : patterns) {
+                if (line.contains(pattern)) {
+                    blackhole.consume(pattern);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Charsets;
+import com.skcraft.launcher.model.minecraft.Asset;
+import com.skcraft.launcher.model.minecraft.AssetsIndex;
+import com.skcraft.launcher.model.minecraft.VersionManifest;
+import com.skcraft.launcher.model.modpack.Manifest;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a document through {@link JsonCodec} with what the
+ * launcher used to do, which was to build a new mapper for each request and
+ * decode the response to a string first.
+ *
+ * <p>The <code>document</code> parameter picks the shape of the document:
+ * the game's asset index, a pack manifest with file entries, or a game
+ * version manifest with libraries. Each has as many of those as the
+ * <code>entries</code> parameter asks for. Run with
+ * <code>gradlew :launcher:jmh</code>.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    @Param({ "assets", "manifest", "version" })
+    private String document;
+
+    @Param({ "1", "4000" })
+    private int entries;
+
+    private Class<?> type;
+    private byte[] data;
+    private Object value;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+
+        if (document.equals("assets")) {
+            type = AssetsIndex.class;
+            data = createAssetsIndex(random);
+        } else if (document.equals("manifest")) {
+            type = Manifest.class;
+            data = createManifest(random);
+        } else if (document.equals("version")) {
+            type = VersionManifest.class;
+            data = createVersionManifest(random);
+        } else {
+            throw new IllegalArgumentException("Unknown document " + document);
+        }
+
+        // Written back so that the data is exactly what the launcher would write
+        value = JsonCodec.read(data, type);
+        data = JsonCodec.writer().writeValueAsBytes(value);
+    }
+
+    private byte[] createAssetsIndex(Random random) throws IOException {
+        Map<String, Asset> objects = new LinkedHashMap<String, Asset>();
+        for (int i = 0; i < entries; i++) {
+            Asset asset = new Asset();
+            asset.setHash(randomHash(random));
+            asset.setSize(random.nextInt(1000000));
+            objects.put("minecraft/sounds/block/example/sound_" + i + ".ogg", asset);
+        }
+
+        AssetsIndex index = new AssetsIndex();
+        index.setObjects(objects);
+        return JsonCodec.writer().writeValueAsBytes(index);
+    }
+
+    private byte[] createManifest(Random random) throws IOException {
+        ObjectNode manifest = JsonCodec.getMapper().createObjectNode();
+        manifest.put("minimumVersion", Manifest.MIN_PROTOCOL_VERSION);
+        manifest.put("title", "Example Pack");
+        manifest.put("name", "example");
+        manifest.put("version", "1.0.0");
+        manifest.put("baseUrl", "https://example.com/packs/example/");
+        manifest.put("librariesLocation", "libraries");
+        manifest.put("objectsLocation", "objects");
+        manifest.put("gameVersion", "1.20.1");
+
+        ArrayNode tasks = manifest.putArray("tasks");
+        for (int i = 0; i < entries; i++) {
+            String hash = randomHash(random);
+            ObjectNode task = tasks.addObject();
+            task.put("type", "file");
+            task.put("hash", hash);
+            task.put("location", hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash);
+            task.put("to", "mods/examplemod-" + i + ".jar");
+            task.put("size", random.nextInt(10000000));
+        }
+
+        return JsonCodec.writer().writeValueAsBytes(manifest);
+    }
+
+    private byte[] createVersionManifest(Random random) throws IOException {
+        ObjectNode manifest = JsonCodec.getMapper().createObjectNode();
+        manifest.put("id", "1.20.1");
+        manifest.put("type", "release");
+        manifest.put("mainClass", "net.minecraft.client.main.Main");
+        manifest.put("assets", "5");
+        manifest.put("minimumLauncherVersion", 21);
+
+        ArrayNode libraries = manifest.putArray("libraries");
+        for (int i = 0; i < entries; i++) {
+            String path = "com/example/library-" + i + "/1.0." + i + "/library-" + i + "-1.0." + i + ".jar";
+            ObjectNode library = libraries.addObject();
+            library.put("name", "com.example:library-" + i + ":1.0." + i);
+            ObjectNode artifact = library.putObject("downloads").putObject("artifact");
+            artifact.put("path", path);
+            artifact.put("sha1", randomHash(random));
+            artifact.put("size", random.nextInt(1000000));
+            artifact.put("url", "https://libraries.minecraft.net/" + path);
+        }
+
+        return JsonCodec.writer().writeValueAsBytes(manifest);
+    }
+
+    private static String randomHash(Random random) {
+        StringBuilder hash = new StringBuilder();
+        for (int j = 0; j < 40; j++) {
+            hash.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return hash.toString();
+    }
+
+    @Benchmark
+    public Object readWithNewMapperFromString() throws IOException {
+        return new ObjectMapper().readValue(new String(data, Charsets.UTF_8), type);
+    }
+
+    @Benchmark
+    public Object readWithSharedMapperFromString() throws IOException {
+        return JsonCodec.getMapper().readValue(new String(data, Charsets.UTF_8), type);
+    }
+
+    @Benchmark
+    public Object readWithCachedReaderFromBytes() throws IOException {
+        return JsonCodec.read(data, type);
+    }
+
+    @Benchmark
+    public byte[] writeWithSharedWriter() throws IOException {
+        return JsonCodec.writer().writeValueAsBytes(value);
+    }
+
+}
@@ -19,10 +19,11 @@ import java.util.concurrent.TimeoutException;
  *
  * @param <V> the result type
  */
-public class ObservableFuture<V> implements ListenableFuture<V>, ProgressObservable {
+public class ObservableFuture<V> implements ListenableFuture<V>, ProgressSource {
 
     private final ListenableFuture<V> future;
     private final ProgressObservable observable;
+    private ProgressBus progressBus;
 
     /**
      * Construct a new ObservableFuture.
@@ -70,6 +71,14 @@ public class ObservableFuture<V> implements ListenableFuture<V>, ProgressObserva
         return observable.toString();
     }
 
+    @Override
+    public synchronized ProgressBus getProgressBus() {
+        if (progressBus == null) {
+            progressBus = ProgressBus.of(observable);
+        }
+        return progressBus;
+    }
+
     @Override
     public double getProgress() {
         return observable.getProgress();
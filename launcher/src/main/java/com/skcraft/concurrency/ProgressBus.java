@@ -0,0 +1,290 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.concurrency;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Carries the progress of a task to its listeners.
+ *
+ * <p>A task either publishes its state with {@link #publish(double, String)},
+ * or is the source of the bus and calls {@link #changed()} whenever its
+ * state changes. Announcing a change costs little more than a flag being
+ * set, so it can be done for every block read. Listeners are called on
+ * their own executor, at most once a frame, with a snapshot of the latest
+ * state; changes in between are coalesced. The snapshot is taken on the
+ * bus's own timer thread, so a source that locks is never read on the
+ * listener's executor, which is usually the event dispatch thread.</p>
+ *
+ * <p>A bus can follow another task for a phase of its work, optionally
+ * mapped to part of its own range, and then passes the changes of that
+ * task on. Objects that cannot announce their changes are sampled every
+ * {@link #SAMPLE_INTERVAL} milliseconds, but only while someone is
+ * listening.</p>
+ */
+@Log
+public class ProgressBus implements ProgressObservable {
+
+    /**
+     * The shortest time between two calls to a listener, in milliseconds.
+     */
+    public static final long FRAME_INTERVAL = 16;
+
+    /**
+     * The time between samples of objects that do not announce changes, in
+     * milliseconds.
+     */
+    public static final long SAMPLE_INTERVAL = 400;
+
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("Progress events").setDaemon(true).build());
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<Subscription>();
+    private final List<ProgressBus> downstream = new CopyOnWriteArrayList<ProgressBus>();
+    private volatile ProgressObservable source;
+    private ProgressBus upstream;
+    private boolean sampled;
+    private ScheduledFuture<?> sampler;
+
+    /**
+     * Create a bus with no progress and no status.
+     */
+    public ProgressBus() {
+        this(new DefaultProgress());
+    }
+
+    /**
+     * Create a bus whose state is read from the given source, which must
+     * call {@link #changed()} whenever its state changes.
+     *
+     * @param source the source
+     */
+    public ProgressBus(@NonNull ProgressObservable source) {
+        this.source = source;
+    }
+
+    /**
+     * Get a bus for the given object. If the object does not announce its
+     * changes, a bus that samples it is returned.
+     *
+     * @param observable the object
+     * @return the bus
+     */
+    public static ProgressBus of(@NonNull ProgressObservable observable) {
+        ProgressBus bus = busOf(observable);
+        if (bus == null) {
+            bus = new ProgressBus(observable);
+            bus.sampled = true;
+        }
+        return bus;
+    }
+
+    private static ProgressBus busOf(ProgressObservable observable) {
+        if (observable instanceof ProgressBus) {
+            return (ProgressBus) observable;
+        } else if (observable instanceof ProgressSource) {
+            return ((ProgressSource) observable).getProgressBus();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Publish new progress.
+     *
+     * @param progress the progress, between 0 and 1, or -1 if unknown
+     * @param status the status, or null
+     */
+    public void publish(double progress, String status) {
+        setSource(new DefaultProgress(progress, status), null);
+    }
+
+    /**
+     * Take progress from the given object until something else is
+     * published.
+     *
+     * @param observable the object
+     */
+    public void follow(@NonNull ProgressObservable observable) {
+        setSource(observable, observable);
+    }
+
+    /**
+     * Take progress from the given object until something else is
+     * published, mapping it between the given bounds.
+     *
+     * @param observable the object
+     * @param from the progress when the object is at 0
+     * @param to the progress when the object is at 1
+     */
+    public void follow(@NonNull ProgressObservable observable, double from, double to) {
+        setSource(ProgressFilter.between(observable, from, to), observable);
+    }
+
+    private void setSource(ProgressObservable source, ProgressObservable followed) {
+        ProgressBus bus = followed != null ? busOf(followed) : null;
+
+        synchronized (this) {
+            if (upstream != null) {
+                upstream.downstream.remove(this);
+                upstream = null;
+            }
+
+            this.source = source;
+
+            if (bus != null && bus != this) {
+                bus.downstream.add(this);
+                upstream = bus;
+            }
+
+            sampled = followed != null && bus == null;
+            updateSampler();
+        }
+
+        changed();
+    }
+
+    /**
+     * Announce that the state of the source has changed. This may be called
+     * from any thread, as often as needed.
+     */
+    public void changed() {
+        for (Subscription subscription : subscriptions) {
+            subscription.schedule();
+        }
+        for (ProgressBus bus : downstream) {
+            bus.changed();
+        }
+    }
+
+    /**
+     * Add a listener, which is soon called with the current state.
+     *
+     * @param listener the listener
+     * @param executor the executor to call the listener on
+     */
+    public void addListener(@NonNull ProgressListener listener, @NonNull Executor executor) {
+        Subscription subscription = new Subscription(listener, executor);
+        subscriptions.add(subscription);
+        synchronized (this) {
+            updateSampler();
+        }
+        subscription.schedule();
+    }
+
+    /**
+     * Remove a listener. It may still be called once if a call was already
+     * on its way.
+     *
+     * @param listener the listener
+     */
+    public void removeListener(@NonNull ProgressListener listener) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.listener == listener) {
+                subscription.removed = true;
+                subscriptions.remove(subscription);
+            }
+        }
+        synchronized (this) {
+            updateSampler();
+        }
+    }
+
+    private void updateSampler() {
+        boolean needed = sampled && !subscriptions.isEmpty();
+
+        if (needed && sampler == null) {
+            sampler = timer.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    changed();
+                }
+            }, SAMPLE_INTERVAL, SAMPLE_INTERVAL, TimeUnit.MILLISECONDS);
+        } else if (!needed && sampler != null) {
+            sampler.cancel(false);
+            sampler = null;
+        }
+    }
+
+    @Override
+    public double getProgress() {
+        return source.getProgress();
+    }
+
+    @Override
+    public String getStatus() {
+        return source.getStatus();
+    }
+
+    private class Subscription implements Runnable {
+        private final ProgressListener listener;
+        private final Executor executor;
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private volatile long lastDelivery = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(FRAME_INTERVAL);
+        private volatile boolean removed;
+
+        private Subscription(ProgressListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        public void schedule() {
+            if (!pending.compareAndSet(false, true)) {
+                return;
+            }
+
+            long delay = lastDelivery + TimeUnit.MILLISECONDS.toNanos(FRAME_INTERVAL) - System.nanoTime();
+            timer.schedule(this, Math.max(0, delay), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Take a snapshot and hand it to the listener's executor. Called on
+         * the timer thread.
+         */
+        @Override
+        public void run() {
+            // Cleared first so that a change made while the snapshot is taken is not lost
+            pending.set(false);
+            if (removed) {
+                return;
+            }
+
+            lastDelivery = System.nanoTime();
+
+            final DefaultProgress snapshot;
+            try {
+                snapshot = new DefaultProgress(getProgress(), getStatus());
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Failed to read progress", e);
+                return;
+            }
+
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (removed) {
+                        return;
+                    }
+
+                    try {
+                        listener.progressChanged(snapshot);
+                    } catch (RuntimeException e) {
+                        log.log(Level.WARNING, "A progress listener failed", e);
+                    }
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.concurrency;
+
+/**
+ * Receives progress from a {@link ProgressBus}.
+ */
+public interface ProgressListener {
+
+    /**
+     * Called when progress has changed. Changes that happen close together
+     * are delivered as one call.
+     *
+     * @param progress a snapshot of the progress
+     */
+    void progressChanged(ProgressObservable progress);
+
+}
@@ -0,0 +1,22 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.concurrency;
+
+/**
+ * A {@link ProgressObservable} that announces its changes on a
+ * {@link ProgressBus}, so that it never has to be polled.
+ */
+public interface ProgressSource extends ProgressObservable {
+
+    /**
+     * Get the bus that changes to this object's progress are announced on.
+     *
+     * @return the bus
+     */
+    ProgressBus getProgressBus();
+
+}
@@ -6,7 +6,8 @@
 
 package com.skcraft.launcher;
 
-import com.skcraft.concurrency.ProgressObservable;
+import com.skcraft.concurrency.ProgressBus;
+import com.skcraft.concurrency.ProgressSource;
 import com.skcraft.launcher.model.minecraft.Asset;
 import com.skcraft.launcher.model.minecraft.AssetsIndex;
 import com.skcraft.launcher.model.minecraft.VersionManifest;
@@ -86,11 +87,12 @@ public class AssetsRoot {
         return new AssetsTreeBuilder(index, treeDir);
     }
 
-    public class AssetsTreeBuilder implements ProgressObservable {
+    public class AssetsTreeBuilder implements ProgressSource {
         private final AssetsIndex index;
         private final File destDir;
         private final int count;
-        private int processed = 0;
+        private volatile int processed = 0;
+        @Getter private final ProgressBus progressBus = new ProgressBus(this);
 
         public AssetsTreeBuilder(AssetsIndex index, File destDir) {
             this.index = index;
@@ -128,6 +130,7 @@ public class AssetsRoot {
                     }
                 }
                 processed++;
+                progressBus.changed();
             }
 
             return destDir;
@@ -7,6 +7,7 @@
 package com.skcraft.launcher;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.skcraft.launcher.launch.TuningProfile;
 import com.skcraft.launcher.launch.runtime.JavaRuntime;
 import com.skcraft.launcher.launch.runtime.JavaRuntimeFinder;
 import lombok.Data;
@@ -28,6 +29,7 @@ public class Configuration {
     private String jvmArgs;
     private int minMemory = 3048;
     private int maxMemory = 0; // Updated in Launcher
+    private TuningProfile tuningProfile = TuningProfile.NONE; // Tuning changes the GC flags, so it is opt-in
     private int windowWidth = 854;
     private int windowHeight = 480;
     private boolean proxyEnabled = false;
@@ -11,6 +11,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.io.Files;
 import com.skcraft.launcher.launch.JavaProcessBuilder;
 import com.skcraft.launcher.model.modpack.LaunchModifier;
+import com.skcraft.launcher.model.modpack.LaunchRequirements;
 import lombok.Data;
 
 import java.io.File;
@@ -33,6 +34,8 @@ public class Instance implements Comparable<Instance> {
     private Date lastAccessed;
     @JsonProperty("launch")
     private LaunchModifier launchModifier;
+    @JsonProperty("requirements")
+    private LaunchRequirements launchRequirements;
     private InstanceSettings settings = new InstanceSettings();
 
     @JsonIgnore private File dir;
@@ -6,6 +6,9 @@
 
 package com.skcraft.launcher;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.skcraft.concurrency.DefaultProgress;
 import com.skcraft.concurrency.ProgressObservable;
 import com.skcraft.launcher.model.modpack.ManifestInfo;
@@ -13,30 +16,40 @@ import com.skcraft.launcher.model.modpack.PackageList;
 import com.skcraft.launcher.persistence.Persistence;
 import com.skcraft.launcher.util.HttpRequest;
 import com.skcraft.launcher.util.SharedLocale;
+import lombok.Data;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.java.Log;
 import org.apache.commons.io.filefilter.DirectoryFileFilter;
 
+import javax.swing.event.SwingPropertyChangeSupport;
+import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
 
 import static com.skcraft.launcher.LauncherUtils.concat;
 
 /**
  * Stores the list of instances.
+ *
+ * <p>Enumeration publishes the list twice: first from the instances on disk
+ * and the snapshot of the last package list that was downloaded, and then
+ * again once the current package list has been fetched. A property change
+ * named <code>instances</code> is fired on the event dispatch thread each
+ * time.</p>
  */
 @Log
 public class InstanceList {
 
     private final Launcher launcher;
     @Getter private final List<Instance> instances = new ArrayList<Instance>();
+    private final SwingPropertyChangeSupport propertySupport = new SwingPropertyChangeSupport(this, true);
 
     /**
      * Create a new instance list.
@@ -47,6 +60,30 @@ public class InstanceList {
         this.launcher = launcher;
     }
 
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        propertySupport.addPropertyChangeListener(listener);
+    }
+
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        propertySupport.removePropertyChangeListener(listener);
+    }
+
+    private File getSnapshotFile() {
+        return new File(launcher.getBaseDir(), "packages.snapshot.json");
+    }
+
+    private void publish(List<Instance> local, List<Instance> remote) {
+        synchronized (this) {
+            instances.clear();
+            instances.addAll(local);
+            instances.addAll(remote);
+
+            log.info(instances.size() + " instance(s) enumerated.");
+        }
+
+        propertySupport.firePropertyChange("instances", null, this);
+    }
+
     /**
      * Get the instance at a particular index.
      *
@@ -110,29 +147,28 @@ public class InstanceList {
             log.info("Enumerating instance list...");
             progress = new DefaultProgress(0, SharedLocale.tr("instanceLoader.loadingLocal"));
 
-            List<Instance> local = new ArrayList<Instance>();
+            List<Instance> local = loadLocal();
+            Map<String, Instance> localIndex = new HashMap<String, Instance>();
+            for (Instance instance : local) {
+                localIndex.put(instance.getName().toLowerCase(Locale.ROOT), instance);
+            }
+
+            URL packagesURL = launcher.getPackagesURL();
             List<Instance> remote = new ArrayList<Instance>();
+            Map<String, Instance> remoteIndex = new HashMap<String, Instance>();
 
-            File[] dirs = launcher.getInstancesDir().listFiles((FileFilter) DirectoryFileFilter.INSTANCE);
-            if (dirs != null) {
-                for (File dir : dirs) {
-                    File file = new File(dir, "instance.json");
-                    Instance instance = Persistence.load(file, Instance.class);
-                    instance.setDir(dir);
-                    instance.setName(dir.getName());
-                    instance.setSelected(true);
-                    instance.setLocal(true);
-                    local.add(instance);
-
-                    log.info(instance.getName() + " local instance found at " + dir.getAbsolutePath());
-                }
+            // Show what was there last time while the current list is downloaded
+            PackageSnapshot snapshot = Persistence.read(getSnapshotFile(), PackageSnapshot.class, true);
+            if (snapshot != null && snapshot.getPackages() != null
+                    && packagesURL.toString().equals(snapshot.getUrl())) {
+                remote = reconcile(localIndex, remoteIndex, snapshot.getPackages(), packagesURL, false);
             }
 
+            publish(local, remote);
+
             progress = new DefaultProgress(0.3, SharedLocale.tr("instanceLoader.checkingRemote"));
 
             try {
-                URL packagesURL = launcher.getPackagesURL();
-
                 PackageList packages = HttpRequest
                         .get(packagesURL)
                         .execute()
@@ -144,62 +180,126 @@ public class InstanceList {
                     throw new LauncherException("Update required", SharedLocale.tr("errors.updateRequiredError"));
                 }
 
-                for (ManifestInfo manifest : packages.getPackages()) {
-                    boolean foundLocal = false;
+                remote = reconcile(localIndex, remoteIndex, packages, packagesURL, true);
+                publish(local, remote);
+                saveSnapshot(packagesURL, packages);
+            } catch (IOException e) {
+                throw new IOException("The list of modpacks could not be downloaded.", e);
+            }
 
-                    for (Instance instance : local) {
-                        if (instance.getName().equalsIgnoreCase(manifest.getName())) {
-                            foundLocal = true;
+            return InstanceList.this;
+        }
 
-                            instance.setTitle(manifest.getTitle());
-                            instance.setPriority(manifest.getPriority());
-                            URL url = concat(packagesURL, manifest.getLocation());
-                            instance.setManifestURL(url);
+        /**
+         * Load the instances on disk, in parallel.
+         *
+         * @return a list of instances
+         * @throws InterruptedException if interrupted
+         * @throws ExecutionException if loading failed
+         */
+        private List<Instance> loadLocal() throws InterruptedException, ExecutionException {
+            File[] dirs = launcher.getInstancesDir().listFiles((FileFilter) DirectoryFileFilter.INSTANCE);
+            if (dirs == null) {
+                return new ArrayList<Instance>();
+            }
 
-                            log.info("(" + instance.getName() + ").setManifestURL(" + url + ")");
+            List<ListenableFuture<Instance>> futures = new ArrayList<ListenableFuture<Instance>>();
+            for (final File dir : dirs) {
+                futures.add(launcher.getScheduler().getDisk().submit(new Callable<Instance>() {
+                    @Override
+                    public Instance call() throws Exception {
+                        File file = new File(dir, "instance.json");
+                        Instance instance = Persistence.load(file, Instance.class);
+                        instance.setDir(dir);
+                        instance.setName(dir.getName());
+                        instance.setSelected(true);
+                        instance.setLocal(true);
 
-                            // Check if an update is required
-                            if (instance.getVersion() == null || !instance.getVersion().equals(manifest.getVersion())) {
-                                instance.setUpdatePending(true);
-                                instance.setVersion(manifest.getVersion());
-                                Persistence.commitAndForget(instance);
-                                log.info(instance.getName() + " requires an update to " + manifest.getVersion());
-                            }
-                        }
+                        log.info(instance.getName() + " local instance found at " + dir.getAbsolutePath());
+                        return instance;
                     }
+                }));
+            }
+
+            return new ArrayList<Instance>(Futures.allAsList(futures).get());
+        }
+
+        /**
+         * Apply a package list to the local instances and create instances
+         * for the packages that are not installed. Instances created by an
+         * earlier pass are reused, so that the rows that show them stay the
+         * same and keep their selection.
+         *
+         * @param localIndex local instances by lower case name
+         * @param remoteIndex remote instances from earlier passes by lower case name, which is updated
+         * @param packages the package list
+         * @param packagesURL the URL the package list was fetched from
+         * @param current true if the package list was just fetched, so that
+         *                versions may be compared to find pending updates
+         * @return the remote instances
+         */
+        private List<Instance> reconcile(Map<String, Instance> localIndex, Map<String, Instance> remoteIndex,
+                                         PackageList packages, URL packagesURL, boolean current) throws IOException {
+            List<Instance> remote = new ArrayList<Instance>();
+
+            for (ManifestInfo manifest : packages.getPackages()) {
+                Instance instance = localIndex.get(manifest.getName().toLowerCase(Locale.ROOT));
 
-                    if (!foundLocal) {
+                if (instance != null) {
+                    instance.setTitle(manifest.getTitle());
+                    instance.setPriority(manifest.getPriority());
+                    URL url = concat(packagesURL, manifest.getLocation());
+                    instance.setManifestURL(url);
+
+                    log.info("(" + instance.getName() + ").setManifestURL(" + url + ")");
+
+                    // Check if an update is required
+                    if (current && (instance.getVersion() == null || !instance.getVersion().equals(manifest.getVersion()))) {
+                        instance.setUpdatePending(true);
+                        instance.setVersion(manifest.getVersion());
+                        Persistence.commitAndForget(instance);
+                        log.info(instance.getName() + " requires an update to " + manifest.getVersion());
+                    }
+                } else {
+                    String key = manifest.getName().toLowerCase(Locale.ROOT);
+                    instance = remoteIndex.get(key);
+                    if (instance == null) {
                         File dir = new File(launcher.getInstancesDir(), manifest.getName());
                         File file = new File(dir, "instance.json");
-                        Instance instance = Persistence.load(file, Instance.class);
+                        instance = Persistence.load(file, Instance.class);
                         instance.setDir(dir);
-                        instance.setTitle(manifest.getTitle());
-                        instance.setName(manifest.getName());
-                        instance.setVersion(manifest.getVersion());
-                        instance.setPriority(manifest.getPriority());
-                        instance.setSelected(false);
-                        instance.setManifestURL(concat(packagesURL, manifest.getLocation()));
-                        instance.setUpdatePending(true);
-                        instance.setLocal(false);
-                        remote.add(instance);
-
+                        remoteIndex.put(key, instance);
+                    }
+                    instance.setTitle(manifest.getTitle());
+                    instance.setName(manifest.getName());
+                    instance.setVersion(manifest.getVersion());
+                    instance.setPriority(manifest.getPriority());
+                    instance.setSelected(false);
+                    instance.setManifestURL(concat(packagesURL, manifest.getLocation()));
+                    instance.setUpdatePending(true);
+                    instance.setLocal(false);
+                    remote.add(instance);
+
+                    if (current) {
                         log.info("Available remote instance: '" + instance.getName() +
                                 "' at version " + instance.getVersion());
                     }
                 }
-            } catch (IOException e) {
-                throw new IOException("The list of modpacks could not be downloaded.", e);
-            } finally {
-                synchronized (InstanceList.this) {
-                    instances.clear();
-                    instances.addAll(local);
-                    instances.addAll(remote);
-
-                    log.info(instances.size() + " instance(s) enumerated.");
-                }
             }
 
-            return InstanceList.this;
+            return remote;
+        }
+
+        private void saveSnapshot(URL packagesURL, PackageList packages) {
+            PackageSnapshot snapshot = new PackageSnapshot();
+            snapshot.setUrl(packagesURL.toString());
+            snapshot.setPackages(packages);
+
+            try {
+                Persistence.write(getSnapshotFile(), snapshot);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to save the package list snapshot", e);
+            }
         }
 
         @Override
@@ -212,4 +312,14 @@ public class InstanceList {
             return progress.getStatus();
         }
     }
+
+    /**
+     * The last package list that was downloaded.
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class PackageSnapshot {
+        private String url;
+        private PackageList packages;
+    }
 }
@@ -54,10 +54,24 @@ public class InstanceTasks {
     }
 
     public ObservableFuture<InstanceList> reloadInstances(Window window) {
+        return reloadInstances(window, true);
+    }
+
+    /**
+     * Reload the list of instances.
+     *
+     * @param window the window
+     * @param showProgress true to block the window with a progress dialog, false
+     *                     to let the list fill in as instances are found
+     * @return the future
+     */
+    public ObservableFuture<InstanceList> reloadInstances(Window window, boolean showProgress) {
         InstanceList.Enumerator loader = launcher.getInstances().createEnumerator();
         ObservableFuture<InstanceList> future = new ObservableFuture<InstanceList>(launcher.getExecutor().submit(loader), loader);
 
-        ProgressDialog.showProgress(window, future, SharedLocale.tr("launcher.checkingTitle"), SharedLocale.tr("launcher.checkingStatus"));
+        if (showProgress) {
+            ProgressDialog.showProgress(window, future, SharedLocale.tr("launcher.checkingTitle"), SharedLocale.tr("launcher.checkingStatus"));
+        }
         SwingHelper.addErrorDialogCallback(window, future);
 
         return future;
@@ -10,10 +10,12 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.ParameterException;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
 import com.skcraft.launcher.auth.*;
 import com.skcraft.launcher.launch.LaunchSupervisor;
+import com.skcraft.launcher.launch.runtime.JavaRuntimeRegistry;
 import com.skcraft.launcher.model.minecraft.Library;
 import com.skcraft.launcher.model.minecraft.VersionManifest;
 import com.skcraft.launcher.persistence.Persistence;
@@ -23,6 +25,7 @@ import com.skcraft.launcher.util.Environment;
 import com.skcraft.launcher.util.HttpRequest;
 import com.skcraft.launcher.util.SharedLocale;
 import com.skcraft.launcher.util.SimpleLogFormatter;
+import com.skcraft.launcher.util.StartupTrace;
 import com.sun.management.OperatingSystemMXBean;
 import lombok.Getter;
 import lombok.NonNull;
@@ -41,7 +44,8 @@ import java.net.URL;
 import java.net.URLEncoder;
 import java.util.Locale;
 import java.util.Properties;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
 import static com.skcraft.launcher.util.SharedLocale.tr;
@@ -52,21 +56,22 @@ import static com.skcraft.launcher.util.SharedLocale.tr;
 @Log
 public final class Launcher {
 
-    public static final int PROTOCOL_VERSION = 3;
+    public static final int PROTOCOL_VERSION = 4;
 
-    @Getter
-    private final ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+    @Getter private final Scheduler scheduler = new Scheduler();
     @Getter @Setter private Supplier<Window> mainWindowSupplier = new DefaultLauncherSupplier(this);
     @Getter private final File baseDir;
     @Getter private final Properties properties;
     @Getter private final InstanceList instances;
     @Getter private final Configuration config;
-    @Getter private final AccountList accounts;
+    private final ListenableFuture<AccountList> accounts;
     @Getter private final AssetsRoot assets;
+    @Getter private final JavaRuntimeRegistry javaRuntimes;
     @Getter private final LaunchSupervisor launchSupervisor = new LaunchSupervisor(this);
     @Getter private final UpdateManager updateManager = new UpdateManager(this);
     @Getter private final InstanceTasks instanceTasks = new InstanceTasks(this);
     private final Environment env = Environment.getInstance();
+    private final AtomicBoolean deferredStarted = new AtomicBoolean();
 
     /**
      * Create a new launcher instance with the given base directory.
@@ -87,25 +92,93 @@ public final class Launcher {
      * @throws java.io.IOException on load error
      */
     public Launcher(@NonNull File baseDir, @NonNull File configDir) throws IOException {
+        StartupTrace trace = StartupTrace.getInstance();
+        StartupTrace.Step step;
+
+        step = trace.begin("Load language bundle");
         SharedLocale.loadBundle("com.skcraft.launcher.lang.Launcher", Locale.getDefault());
+        step.end();
 
         this.baseDir = baseDir.getAbsoluteFile();
+
+        // Accounts are not needed until launch, so they are descrambled in the background
+        final File accountsFile = new File(configDir, "accounts.dat");
+        this.accounts = scheduler.getDisk().submit(new Callable<AccountList>() {
+            @Override
+            public AccountList call() throws Exception {
+                StartupTrace.Step load = StartupTrace.getInstance().begin("Load accounts");
+                try {
+                    return Persistence.load(accountsFile, AccountList.class);
+                } finally {
+                    load.end();
+                }
+            }
+        });
+
+        step = trace.begin("Load properties");
         this.properties = LauncherUtils.loadProperties(Launcher.class, "launcher.properties", "com.skcraft.launcher.propertiesFile");
+        step.end();
+
         this.instances = new InstanceList(this);
         this.assets = new AssetsRoot(new File(baseDir, "assets"));
-        this.config = Persistence.load(new File(configDir, "config.json"), Configuration.class);
-        this.accounts = Persistence.load(new File(configDir, "accounts.dat"), AccountList.class);
 
+        step = trace.begin("Load configuration");
+        this.config = Persistence.load(new File(configDir, "config.json"), Configuration.class);
         setDefaultConfig();
+        step.end();
+
+        step = trace.begin("Load Java runtimes");
+        this.javaRuntimes = new JavaRuntimeRegistry(scheduler.getDisk(), new File(baseDir, "runtimes.json"));
+        javaRuntimes.load();
+        javaRuntimes.refresh();
+        step.end();
+    }
+
+    /**
+     * Get the general pool, which runs coarse jobs such as updates and
+     * launches. Work that is only disk, network or CPU bound should go to
+     * the matching pool of {@link #getScheduler()}.
+     *
+     * @return the executor
+     */
+    public ListeningExecutorService getExecutor() {
+        return scheduler.getTasks();
+    }
 
-        executor.submit(new Runnable() {
+    /**
+     * Get the list of accounts, waiting for it to be loaded if necessary.
+     *
+     * @return the account list
+     */
+    public AccountList getAccounts() {
+        return Futures.getUnchecked(accounts);
+    }
+
+    /**
+     * Start the work that is left until after the launcher window is first
+     * shown, such as the self-update check and the removal of old extracted
+     * files. Further calls have no effect.
+     *
+     * @param window the window to show errors over, or null
+     */
+    public void startDeferredTasks(final Window window) {
+        if (!deferredStarted.compareAndSet(false, true)) {
+            return;
+        }
+
+        scheduler.getMaintenance().submit(new Runnable() {
             @Override
             public void run() {
-                cleanupExtractDir();
+                StartupTrace.getInstance().time("Clean up extracted files", new Runnable() {
+                    @Override
+                    public void run() {
+                        cleanupExtractDir();
+                    }
+                });
             }
         });
 
-        updateManager.checkForUpdate(null);
+        updateManager.checkForUpdate(window);
     }
 
     /**
@@ -160,7 +233,7 @@ public final class Launcher {
      * @return the Yggdrasil (legacy) login service
      */
     public YggdrasilLoginService getYggdrasil() {
-        return new YggdrasilLoginService(HttpRequest.url(getProperties().getProperty("yggdrasilAuthUrl")), accounts.getClientId());
+        return new YggdrasilLoginService(HttpRequest.url(getProperties().getProperty("yggdrasilAuthUrl")), getAccounts().getClientId());
     }
 
     /**
@@ -402,9 +475,30 @@ public final class Launcher {
      * Show the launcher.
      */
     public Window showLauncherWindow() {
-        Window window = mainWindowSupplier.get();
+        final StartupTrace trace = StartupTrace.getInstance();
+
+        StartupTrace.Step step = trace.begin("Create launcher window");
+        final Window window = mainWindowSupplier.get();
+        step.end();
+
         window.setVisible(true);
 
+        // Runs after the window has had a chance to paint
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                if (trace.markFirstFrame()) {
+                    startDeferredTasks(null);
+                    scheduler.getMaintenance().submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            trace.writeReport(new File(getBaseDir(), "startup.json"));
+                        }
+                    });
+                }
+            }
+        });
+
         return window;
     }
 
@@ -454,9 +548,16 @@ public final class Launcher {
             @Override
             public void run() {
                 try {
+                    StartupTrace trace = StartupTrace.getInstance();
+                    StartupTrace.Step step = trace.begin("Create launcher");
                     Launcher launcher = createFromArguments(args);
+                    step.end();
+
+                    step = trace.begin("Set look and feel");
                     SwingHelper.setSwingProperties(tr("launcher.appTitle", launcher.getVersion()));
                     UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+                    step.end();
+
                     launcher.showLauncherWindow();
                 } catch (Throwable t) {
                     log.log(Level.WARNING, "Load failure", t);
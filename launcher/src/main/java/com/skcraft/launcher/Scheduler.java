@@ -0,0 +1,171 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher;
+
+import com.google.common.util.concurrent.ForwardingListeningExecutorService;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+
+/**
+ * The thread pools of the launcher, each sized for one kind of work.
+ *
+ * <ul>
+ *     <li><strong>tasks</strong> runs coarse jobs such as updates, launches and
+ *     logins, which mostly wait on the other pools or the user.</li>
+ *     <li><strong>network</strong> runs HTTP requests that are not part of a
+ *     download queue.</li>
+ *     <li><strong>disk</strong> runs file reads and scans.</li>
+ *     <li><strong>cpu</strong> runs hashing and other CPU-bound work at a lower
+ *     priority than the UI, one thread per spare core.</li>
+ *     <li><strong>maintenance</strong> runs cleanup and reports on a single
+ *     low priority thread.</li>
+ * </ul>
+ *
+ * <p>Every pool has a fixed number of threads, which are named after the pool,
+ * are daemons, and exit when idle, and an unbounded queue whose length can be
+ * read through {@link #getStats()}. Tasks must not wait on other tasks in
+ * the same pool.</p>
+ *
+ * <p>If the <code>com.skcraft.launcher.virtualThreads</code> system property
+ * is <code>true</code> and the JVM supports virtual threads (Java 21+), the
+ * network pool runs each request on its own virtual thread instead.</p>
+ */
+@Log
+public class Scheduler {
+
+    public static final String VIRTUAL_THREADS_PROPERTY = "com.skcraft.launcher.virtualThreads";
+
+    @Getter private final Pool tasks;
+    @Getter private final Pool network;
+    @Getter private final Pool disk;
+    @Getter private final Pool cpu;
+    @Getter private final Pool maintenance;
+
+    public Scheduler() {
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        tasks = new Pool("Launcher task", 32, Thread.NORM_PRIORITY);
+        network = createNetworkPool();
+        disk = new Pool("Disk I/O", Math.max(2, Math.min(4, cores)), Thread.NORM_PRIORITY);
+        cpu = new Pool("CPU worker", Math.max(1, cores - 1), Thread.NORM_PRIORITY - 1);
+        maintenance = new Pool("Maintenance", 1, Thread.MIN_PRIORITY);
+    }
+
+    private static Pool createNetworkPool() {
+        if (Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY)) {
+            try {
+                ExecutorService executor = (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor")
+                        .invoke(null);
+                log.info("Using virtual threads for network requests");
+                return new Pool("Network I/O", executor);
+            } catch (Exception e) {
+                log.log(Level.INFO, "Virtual threads are not available on this JVM", e);
+            }
+        }
+
+        return new Pool("Network I/O", 8, Thread.NORM_PRIORITY);
+    }
+
+    /**
+     * Get a snapshot of the state of every pool.
+     *
+     * @return a list of statistics
+     */
+    public List<PoolStats> getStats() {
+        List<PoolStats> stats = new ArrayList<PoolStats>();
+        for (Pool pool : new Pool[] { tasks, network, disk, cpu, maintenance }) {
+            stats.add(pool.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Stop all pools, interrupting running tasks.
+     */
+    public void shutdownNow() {
+        for (Pool pool : new Pool[] { tasks, network, disk, cpu, maintenance }) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * A named pool of threads.
+     */
+    public static class Pool extends ForwardingListeningExecutorService {
+        @Getter private final String name;
+        private final ListeningExecutorService delegate;
+        private final ThreadPoolExecutor threadPool;
+
+        private Pool(String name, int threads, int priority) {
+            this.name = name;
+
+            threadPool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactoryBuilder()
+                            .setNameFormat(name + " %d")
+                            .setPriority(priority)
+                            .setDaemon(true)
+                            .build());
+            threadPool.allowCoreThreadTimeOut(true);
+            delegate = MoreExecutors.listeningDecorator(threadPool);
+        }
+
+        private Pool(String name, ExecutorService executor) {
+            this.name = name;
+            this.threadPool = null;
+            this.delegate = MoreExecutors.listeningDecorator(executor);
+        }
+
+        @Override
+        protected ListeningExecutorService delegate() {
+            return delegate;
+        }
+
+        /**
+         * Get a snapshot of the state of this pool.
+         *
+         * @return the statistics
+         */
+        public PoolStats getStats() {
+            PoolStats stats = new PoolStats();
+            stats.setName(name);
+            if (threadPool != null) {
+                stats.setSubmitted(threadPool.getTaskCount());
+                stats.setThreads(threadPool.getPoolSize());
+                stats.setMaxThreads(threadPool.getMaximumPoolSize());
+                stats.setActive(threadPool.getActiveCount());
+                stats.setQueued(threadPool.getQueue().size());
+                stats.setCompleted(threadPool.getCompletedTaskCount());
+            } else {
+                stats.setMaxThreads(-1);
+            }
+            return stats;
+        }
+    }
+
+    @Data
+    public static class PoolStats {
+        private String name;
+        private int threads;
+        private int maxThreads;
+        private int active;
+        private int queued;
+        private long submitted;
+        private long completed;
+    }
+
+}
@@ -9,6 +9,7 @@ package com.skcraft.launcher.dialog;
 import com.skcraft.launcher.Configuration;
 import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.dialog.component.BetterComboBox;
+import com.skcraft.launcher.launch.TuningProfile;
 import com.skcraft.launcher.launch.runtime.AddJavaRuntime;
 import com.skcraft.launcher.launch.runtime.JavaRuntime;
 import com.skcraft.launcher.launch.runtime.JavaRuntimeFinder;
@@ -40,6 +41,7 @@ public class ConfigurationDialog extends JDialog {
     private final JTextField jvmArgsText = new JTextField();
     private final JSpinner minMemorySpinner = new JSpinner();
     private final JSpinner maxMemorySpinner = new JSpinner();
+    private final JComboBox<TuningProfile> tuningProfileCombo = new JComboBox<>(TuningProfile.values());
     private final FormPanel gameSettingsPanel = new FormPanel();
     private final JSpinner widthSpinner = new JSpinner();
     private final JSpinner heightSpinner = new JSpinner();
@@ -69,7 +71,7 @@ public class ConfigurationDialog extends JDialog {
         this.config = launcher.getConfig();
         mapper = new ObjectSwingMapper(config);
 
-        JavaRuntime[] javaRuntimes = JavaRuntimeFinder.getAvailableRuntimes().toArray(new JavaRuntime[0]);
+        JavaRuntime[] javaRuntimes = launcher.getJavaRuntimes().getRuntimes().toArray(new JavaRuntime[0]);
         DefaultComboBoxModel<JavaRuntime> model = new DefaultComboBoxModel<>(javaRuntimes);
 
         // Put the runtime from the config in the model if it isn't
@@ -82,6 +84,7 @@ public class ConfigurationDialog extends JDialog {
         jvmRuntime.addItem(AddJavaRuntime.ADD_RUNTIME_SENTINEL);
 
         jvmRuntime.setSelectedItem(config.getJavaRuntime());
+        tuningProfileCombo.setSelectedItem(config.getTuningProfile());
 
         setTitle(SharedLocale.tr("options.title"));
         initComponents(); // Must be called after jvmRuntime model setup
@@ -112,6 +115,7 @@ public class ConfigurationDialog extends JDialog {
         javaSettingsPanel.addRow(new JLabel(SharedLocale.tr("options.64BitJavaWarning")));
         javaSettingsPanel.addRow(new JLabel(SharedLocale.tr("options.minMemory")), minMemorySpinner);
         javaSettingsPanel.addRow(new JLabel(SharedLocale.tr("options.maxMemory")), maxMemorySpinner);
+        javaSettingsPanel.addRow(new JLabel(SharedLocale.tr("options.tuningProfile")), tuningProfileCombo);
         SwingHelper.removeOpaqueness(javaSettingsPanel);
         tabbedPane.addTab(SharedLocale.tr("options.javaTab"), SwingHelper.alignTabbedPane(javaSettingsPanel));
 
@@ -197,6 +201,7 @@ public class ConfigurationDialog extends JDialog {
     public void save() {
         mapper.copyFromSwing();
         config.setJavaRuntime((JavaRuntime) jvmRuntime.getSelectedItem());
+        config.setTuningProfile((TuningProfile) tuningProfileCombo.getSelectedItem());
 
         Persistence.commitAndForget(config);
         dispose();
@@ -6,6 +6,7 @@
 
 package com.skcraft.launcher.dialog;
 
+import com.google.common.base.Charsets;
 import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.swing.LinedBoxPanel;
 import com.skcraft.launcher.swing.MessageLog;
@@ -21,6 +22,12 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 import static com.skcraft.launcher.util.SharedLocale.tr;
 
@@ -42,7 +49,7 @@ public class ConsoleFrame extends JFrame {
     /**
      * Construct the frame.
      *
-     * @param numLines number of lines to show at a time
+     * @param numLines unused, as the whole session is kept
      * @param colorEnabled true to enable a colored console
      */
     public ConsoleFrame(int numLines, boolean colorEnabled) {
@@ -53,11 +60,11 @@ public class ConsoleFrame extends JFrame {
      * Construct the frame.
      * 
      * @param title the title of the window
-     * @param numLines number of lines to show at a time
+     * @param numLines unused, as the whole session is kept
      * @param colorEnabled true to enable a colored console
      */
     public ConsoleFrame(@NonNull String title, int numLines, boolean colorEnabled) {
-        messageLog = new MessageLog(numLines, colorEnabled);
+        messageLog = new MessageLog(colorEnabled);
         trayRunningIcon = SwingHelper.createImage(Launcher.class, "tray_ok.png");
         trayClosedIcon = SwingHelper.createImage(Launcher.class, "tray_closed.png");
 
@@ -81,11 +88,13 @@ public class ConsoleFrame extends JFrame {
      */
     private void initComponents() {
         JButton pastebinButton = new JButton(SharedLocale.tr("console.uploadLog"));
+        JButton saveLogButton = new JButton(SharedLocale.tr("console.saveLog"));
         JButton clearLogButton = new JButton(SharedLocale.tr("console.clearLog"));
         buttonsPanel = new LinedBoxPanel(true);
 
         buttonsPanel.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
         buttonsPanel.addElement(pastebinButton);
+        buttonsPanel.addElement(saveLogButton);
         buttonsPanel.addElement(clearLogButton);
 
         add(buttonsPanel, BorderLayout.NORTH);
@@ -103,6 +112,13 @@ public class ConsoleFrame extends JFrame {
                 pastebinLog();
             }
         });
+
+        saveLogButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                saveLog();
+            }
+        });
     }
 
     /**
@@ -120,31 +136,85 @@ public class ConsoleFrame extends JFrame {
      */
     protected void performClose() {
         messageLog.detachGlobalHandler();
-        messageLog.clear();
         registeredGlobalLog = false;
         dispose();
     }
 
+    /**
+     * Dispose the frame and release the store of its message log, so that
+     * its file does not stay around until the launcher exits.
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+        messageLog.close();
+
+        // The store is gone, so the next call to showMessages() needs a new frame
+        if (globalFrame == this) {
+            globalFrame = null;
+        }
+    }
+
     /**
      * Send the contents of the message log to a pastebin.
      */
     private void pastebinLog() {
-        String text = messageLog.getPastableText();
-        // Not really bytes!
-        messageLog.log(tr("console.pasteUploading", text.length()), messageLog.asHighlighted());
-
-        PastebinPoster.paste(text, new PastebinPoster.PasteCallback() {
+        // Reading a whole session can take a while
+        Thread thread = new Thread(new Runnable() {
             @Override
-            public void handleSuccess(String url) {
-                messageLog.log(tr("console.pasteUploaded", url), messageLog.asHighlighted());
-                SwingHelper.openURL(url, messageLog);
+            public void run() {
+                String text = messageLog.getPastableText();
+                // Not really bytes!
+                messageLog.log(tr("console.pasteUploading", text.length()), messageLog.asHighlighted());
+
+                PastebinPoster.paste(text, new PastebinPoster.PasteCallback() {
+                    @Override
+                    public void handleSuccess(String url) {
+                        messageLog.log(tr("console.pasteUploaded", url), messageLog.asHighlighted());
+                        SwingHelper.openURL(url, messageLog);
+                    }
+
+                    @Override
+                    public void handleError(String err) {
+                        messageLog.log(tr("console.pasteFailed", err), messageLog.asError());
+                    }
+                });
             }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Save the contents of the message log to a file chosen by the user.
+     */
+    private void saveLog() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        chooser.setSelectedFile(new File("console.log"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
 
+        final File file = chooser.getSelectedFile();
+        Thread thread = new Thread(new Runnable() {
             @Override
-            public void handleError(String err) {
-                messageLog.log(tr("console.pasteFailed", err), messageLog.asError());
+            public void run() {
+                try {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), Charsets.UTF_8));
+                    try {
+                        messageLog.export(writer);
+                    } finally {
+                        writer.close();
+                    }
+                    messageLog.log(tr("console.logSaved", file.getAbsolutePath()) + "\n", messageLog.asHighlighted());
+                } catch (IOException e) {
+                    messageLog.log(tr("console.logSaveFailed", e.getMessage()) + "\n", messageLog.asError());
+                }
             }
         });
+        thread.setDaemon(true);
+        thread.start();
     }
 
     public static void showMessages() {
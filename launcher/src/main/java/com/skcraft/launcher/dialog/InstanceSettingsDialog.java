@@ -2,10 +2,11 @@ package com.skcraft.launcher.dialog;
 
 import com.skcraft.launcher.Instance;
 import com.skcraft.launcher.InstanceSettings;
+import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.dialog.component.BetterComboBox;
 import com.skcraft.launcher.launch.MemorySettings;
+import com.skcraft.launcher.launch.TuningProfile;
 import com.skcraft.launcher.launch.runtime.JavaRuntime;
-import com.skcraft.launcher.launch.runtime.JavaRuntimeFinder;
 import com.skcraft.launcher.persistence.Persistence;
 import com.skcraft.launcher.swing.FormPanel;
 import com.skcraft.launcher.swing.LinedBoxPanel;
@@ -17,6 +18,7 @@ import java.awt.*;
 
 @Log
 public class InstanceSettingsDialog extends JDialog {
+	private final Launcher launcher;
 	private final InstanceSettings settings;
 
 	private final LinedBoxPanel formsPanel = new LinedBoxPanel(false);
@@ -24,20 +26,25 @@ public class InstanceSettingsDialog extends JDialog {
 	private final JCheckBox enableMemorySettings = new JCheckBox(SharedLocale.tr("instance.options.customMemory"));
 	private final JSpinner minMemorySpinner = new JSpinner();
 	private final JSpinner maxMemorySpinner = new JSpinner();
+	private final JComboBox<TuningProfile> tuningProfileBox = new JComboBox<>(TuningProfile.values());
 
 	private final JCheckBox enableCustomRuntime = new JCheckBox(SharedLocale.tr("instance.options.customJava"));
 	private final FormPanel runtimePanel = new FormPanel();
 	private final JComboBox<JavaRuntime> javaRuntimeBox = new BetterComboBox<>();
 	private final JTextField javaArgsBox = new JTextField();
 
+	private final FormPanel launchPanel = new FormPanel();
+	private final JCheckBox enableClassDataSharing = new JCheckBox(SharedLocale.tr("instance.options.classDataSharing"));
+
 	private final LinedBoxPanel buttonsPanel = new LinedBoxPanel(true);
 	private final JButton okButton = new JButton(SharedLocale.tr("button.save"));
 	private final JButton cancelButton = new JButton(SharedLocale.tr("button.cancel"));
 
 	private boolean saved = false;
 
-	public InstanceSettingsDialog(Window owner, InstanceSettings settings) {
+	public InstanceSettingsDialog(Window owner, Launcher launcher, InstanceSettings settings) {
 		super(owner);
+		this.launcher = launcher;
 		this.settings = settings;
 
 		setTitle(SharedLocale.tr("instance.options.title"));
@@ -51,15 +58,17 @@ public class InstanceSettingsDialog extends JDialog {
 		memorySettingsPanel.addRow(enableMemorySettings);
 		memorySettingsPanel.addRow(new JLabel(SharedLocale.tr("options.minMemory")), minMemorySpinner);
 		memorySettingsPanel.addRow(new JLabel(SharedLocale.tr("options.maxMemory")), maxMemorySpinner);
+		memorySettingsPanel.addRow(new JLabel(SharedLocale.tr("options.tuningProfile")), tuningProfileBox);
 
-		// TODO: Do we keep this list centrally somewhere? Or is actively refreshing good?
-		JavaRuntime[] javaRuntimes = JavaRuntimeFinder.getAvailableRuntimes().toArray(new JavaRuntime[0]);
+		JavaRuntime[] javaRuntimes = launcher.getJavaRuntimes().getRuntimes().toArray(new JavaRuntime[0]);
 		javaRuntimeBox.setModel(new DefaultComboBoxModel<>(javaRuntimes));
 
 		runtimePanel.addRow(enableCustomRuntime);
 		runtimePanel.addRow(new JLabel(SharedLocale.tr("options.jvmRuntime")), javaRuntimeBox);
 		runtimePanel.addRow(new JLabel(SharedLocale.tr("options.jvmArguments")), javaArgsBox);
 
+		launchPanel.addRow(enableClassDataSharing);
+
 		okButton.setMargin(new Insets(0, 10, 0, 10));
 		buttonsPanel.addGlue();
 		buttonsPanel.addElement(okButton);
@@ -88,6 +97,7 @@ public class InstanceSettingsDialog extends JDialog {
 
 		formsPanel.addElement(memorySettingsPanel);
 		formsPanel.addElement(runtimePanel);
+		formsPanel.addElement(launchPanel);
 
 		add(formsPanel, BorderLayout.NORTH);
 		add(buttonsPanel, BorderLayout.SOUTH);
@@ -102,6 +112,8 @@ public class InstanceSettingsDialog extends JDialog {
 
 			minMemorySpinner.setValue(settings.getMemorySettings().getMinMemory());
 			maxMemorySpinner.setValue(settings.getMemorySettings().getMaxMemory());
+			tuningProfileBox.setSelectedItem(settings.getMemorySettings().getTuningProfile() != null
+					? settings.getMemorySettings().getTuningProfile() : TuningProfile.NONE);
 		} else {
 			memorySettingsPanel.setEnabled(false);
 			enableMemorySettings.setSelected(false);
@@ -117,6 +129,7 @@ public class InstanceSettingsDialog extends JDialog {
 
 		javaRuntimeBox.setSelectedItem(settings.getRuntime());
 		javaArgsBox.setText(settings.getCustomJvmArgs());
+		enableClassDataSharing.setSelected(settings.isClassDataSharing());
 	}
 
 	private void save() {
@@ -125,6 +138,7 @@ public class InstanceSettingsDialog extends JDialog {
 
 			memorySettings.setMinMemory((int) minMemorySpinner.getValue());
 			memorySettings.setMaxMemory((int) maxMemorySpinner.getValue());
+			memorySettings.setTuningProfile((TuningProfile) tuningProfileBox.getSelectedItem());
 		} else {
 			settings.setMemorySettings(null);
 		}
@@ -137,11 +151,13 @@ public class InstanceSettingsDialog extends JDialog {
 			settings.setCustomJvmArgs(null);
 		}
 
+		settings.setClassDataSharing(enableClassDataSharing.isSelected());
+
 		saved = true;
 	}
 
-	public static boolean open(Window parent, Instance instance) {
-		InstanceSettingsDialog dialog = new InstanceSettingsDialog(parent, instance.getSettings());
+	public static boolean open(Window parent, Launcher launcher, Instance instance) {
+		InstanceSettingsDialog dialog = new InstanceSettingsDialog(parent, launcher, instance.getSettings());
 		dialog.setVisible(true);
 
 		if (dialog.saved) {
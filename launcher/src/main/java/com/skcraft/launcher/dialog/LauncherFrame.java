@@ -78,7 +78,7 @@ public class LauncherFrame extends JFrame {
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
-                loadInstances();
+                loadInstances(false);
             }
         });
     }
@@ -120,18 +120,28 @@ public class LauncherFrame extends JFrame {
         instancesModel.addTableModelListener(new TableModelListener() {
             @Override
             public void tableChanged(TableModelEvent e) {
-                if (instancesTable.getRowCount() > 0) {
+                if (instancesTable.getRowCount() > 0 && instancesTable.getSelectedRow() == -1) {
                     instancesTable.setRowSelectionInterval(0, 0);
                 }
             }
         });
 
+        // The list is published once from disk and again after the package list is downloaded
+        launcher.getInstances().addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                if (evt.getPropertyName().equals("instances")) {
+                    instancesModel.update();
+                }
+            }
+        });
+
         instancesTable.addMouseListener(new DoubleClickToButtonAdapter(launchButton));
 
         refreshButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                loadInstances();
+                loadInstances(true);
                 launcher.getUpdateManager().checkForUpdate(LauncherFrame.this);
                 webView.browse(launcher.getNewsURL(), false);
             }
@@ -165,7 +175,7 @@ public class LauncherFrame extends JFrame {
                 Instance selected = null;
                 if (index >= 0) {
                     instancesTable.setRowSelectionInterval(index, index);
-                    selected = launcher.getInstances().get(index);
+                    selected = instancesModel.getInstance(index);
                 }
                 popupInstanceMenu(e.getComponent(), e.getX(), e.getY(), selected);
             }
@@ -243,7 +253,7 @@ public class LauncherFrame extends JFrame {
 
                 menuItem = new JMenuItem(SharedLocale.tr("instance.openSettings"));
                 menuItem.addActionListener(e -> {
-                    InstanceSettingsDialog.open(this, selected);
+                    InstanceSettingsDialog.open(this, launcher, selected);
                 });
                 popup.add(menuItem);
 
@@ -288,7 +298,7 @@ public class LauncherFrame extends JFrame {
         menuItem.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                loadInstances();
+                loadInstances(true);
             }
         });
         popup.add(menuItem);
@@ -309,7 +319,7 @@ public class LauncherFrame extends JFrame {
         future.addListener(new Runnable() {
             @Override
             public void run() {
-                loadInstances();
+                loadInstances(true);
             }
         }, SwingExecutor.INSTANCE);
     }
@@ -331,22 +341,19 @@ public class LauncherFrame extends JFrame {
         }, SwingExecutor.INSTANCE);
     }
 
-    private void loadInstances() {
-        ObservableFuture<InstanceList> future = launcher.getInstanceTasks().reloadInstances(this);
+    private void loadInstances(boolean showProgress) {
+        ObservableFuture<InstanceList> future = launcher.getInstanceTasks().reloadInstances(this, showProgress);
 
         future.addListener(new Runnable() {
             @Override
             public void run() {
                 instancesModel.update();
-                if (instancesTable.getRowCount() > 0) {
+                if (instancesTable.getRowCount() > 0 && instancesTable.getSelectedRow() == -1) {
                     instancesTable.setRowSelectionInterval(0, 0);
                 }
                 requestFocus();
             }
         }, SwingExecutor.INSTANCE);
-
-        ProgressDialog.showProgress(this, future, SharedLocale.tr("launcher.checkingTitle"), SharedLocale.tr("launcher.checkingStatus"));
-        SwingHelper.addErrorDialogCallback(this, future);
     }
 
     private void showOptions() {
@@ -365,7 +372,7 @@ public class LauncherFrame extends JFrame {
         
         // Note: In a real scenario with sorting, we should convert row index, 
         // but sticking to original logic for compatibility.
-        Instance instance = launcher.getInstances().get(selectedRow);
+        Instance instance = instancesModel.getInstance(selectedRow);
 
         LaunchOptions options = new LaunchOptions.Builder()
                 .setInstance(instance)
@@ -6,8 +6,10 @@
 
 package com.skcraft.launcher.dialog;
 
+import com.skcraft.launcher.launch.ProcessTelemetry;
 import com.skcraft.launcher.swing.LinedBoxPanel;
 import com.skcraft.launcher.swing.SwingHelper;
+import com.skcraft.launcher.swing.TelemetryPanel;
 import com.skcraft.launcher.util.SharedLocale;
 import lombok.Getter;
 import lombok.Setter;
@@ -48,6 +50,18 @@ public class ProcessConsoleFrame extends ConsoleFrame {
         updateComponents();
     }
 
+    /**
+     * Show live resource graphs from the given telemetry.
+     *
+     * @param telemetry the telemetry
+     */
+    public void setTelemetry(ProcessTelemetry telemetry) {
+        TelemetryPanel telemetryPanel = new TelemetryPanel();
+        telemetry.addListener(telemetryPanel);
+        add(telemetryPanel, BorderLayout.SOUTH);
+        revalidate();
+    }
+
     /**
      * Track the given process.
      *
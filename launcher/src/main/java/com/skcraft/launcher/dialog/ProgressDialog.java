@@ -10,6 +10,8 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.skcraft.concurrency.ObservableFuture;
+import com.skcraft.concurrency.ProgressBus;
+import com.skcraft.concurrency.ProgressListener;
 import com.skcraft.concurrency.ProgressObservable;
 import com.skcraft.launcher.swing.LinedBoxPanel;
 import com.skcraft.launcher.swing.SwingHelper;
@@ -24,8 +26,6 @@ import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.lang.ref.WeakReference;
-import java.util.Timer;
-import java.util.TimerTask;
 
 import static com.skcraft.launcher.util.SharedLocale.tr;
 
@@ -170,19 +170,20 @@ public class ProgressDialog extends JDialog {
 
         lastDialogRef = new WeakReference<ProgressDialog>(dialog);
 
-        final Timer timer = new Timer();
-        timer.scheduleAtFixedRate(new UpdateProgress(dialog, observable), 400, 400);
+        final ProgressBus progressBus = ProgressBus.of(observable);
+        final ProgressListener listener = new UpdateProgress(dialog);
+        progressBus.addListener(listener, SwingExecutor.INSTANCE);
 
         Futures.addCallback(future, new FutureCallback<Object>() {
             @Override
             public void onSuccess(Object result) {
-                timer.cancel();
+                progressBus.removeListener(listener);
                 dialog.dispose();
             }
 
             @Override
             public void onFailure(Throwable t) {
-                timer.cancel();
+                progressBus.removeListener(listener);
                 dialog.dispose();
             }
         }, SwingExecutor.INSTANCE);
@@ -199,51 +200,48 @@ public class ProgressDialog extends JDialog {
         return null;
     }
 
-    private static class UpdateProgress extends TimerTask {
+    private static class UpdateProgress implements ProgressListener {
         private final ProgressDialog dialog;
-        private final ProgressObservable observable;
 
-        public UpdateProgress(ProgressDialog dialog, ProgressObservable observable) {
+        public UpdateProgress(ProgressDialog dialog) {
             this.dialog = dialog;
-            this.observable = observable;
         }
 
         @Override
-        public void run() {
-            SwingUtilities.invokeLater(new Runnable() {
-                @Override
-                public void run() {
-                    JProgressBar progressBar = dialog.progressBar;
-                    JTextArea logText = dialog.logText;
-                    JLabel label = dialog.label;
-
-                    double progress = observable.getProgress();
-                    if (progress >= 0) {
-                        dialog.setTitle(tr("progress.percentTitle",
-                                Math.round(progress * 100 * 100) / 100.0, dialog.defaultTitle));
-                        progressBar.setValue((int) (progress * 1000));
-                        progressBar.setIndeterminate(false);
-                    } else {
-                        dialog.setTitle( dialog.defaultTitle);
-                        progressBar.setIndeterminate(true);
-                    }
-
-                    String status = observable.getStatus();
-                    if (status == null) {
-                        status = SharedLocale.tr("progress.defaultStatus");
-                        label.setText(dialog.defaultMessage);
-                    } else {
-                        int index = status.indexOf('\n');
-                        if (index == -1) {
-                            label.setText(status);
-                        } else {
-                            label.setText(status.substring(0, index));
-                        }
-                    }
-                    logText.setText(status);
-                    logText.setCaretPosition(0);
+        public void progressChanged(ProgressObservable observable) {
+            JProgressBar progressBar = dialog.progressBar;
+            JTextArea logText = dialog.logText;
+            JLabel label = dialog.label;
+
+            double progress = observable.getProgress();
+            if (progress >= 0) {
+                dialog.setTitle(tr("progress.percentTitle",
+                        Math.round(progress * 100 * 100) / 100.0, dialog.defaultTitle));
+                progressBar.setValue((int) (progress * 1000));
+                progressBar.setIndeterminate(false);
+            } else {
+                dialog.setTitle( dialog.defaultTitle);
+                progressBar.setIndeterminate(true);
+            }
+
+            String status = observable.getStatus();
+            if (status == null) {
+                status = SharedLocale.tr("progress.defaultStatus");
+                label.setText(dialog.defaultMessage);
+            } else {
+                int index = status.indexOf('\n');
+                if (index == -1) {
+                    label.setText(status);
+                } else {
+                    label.setText(status.substring(0, index));
                 }
-            });
+            }
+
+            // Only touch the text area when the status has changed, as frames can now be frequent
+            if (!status.equals(logText.getText())) {
+                logText.setText(status);
+                logText.setCaretPosition(0);
+            }
         }
     }
 
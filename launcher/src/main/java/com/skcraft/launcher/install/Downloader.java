@@ -6,14 +6,14 @@
 
 package com.skcraft.launcher.install;
 
-import com.skcraft.concurrency.ProgressObservable;
+import com.skcraft.concurrency.ProgressSource;
 
 import java.io.File;
 import java.net.URL;
 import java.util.List;
 
 
-public interface Downloader extends ProgressObservable {
+public interface Downloader extends ProgressSource {
 
     File download(List<URL> urls, String key, long size, String name);
 
@@ -14,6 +14,8 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.skcraft.concurrency.ProgressBus;
 import com.skcraft.concurrency.ProgressObservable;
 import com.skcraft.launcher.util.HttpRequest;
 import com.skcraft.launcher.util.SharedLocale;
@@ -39,6 +41,7 @@ public class HttpDownloader implements Downloader {
     private final HashFunction hf = Hashing.sha1();
 
     private final File tempDir;
+    @Getter private final ProgressBus progressBus = new ProgressBus(this);
     @Getter @Setter private int threadCount = 6;
     @Getter @Setter private int retryDelay = 2000;
     @Getter @Setter private int tryCount = 3;
@@ -46,6 +49,9 @@ public class HttpDownloader implements Downloader {
     private List<HttpDownloadJob> queue = new ArrayList<HttpDownloadJob>();
     private final Set<String> usedKeys = new HashSet<String>();
 
+    private ListeningExecutorService executor;
+    private final List<ListenableFuture<?>> futures = new ArrayList<ListenableFuture<?>>();
+
     private final List<HttpDownloadJob> running = new ArrayList<HttpDownloadJob>();
     private final List<HttpDownloadJob> failed = new ArrayList<HttpDownloadJob>();
     private long downloaded = 0;
@@ -91,7 +97,11 @@ public class HttpDownloader implements Downloader {
         if (!tempFile.exists()) {
             total += size;
             left++;
-            queue.add(new HttpDownloadJob(tempFile, urls, size, name != null ? name : tempFile.getName()));
+            HttpDownloadJob job = new HttpDownloadJob(tempFile, urls, size, name != null ? name : tempFile.getName());
+            queue.add(job);
+            if (executor != null) {
+                futures.add(executor.submit(job));
+            }
         }
 
         return tempFile;
@@ -105,6 +115,32 @@ public class HttpDownloader implements Downloader {
         return download(urls, key, size, name);
     }
 
+    /**
+     * Start downloading queued files now, and files queued from here on as
+     * soon as they are queued, instead of waiting for {@link #execute()}.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+
+        executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(threadCount,
+                new ThreadFactoryBuilder().setNameFormat("Downloader %d").setDaemon(true).build()));
+
+        for (HttpDownloadJob job : queue) {
+            futures.add(executor.submit(job));
+        }
+    }
+
+    /**
+     * Stop all downloads, including those that have not started yet.
+     */
+    public synchronized void cancel() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Prevent further downloads from being queued and download queued files.
      *
@@ -112,24 +148,17 @@ public class HttpDownloader implements Downloader {
      * @throws IOException thrown on I/O error
      */
     public void execute() throws InterruptedException, IOException {
+        List<ListenableFuture<?>> pending;
+
         synchronized (this) {
+            start();
             queue = Collections.unmodifiableList(queue);
+            pending = new ArrayList<ListenableFuture<?>>(futures);
         }
 
-        ListeningExecutorService executor = MoreExecutors.listeningDecorator(
-                Executors.newFixedThreadPool(threadCount));
-
         try {
-            List<ListenableFuture<?>> futures = new ArrayList<ListenableFuture<?>>();
-
-            synchronized (this) {
-                for (HttpDownloadJob job : queue) {
-                    futures.add(executor.submit(job));
-                }
-            }
-
             try {
-                Futures.allAsList(futures).get();
+                Futures.allAsList(pending).get();
             } catch (ExecutionException e) {
                 throw new IOException("Something went wrong", e);
             }
@@ -140,7 +169,7 @@ public class HttpDownloader implements Downloader {
                 }
             }
         } finally {
-            executor.shutdownNow();
+            cancel();
         }
     }
 
@@ -198,6 +227,7 @@ public class HttpDownloader implements Downloader {
                 synchronized (HttpDownloader.this) {
                     running.add(this);
                 }
+                progressBus.changed();
 
                 download();
 
@@ -215,6 +245,7 @@ public class HttpDownloader implements Downloader {
                     left--;
                     running.remove(this);
                 }
+                progressBus.changed();
             }
         }
 
@@ -262,7 +293,7 @@ public class HttpDownloader implements Downloader {
         private void tryDownloadFrom(URL url, File file, HttpRequest.PartialDownloadInfo retryDetails, int tries)
                 throws InterruptedException, IOException {
             try {
-                request = HttpRequest.get(url);
+                request = HttpRequest.get(url).setProgressBus(progressBus);
                 request.setResumeInfo(retryDetails).execute().expectResponseCode(200).saveContent(file);
             } catch (IOException e) {
                 log.log(Level.WARNING, "Failed to download " + url, e);
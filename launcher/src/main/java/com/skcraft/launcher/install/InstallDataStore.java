@@ -0,0 +1,279 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.install;
+
+import com.google.common.base.Charsets;
+import com.skcraft.launcher.persistence.AtomicFileByteSink;
+import com.skcraft.launcher.persistence.Persistence;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.*;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Stores the install log and update cache of an instance in a compact
+ * binary form.
+ *
+ * <p>Paths are written in sorted order, each one as the length of the
+ * prefix it shares with the previous path followed by the rest of it, which
+ * is most of the saving for trees of mods and configs. Files are read as a
+ * stream straight into the in-memory structures and replaced atomically
+ * once the whole file has been written. The JSON files used by older
+ * versions are read if there is no binary file yet, and removed once the
+ * binary file is in place.</p>
+ */
+@Log
+public final class InstallDataStore {
+
+    private static final int INSTALL_LOG_MAGIC = 0x534b494c; // SKIL
+    private static final int UPDATE_CACHE_MAGIC = 0x534b5543; // SKUC
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String INSTALL_LOG_FILE = "install_log.dat";
+    private static final String INSTALL_LOG_LEGACY_FILE = "install_log.json";
+    private static final String UPDATE_CACHE_FILE = "update_cache.dat";
+    private static final String UPDATE_CACHE_LEGACY_FILE = "update_cache.json";
+
+    private InstallDataStore() {
+    }
+
+    /**
+     * Read the install log of an instance.
+     *
+     * @param dir the instance directory
+     * @return the install log, which is empty if there is none
+     */
+    public static InstallLog readInstallLog(@NonNull File dir) {
+        File file = new File(dir, INSTALL_LOG_FILE);
+
+        if (file.exists()) {
+            try {
+                DataInputStream in = openForRead(file, INSTALL_LOG_MAGIC);
+                try {
+                    InstallLog installLog = new InstallLog();
+                    int groupCount = readVarInt(in);
+                    String group = "";
+                    for (int i = 0; i < groupCount; i++) {
+                        group = readPath(in, group);
+                        int entryCount = readVarInt(in);
+                        // Entries are coded against the group, which they usually start with
+                        String entry = group;
+                        for (int j = 0; j < entryCount; j++) {
+                            entry = readPath(in, entry);
+                            installLog.add(group, entry);
+                        }
+                    }
+                    return installLog;
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to read " + file.getAbsolutePath(), e);
+            }
+        }
+
+        return Persistence.read(new File(dir, INSTALL_LOG_LEGACY_FILE), InstallLog.class);
+    }
+
+    /**
+     * Write the install log of an instance.
+     *
+     * @param dir the instance directory
+     * @param installLog the install log
+     * @throws IOException on I/O error
+     */
+    public static void writeInstallLog(@NonNull File dir, @NonNull InstallLog installLog) throws IOException {
+        File file = new File(dir, INSTALL_LOG_FILE);
+        SortedMap<String, List<String>> groups = installLog.getSortedEntries();
+
+        AtomicFileByteSink.AtomicOutputStream stream = new AtomicFileByteSink(file).openStream();
+        try {
+            DataOutputStream out = openForWrite(stream, INSTALL_LOG_MAGIC);
+            writeVarInt(out, groups.size());
+            String group = "";
+            for (Map.Entry<String, List<String>> entry : groups.entrySet()) {
+                writePath(out, group, entry.getKey());
+                group = entry.getKey();
+
+                writeVarInt(out, entry.getValue().size());
+                String previous = group;
+                for (String path : entry.getValue()) {
+                    writePath(out, previous, path);
+                    previous = path;
+                }
+            }
+            out.flush();
+            stream.commit();
+        } finally {
+            stream.close();
+        }
+
+        // Only once the binary file is in place, as the old file is the fallback until then
+        new File(dir, INSTALL_LOG_LEGACY_FILE).delete();
+    }
+
+    /**
+     * Read the update cache of an instance.
+     *
+     * @param dir the instance directory
+     * @return the update cache, which is empty if there is none
+     */
+    public static UpdateCache readUpdateCache(@NonNull File dir) {
+        File file = new File(dir, UPDATE_CACHE_FILE);
+
+        if (file.exists()) {
+            try {
+                DataInputStream in = openForRead(file, UPDATE_CACHE_MAGIC);
+                try {
+                    UpdateCache cache = new UpdateCache();
+                    int count = readVarInt(in);
+                    String key = "";
+                    for (int i = 0; i < count; i++) {
+                        key = readPath(in, key);
+                        cache.getCache().put(key, readString(in));
+                    }
+                    return cache;
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to read " + file.getAbsolutePath(), e);
+            }
+        }
+
+        return Persistence.read(new File(dir, UPDATE_CACHE_LEGACY_FILE), UpdateCache.class);
+    }
+
+    /**
+     * Write the update cache of an instance.
+     *
+     * @param dir the instance directory
+     * @param cache the update cache
+     * @throws IOException on I/O error
+     */
+    public static void writeUpdateCache(@NonNull File dir, @NonNull UpdateCache cache) throws IOException {
+        File file = new File(dir, UPDATE_CACHE_FILE);
+        SortedMap<String, String> entries;
+        synchronized (cache) {
+            entries = new TreeMap<String, String>(cache.getCache());
+        }
+
+        AtomicFileByteSink.AtomicOutputStream stream = new AtomicFileByteSink(file).openStream();
+        try {
+            DataOutputStream out = openForWrite(stream, UPDATE_CACHE_MAGIC);
+            writeVarInt(out, entries.size());
+            String key = "";
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                writePath(out, key, entry.getKey());
+                key = entry.getKey();
+                writeString(out, entry.getValue());
+            }
+            out.flush();
+            stream.commit();
+        } finally {
+            stream.close();
+        }
+
+        new File(dir, UPDATE_CACHE_LEGACY_FILE).delete();
+    }
+
+    /**
+     * Delete the update cache of an instance, so that every file is checked
+     * on the next update.
+     *
+     * @param dir the instance directory
+     */
+    public static void deleteUpdateCache(@NonNull File dir) {
+        new File(dir, UPDATE_CACHE_FILE).delete();
+        new File(dir, UPDATE_CACHE_LEGACY_FILE).delete();
+    }
+
+    private static DataInputStream openForRead(File file, int magic) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != magic) {
+                throw new IOException("Not a recognized file");
+            }
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported format version " + version);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return in;
+    }
+
+    private static DataOutputStream openForWrite(OutputStream stream, int magic) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(magic);
+        out.writeByte(FORMAT_VERSION);
+        return out;
+    }
+
+    private static String readPath(DataInputStream in, String previous) throws IOException {
+        int shared = readVarInt(in);
+        if (shared > previous.length()) {
+            throw new IOException("Corrupt path prefix");
+        }
+        return previous.substring(0, shared) + readString(in);
+    }
+
+    private static void writePath(DataOutputStream out, String previous, String path) throws IOException {
+        int max = Math.min(previous.length(), path.length());
+        int shared = 0;
+        while (shared < max && previous.charAt(shared) == path.charAt(shared)) {
+            shared++;
+        }
+        // Don't split a surrogate pair between the prefix and the suffix
+        if (shared > 0 && Character.isHighSurrogate(path.charAt(shared - 1))) {
+            shared--;
+        }
+        writeVarInt(out, shared);
+        writeString(out, path.substring(shared));
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return new String(data, Charsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] data = value.getBytes(Charsets.UTF_8);
+        writeVarInt(out, data.length);
+        out.write(data);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IOException("Corrupt length");
+                }
+                return value;
+            }
+        }
+        throw new IOException("Corrupt length");
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+}
@@ -12,10 +12,7 @@ import lombok.NonNull;
 
 import java.io.File;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -74,6 +71,59 @@ public class InstallLog {
         return entries.containsKey(group);
     }
 
+    /**
+     * Get a copy of the entries with groups and their paths in sorted order.
+     *
+     * @return the sorted entries
+     */
+    public synchronized SortedMap<String, List<String>> getSortedEntries() {
+        SortedMap<String, List<String>> sorted = new TreeMap<String, List<String>>();
+        for (Map.Entry<String, Set<String>> entry : entries.entrySet()) {
+            List<String> paths = new ArrayList<String>(entry.getValue());
+            Collections.sort(paths);
+            sorted.put(entry.getKey(), paths);
+        }
+        return sorted;
+    }
+
+    /**
+     * Get every path in the log, in sorted order and without duplicates.
+     *
+     * @return a list of paths
+     */
+    public synchronized List<String> getSortedPaths() {
+        SortedSet<String> paths = new TreeSet<String>();
+        for (Set<String> group : entries.values()) {
+            paths.addAll(group);
+        }
+        return new ArrayList<String>(paths);
+    }
+
+    /**
+     * Get the paths in this log that are not in another, by walking both
+     * sorted lists of paths together.
+     *
+     * @param other the other log
+     * @return a list of paths
+     */
+    public List<String> getPathsNotIn(@NonNull InstallLog other) {
+        List<String> ours = getSortedPaths();
+        List<String> theirs = other.getSortedPaths();
+        List<String> missing = new ArrayList<String>();
+
+        int j = 0;
+        for (String path : ours) {
+            while (j < theirs.size() && theirs.get(j).compareTo(path) < 0) {
+                j++;
+            }
+            if (j == theirs.size() || !theirs.get(j).equals(path)) {
+                missing.add(path);
+            }
+        }
+
+        return missing;
+    }
+
     private String relativize(File child) {
         checkNotNull(baseDir);
         URI uri = child.toURI();
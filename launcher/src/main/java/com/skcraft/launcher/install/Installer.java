@@ -6,7 +6,8 @@
 
 package com.skcraft.launcher.install;
 
-import com.skcraft.concurrency.ProgressObservable;
+import com.skcraft.concurrency.ProgressBus;
+import com.skcraft.concurrency.ProgressSource;
 import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.util.SharedLocale;
 import lombok.Getter;
@@ -23,15 +24,16 @@ import static com.skcraft.launcher.LauncherUtils.checkInterrupted;
 import static com.skcraft.launcher.util.SharedLocale.tr;
 
 @Log
-public class Installer implements ProgressObservable {
+public class Installer implements ProgressSource {
 
     @Getter private final File tempDir;
     private final HttpDownloader downloader;
+    @Getter private final ProgressBus progressBus = new ProgressBus(this);
 
     private TaskQueue mainQueue = new TaskQueue();
     private TaskQueue lateQueue = new TaskQueue();
 
-    private transient TaskQueue activeQueue;
+    private transient volatile TaskQueue activeQueue;
 
     public Installer(@NonNull File tempDir) {
         this.tempDir = tempDir;
@@ -50,15 +52,30 @@ public class Installer implements ProgressObservable {
         downloader.execute();
     }
 
+    /**
+     * Start downloading files as soon as they are queued, rather than when
+     * {@link #download()} is called.
+     */
+    public void startDownloads() {
+        downloader.start();
+    }
+
+    /**
+     * Stop any downloads that are still running.
+     */
+    public void cancelDownloads() {
+        downloader.cancel();
+    }
+
     public synchronized void execute(Launcher launcher) throws Exception {
         activeQueue = mainQueue;
-        mainQueue.execute(launcher);
+        mainQueue.execute(launcher, progressBus);
         activeQueue = null;
     }
 
     public synchronized void executeLate(Launcher launcher) throws Exception {
         activeQueue = lateQueue;
-        lateQueue.execute(launcher);
+        lateQueue.execute(launcher, progressBus);
         activeQueue = null;
     }
 
@@ -91,26 +108,28 @@ public class Installer implements ProgressObservable {
         private List<InstallTask> queue = new ArrayList<InstallTask>();
 
         private int count = 0;
-        private int finished = 0;
-        private InstallTask running;
+        private volatile int finished = 0;
+        private volatile InstallTask running;
 
         public synchronized void queue(@NonNull InstallTask runnable) {
             queue.add(runnable);
             count++;
         }
 
-        public synchronized void execute(Launcher launcher) throws Exception {
+        public synchronized void execute(Launcher launcher, ProgressBus progressBus) throws Exception {
             queue = Collections.unmodifiableList(queue);
 
             try {
                 for (InstallTask runnable : queue) {
                     checkInterrupted();
                     running = runnable;
+                    progressBus.changed();
                     runnable.execute(launcher);
                     finished++;
                 }
             } finally {
                 running = null;
+                progressBus.changed();
             }
         }
     }
@@ -0,0 +1,90 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.install;
+
+import com.skcraft.launcher.Launcher;
+import com.skcraft.launcher.model.loader.LocalLoader;
+import com.skcraft.launcher.util.FileUtils;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static com.skcraft.launcher.util.SharedLocale.tr;
+
+/**
+ * Moves a pre-built processor output into the libraries directory after
+ * checking its hash. If the hash does not match, the file is left out and
+ * the processors of the loader are run instead.
+ *
+ * <p>An installed output is marked in the {@link UpdateCache} together with
+ * its size and modification time, so that later updates can tell that it is
+ * still in place without hashing it again.</p>
+ */
+@Log
+public class ProcessorOutputInstall implements InstallTask {
+
+    private final File from;
+    private final File to;
+    private final String hash;
+    private final LocalLoader loader;
+    private final UpdateCache cache;
+    private final String cacheKey;
+
+    public ProcessorOutputInstall(@NonNull File from, @NonNull File to, @NonNull String hash, @NonNull LocalLoader loader,
+                                  @NonNull UpdateCache cache, @NonNull String cacheKey) {
+        this.from = from;
+        this.to = to;
+        this.hash = hash;
+        this.loader = loader;
+        this.cache = cache;
+        this.cacheKey = cacheKey;
+    }
+
+    /**
+     * Get the version to mark an installed output with in the
+     * {@link UpdateCache}, which changes if the file is replaced.
+     *
+     * @param hash the hash of the output
+     * @param file the installed file
+     * @return the version
+     */
+    public static String getCacheVersion(@NonNull String hash, @NonNull File file) {
+        return hash + ":" + file.length() + ":" + file.lastModified();
+    }
+
+    @Override
+    public void execute(Launcher launcher) throws IOException {
+        String actualHash = FileUtils.getShaHash(from);
+        if (!actualHash.equals(hash)) {
+            log.warning("The pre-built " + to.getName() + " has the hash " + actualHash + " instead of " + hash +
+                    "; the loader's processors will be run instead");
+            loader.setProcessed(false);
+            from.delete();
+            return;
+        }
+
+        log.info("Installing the pre-built " + to.getAbsolutePath());
+        to.getParentFile().mkdirs();
+        Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        cache.mark(cacheKey, getCacheVersion(hash, to));
+    }
+
+    @Override
+    public double getProgress() {
+        return -1;
+    }
+
+    @Override
+    public String getStatus() {
+        return tr("installer.movingFile", from, to);
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.install;
+
+import com.google.common.collect.Lists;
+import com.skcraft.launcher.model.loader.InstallProcessor;
+import com.skcraft.launcher.model.loader.LoaderManifest;
+import com.skcraft.launcher.model.loader.LoaderSubResolver;
+import com.skcraft.launcher.model.loader.SidedData;
+import com.skcraft.launcher.model.minecraft.Library;
+import com.skcraft.launcher.util.Environment;
+import com.skcraft.launcher.util.FileUtils;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+
+/**
+ * Runs an install processor of a loader in this JVM and checks its outputs.
+ *
+ * <p>This is used by the launcher to run processors on install, and by the
+ * package builder to run them ahead of time.</p>
+ */
+@Log
+public class ProcessorRunner {
+	private final InstallProcessor processor;
+	private final LoaderManifest loaderManifest;
+	private final LoaderSubResolver resolver;
+	private final File librariesDir;
+
+	@Getter private volatile String message = "";
+	@Getter private volatile double progress = 0;
+
+	/**
+	 * Create a new runner.
+	 *
+	 * @param processor the processor
+	 * @param loaderManifest the manifest of the loader, with its paths set by {@link #setPaths}
+	 * @param resolver the resolver for the arguments of the processor
+	 * @param librariesDir the directory that the processor and its classpath are in
+	 */
+	public ProcessorRunner(@NonNull InstallProcessor processor, @NonNull LoaderManifest loaderManifest,
+						   @NonNull LoaderSubResolver resolver, @NonNull File librariesDir) {
+		this.processor = processor;
+		this.loaderManifest = loaderManifest;
+		this.resolver = resolver;
+		this.librariesDir = librariesDir;
+	}
+
+	/**
+	 * Set the paths that processors refer to in the data of a loader.
+	 *
+	 * @param loaderManifest the manifest of the loader
+	 * @param root the directory for the files of the installer
+	 * @param minecraftJar the game jar
+	 * @param librariesDir the libraries directory
+	 * @param minecraftVersion the game version
+	 */
+	public static void setPaths(LoaderManifest loaderManifest, File root, File minecraftJar, File librariesDir,
+								String minecraftVersion) {
+		Map<String, SidedData<String>> sidedData = loaderManifest.getSidedData();
+		sidedData.put("ROOT", SidedData.of(root.getAbsolutePath()));
+		sidedData.put("MINECRAFT_JAR", SidedData.of(minecraftJar.getAbsolutePath()));
+		sidedData.put("LIBRARY_DIR", SidedData.of(librariesDir.getAbsolutePath()));
+		sidedData.put("MINECRAFT_VERSION", SidedData.of(minecraftVersion));
+	}
+
+	/**
+	 * Run the processor.
+	 *
+	 * @throws Exception thrown if the processor fails or its outputs do not match
+	 */
+	public void run() throws Exception {
+		message = "Resolving parameters";
+		List<String> programArgs = processor.resolveArgs(resolver);
+		Map<String, String> outputs = processor.resolveOutputs(resolver);
+
+		message = "Finding libraries";
+		Library execFile = loaderManifest.findLibrary(processor.getJar());
+		File jar = getLibraryFile(execFile);
+
+		JarFile jarFile = new JarFile(jar);
+		String mainClass = jarFile.getManifest().getMainAttributes().getValue(Attributes.Name.MAIN_CLASS);
+		jarFile.close();
+
+		if (mainClass == null || mainClass.isEmpty()) {
+			throw new RuntimeException(String.format("Processor jar file '%s' has no main class!", processor.getJar()));
+		}
+
+		List<URL> classpath = Lists.newArrayList(jar.toURI().toURL());
+		int i = 0;
+		int total = processor.getClasspath().size();
+		for (String libraryName : processor.getClasspath()) {
+			message = "Adding library " + libraryName;
+			File libraryFile = getLibraryFile(loaderManifest.findLibrary(libraryName));
+			if (!libraryFile.exists()) {
+				throw new RuntimeException(String.format("Missing library '%s' for processor '%s'",
+						libraryName, processor.getJar()));
+			}
+
+			classpath.add(libraryFile.toURI().toURL());
+			i++;
+			progress = (double) i / total;
+		}
+
+		progress = 0.0;
+		message = "Executing";
+
+		log.info(String.format("Running processor '%s' with %d args", processor.getJar(), programArgs.size()));
+		log.info("Arguments: [" + String.join(", ", programArgs) + "]");
+
+		ClassLoader parent;
+		try {
+			// in java 9+ we need the platform classloader for access to certain modules
+			parent = (ClassLoader) ClassLoader.class.getDeclaredMethod("getPlatformClassLoader")
+					.invoke(null);
+		} catch (Throwable ignored) {
+			// java 8 or below it's a-ok to have no delegate
+			parent = null;
+		}
+
+		ClassLoader prev = Thread.currentThread().getContextClassLoader();
+		ClassLoader cl = new URLClassLoader(classpath.toArray(new URL[0]), parent);
+		try {
+			Class<?> mainClazz = Class.forName(mainClass, true, cl);
+			Method main = mainClazz.getDeclaredMethod("main", String[].class);
+
+			// engage spicy mode
+			Thread.currentThread().setContextClassLoader(cl);
+			main.invoke(null, (Object) programArgs.toArray(new String[0]));
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		} finally {
+			Thread.currentThread().setContextClassLoader(prev);
+		}
+
+		message = "Verifying";
+		progress = 1.0;
+
+		if (!outputs.isEmpty()) {
+			progress = 0.0;
+			i = 0;
+			total = outputs.size();
+			for (Map.Entry<String, String> output : outputs.entrySet()) {
+				File artifact = new File(output.getKey());
+
+				if (!artifact.exists()) {
+					throw new RuntimeException(String.format("Artifact '%s' missing", output.getKey()));
+				}
+
+				if (!FileUtils.getShaHash(artifact).equals(output.getValue())) {
+					log.warning("Invalid hash, expected " + output.getValue());
+					throw new RuntimeException(String.format("Artifact '%s' has invalid hash!", output.getKey()));
+				}
+
+				i++;
+				progress = (double) i / total;
+			}
+		}
+	}
+
+	private File getLibraryFile(Library library) {
+		return new File(librariesDir, library.getPath(Environment.getInstance()));
+	}
+}
@@ -17,6 +17,16 @@ public class UpdateCache {
 
     private Map<String, String> cache = new HashMap<String, String>();
 
+    /**
+     * Get the version last marked for the given key.
+     *
+     * @param key the key
+     * @return the version, or null if never marked
+     */
+    public synchronized String get(@NonNull String key) {
+        return cache.get(key);
+    }
+
     public synchronized boolean mark(@NonNull String key, @NonNull String version) {
         String current = cache.get(key);
         if (current != null && version.equals(current)) {
@@ -0,0 +1,269 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.skcraft.launcher.launch.runtime.JavaRuntime;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+
+/**
+ * Manages Application Class Data Sharing (AppCDS) archives for an instance.
+ *
+ * <p>The first launch with a given runtime and class path records the list
+ * of loaded classes. Once the game has exited, {@link #createArchive()} dumps
+ * those classes into a shared archive, which later launches with the same
+ * fingerprint map in at startup. The fingerprint covers the runtime, the
+ * class path and the flags that decide whether the JVM accepts an archive,
+ * such as the collector and whether compressed oops are used, and the
+ * archive is dumped with those same flags. Archives for any other
+ * fingerprint are deleted when any of these change.</p>
+ */
+@Log
+public class ClassDataSharing {
+
+    /**
+     * The first Java version where AppCDS is available without extra flags.
+     */
+    private static final int MIN_JAVA_VERSION = 11;
+
+    /**
+     * Flags that an archive must be dumped and used with alike.
+     */
+    private static final Pattern ARCHIVE_FLAG_PATTERN = Pattern.compile(
+            "^-XX:(?:[+-](?:Use\\w*GC|ZGenerational|UseCompressedOops|UseCompressedClassPointers)"
+                    + "|ObjectAlignmentInBytes=\\d+)$");
+
+    /**
+     * The maximum heap in megabytes from which the JVM no longer uses
+     * compressed oops.
+     */
+    private static final int COMPRESSED_OOPS_MAX_HEAP = 32768;
+
+    private final File dir;
+    private String fingerprint;
+    private String javaCommand;
+    private String classPath;
+    private List<String> archiveFlags;
+    private int maxMemory;
+    @Getter private boolean archivePending;
+
+    /**
+     * Create a new instance.
+     *
+     * @param dir the directory to store class lists and archives in
+     */
+    public ClassDataSharing(@NonNull File dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Check whether the given runtime is able to create and use AppCDS archives.
+     *
+     * @param runtime the runtime, possibly null
+     * @return true if supported
+     */
+    public static boolean isSupported(JavaRuntime runtime) {
+        return runtime != null && runtime.getVersion() != null && runtime.getMajorVersion() >= MIN_JAVA_VERSION;
+    }
+
+    /**
+     * Add the flags to either record a class list or use an existing archive.
+     *
+     * <p>This must be called once the runtime and class path of the builder
+     * are final.</p>
+     *
+     * @param builder the process builder
+     * @throws IOException on I/O error
+     */
+    public void configure(JavaProcessBuilder builder) throws IOException {
+        if (!isSupported(builder.getRuntime())) {
+            log.info("Class data sharing requested, but not supported by " + builder.getRuntime());
+            return;
+        }
+
+        archiveFlags = getArchiveFlags(builder);
+        maxMemory = builder.getMaxMemory();
+        fingerprint = createFingerprint(builder, archiveFlags);
+        javaCommand = builder.getJavaCommand();
+        classPath = builder.buildClassPath();
+
+        dir.mkdirs();
+        removeStale();
+
+        File archive = getArchiveFile();
+        File classList = getClassListFile();
+
+        if (archive.isFile()) {
+            log.info("Using class data sharing archive " + archive.getAbsolutePath());
+            builder.getFlags().add("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+            builder.getFlags().add("-Xshare:auto");
+        } else if (classList.isFile()) {
+            // Recorded before, but the dump failed or never ran, so try it again after this launch
+            log.info("Class list " + classList.getAbsolutePath() + " has no archive yet");
+            archivePending = true;
+        } else {
+            log.info("Recording class list to " + classList.getAbsolutePath());
+            builder.getFlags().add("-XX:DumpLoadedClassList=" + classList.getAbsolutePath());
+            archivePending = true;
+        }
+    }
+
+    /**
+     * Dump the recorded class list into a shared archive. This is to be
+     * called after the game process that recorded the list has exited.
+     */
+    public void createArchive() {
+        if (!archivePending) {
+            return;
+        }
+
+        archivePending = false;
+
+        File classList = getClassListFile();
+        File archive = getArchiveFile();
+        File tempArchive = new File(dir, fingerprint + ".jsa.tmp");
+
+        if (!classList.isFile()) {
+            log.warning("No class list was recorded at " + classList.getAbsolutePath());
+            return;
+        }
+
+        List<String> command = new ArrayList<String>();
+        command.add(javaCommand);
+        command.addAll(archiveFlags);
+        if (maxMemory > 0) {
+            command.add("-Xmx" + maxMemory + "M");
+        }
+        command.add("-Xshare:dump");
+        command.add("-XX:SharedClassListFile=" + classList.getAbsolutePath());
+        command.add("-XX:SharedArchiveFile=" + tempArchive.getAbsolutePath());
+        command.add("-cp");
+        command.add(classPath);
+
+        log.info("Creating class data sharing archive " + archive.getAbsolutePath() + "...");
+
+        try {
+            Process process = new ProcessBuilder(command)
+                    .directory(dir)
+                    .redirectErrorStream(true)
+                    .start();
+
+            InputStream is = process.getInputStream();
+            try {
+                ByteStreams.copy(is, ByteStreams.nullOutputStream());
+            } finally {
+                is.close();
+            }
+
+            int exitCode = process.waitFor();
+            if (exitCode != 0 || !tempArchive.isFile()) {
+                // The list may be what the dump failed on, so it is recorded again next time
+                log.warning("Class data sharing dump exited with code " + exitCode + "; archive not created");
+                tempArchive.delete();
+                classList.delete();
+                return;
+            }
+
+            archive.delete();
+            if (!tempArchive.renameTo(archive)) {
+                throw new IOException("Failed to rename " + tempArchive.getAbsolutePath() + " to " + archive.getAbsolutePath());
+            }
+
+            log.info("Class data sharing archive created at " + archive.getAbsolutePath());
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to create class data sharing archive", e);
+            tempArchive.delete();
+        } catch (InterruptedException e) {
+            tempArchive.delete();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private File getClassListFile() {
+        return new File(dir, fingerprint + ".classlist");
+    }
+
+    private File getArchiveFile() {
+        return new File(dir, fingerprint + ".jsa");
+    }
+
+    /**
+     * Delete class lists and archives that belong to another fingerprint.
+     */
+    private void removeStale() {
+        File[] files = dir.listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                if (!file.getName().startsWith(fingerprint + ".")) {
+                    log.info("Removing stale class data sharing file " + file.getAbsolutePath());
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the flags of the builder that an archive must be dumped with.
+     *
+     * @param builder the process builder
+     * @return the flags, in the order they were given
+     */
+    private static List<String> getArchiveFlags(JavaProcessBuilder builder) {
+        List<String> flags = new ArrayList<String>();
+        for (String flag : builder.getFlags()) {
+            if (ARCHIVE_FLAG_PATTERN.matcher(flag).matches()) {
+                flags.add(flag);
+            }
+        }
+        return flags;
+    }
+
+    /**
+     * Create a fingerprint from the runtime, the archive flags, whether the
+     * heap is small enough for compressed oops, and every entry on the class
+     * path, including their sizes and modification times.
+     *
+     * @param builder the process builder
+     * @param archiveFlags the flags from {@link #getArchiveFlags(JavaProcessBuilder)}
+     * @return the fingerprint
+     */
+    private static String createFingerprint(JavaProcessBuilder builder, List<String> archiveFlags) {
+        Hasher hasher = Hashing.sha1().newHasher();
+        JavaRuntime runtime = builder.getRuntime();
+
+        hasher.putString(runtime.getDir().getAbsolutePath(), Charsets.UTF_8);
+        hasher.putString(runtime.getVersion(), Charsets.UTF_8);
+
+        for (String flag : archiveFlags) {
+            hasher.putString(flag, Charsets.UTF_8);
+        }
+        hasher.putBoolean(builder.getMaxMemory() < COMPRESSED_OOPS_MAX_HEAP);
+
+        for (File file : builder.getClassPath()) {
+            hasher.putString(file.getAbsolutePath(), Charsets.UTF_8);
+            hasher.putLong(file.length());
+            hasher.putLong(file.lastModified());
+        }
+
+        return hasher.hash().toString();
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch;
+
+import com.skcraft.launcher.util.AhoCorasick;
+import com.skcraft.launcher.util.LineListener;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Parses game output line by line into log events and looks for
+ * {@link PerformanceSignal}s, adding both to a {@link LogSummary}.
+ *
+ * <p>Two log4j2 layouts are recognized: the pattern layout used by the game
+ * and Forge (<code>[time] [thread/LEVEL] [logger]: message</code>, where the
+ * logger is optional), and the XML layout that launchers may configure.
+ * Anything else is treated as part of the previous event, such as a stack
+ * trace. Lines are scanned by hand and signals are found with a single
+ * {@link AhoCorasick} automaton, so each line is only read a couple of
+ * times, however many patterns there are.</p>
+ *
+ * <p>Each stream needs its own parser, since XML events span lines, but
+ * parsers may share a summary.</p>
+ */
+public class GameLogParser implements LineListener {
+
+    /**
+     * Loading steps that take at least this long are listed in the summary.
+     */
+    private static final double SLOW_STEP_SECONDS = 5;
+
+    private static final AhoCorasick<PerformanceSignal> matcher;
+
+    static {
+        AhoCorasick.Builder<PerformanceSignal> builder = new AhoCorasick.Builder<PerformanceSignal>();
+        for (PerformanceSignal signal : PerformanceSignal.values()) {
+            for (String pattern : signal.getPatterns()) {
+                builder.add(pattern, signal);
+            }
+        }
+        matcher = builder.build();
+    }
+
+    @Getter private final LogSummary summary;
+    private final SignalListener signalListener = new SignalListener();
+
+    private boolean inXmlEvent;
+    private String xmlLevel;
+    private String xmlLogger;
+
+    /**
+     * Create a new parser.
+     *
+     * @param summary the summary to add to
+     */
+    public GameLogParser(@NonNull LogSummary summary) {
+        this.summary = summary;
+    }
+
+    @Override
+    public void lineRead(String line) {
+        summary.addLine();
+
+        if (inXmlEvent) {
+            if (line.contains("</log4j:Event>")) {
+                inXmlEvent = false;
+                summary.addEvent(xmlLevel, xmlLogger);
+            }
+        } else if (line.startsWith("<log4j:Event ")) {
+            inXmlEvent = !line.contains("</log4j:Event>");
+            xmlLevel = getAttribute(line, "level");
+            xmlLogger = getAttribute(line, "logger");
+            if (!inXmlEvent) {
+                summary.addEvent(xmlLevel, xmlLogger);
+            }
+        } else if (line.startsWith("[")) {
+            parsePatternLayout(line);
+        }
+
+        signalListener.line = line;
+        matcher.match(line, signalListener);
+    }
+
+    /**
+     * Parse <code>[time] [thread/LEVEL] [logger]: message</code> and
+     * <code>[time] [thread/LEVEL]: message</code>.
+     *
+     * @param line the line
+     */
+    private void parsePatternLayout(String line) {
+        int timeEnd = line.indexOf("] [");
+        if (timeEnd < 0) {
+            return;
+        }
+
+        int threadStart = timeEnd + 3;
+        int threadEnd = line.indexOf(']', threadStart);
+        if (threadEnd < 0) {
+            return;
+        }
+
+        int slash = line.lastIndexOf('/', threadEnd);
+        if (slash < threadStart) {
+            return;
+        }
+
+        String level = line.substring(slash + 1, threadEnd);
+        String logger = null;
+
+        if (line.startsWith(" [", threadEnd + 1)) {
+            int loggerStart = threadEnd + 3;
+            int loggerEnd = line.indexOf("]:", loggerStart);
+            if (loggerEnd > 0) {
+                logger = line.substring(loggerStart, loggerEnd);
+            }
+        }
+
+        summary.addEvent(level, logger);
+    }
+
+    private static String getAttribute(String line, String name) {
+        String key = name + "=\"";
+        int start = line.indexOf(key);
+        if (start < 0) {
+            return null;
+        }
+        start += key.length();
+        int end = line.indexOf('"', start);
+        return end > start ? line.substring(start, end) : null;
+    }
+
+    /**
+     * Parse the number that starts at the given index.
+     *
+     * @param text the text
+     * @param start the index to start at, after any spaces
+     * @return the number, or -1 if there is none
+     */
+    private static double parseNumber(String text, int start) {
+        while (start < text.length() && text.charAt(start) == ' ') {
+            start++;
+        }
+
+        int end = start;
+        while (end < text.length() && (Character.isDigit(text.charAt(end)) || text.charAt(end) == '.')) {
+            end++;
+        }
+
+        if (end == start) {
+            return -1;
+        }
+
+        try {
+            return Double.parseDouble(text.substring(start, end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private class SignalListener implements AhoCorasick.MatchListener<PerformanceSignal> {
+        private String line;
+
+        @Override
+        public void matched(PerformanceSignal signal, int end) {
+            switch (signal) {
+                case TICK_LAG:
+                    // Can't keep up! Is the server overloaded? Running 2003ms or 40 ticks behind
+                    int running = line.indexOf("Running ", end);
+                    double lag = running >= 0 ? parseNumber(line, running + 8) : -1;
+                    if (lag >= 0) {
+                        summary.addTickLag((long) lag);
+                    }
+                    break;
+                case SLOW_MOD_INIT:
+                    // Bar Finished: Loading took 12.345s
+                    int took = line.indexOf(" took ", end);
+                    double seconds = took >= 0 ? parseNumber(line, took + 6) : -1;
+                    if (seconds < SLOW_STEP_SECONDS) {
+                        return;
+                    }
+                    summary.addSlowModInit(line.substring(end).trim());
+                    break;
+                case CRASH_REPORT:
+                    summary.addCrashReport(line.substring(end).trim());
+                    break;
+                default:
+                    break;
+            }
+
+            summary.addSignal(signal);
+        }
+    }
+
+}
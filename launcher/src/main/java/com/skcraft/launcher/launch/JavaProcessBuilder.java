@@ -83,16 +83,25 @@ public class JavaProcessBuilder {
         return builder.toString();
     }
 
-    public List<String> buildCommand() throws IOException {
-        List<String> command = new ArrayList<String>();
-
+    /**
+     * Get the command used to invoke the Java executable of the runtime.
+     *
+     * @return the path to the Java executable, or "java" to use the PATH
+     * @throws IOException thrown if the configured runtime is missing
+     */
+    public String getJavaCommand() throws IOException {
         if (getRuntime() != null) {
             File javaBinary = new File(getJavaBinPath(), "java");
-            command.add(javaBinary.getAbsolutePath());
+            return javaBinary.getAbsolutePath();
         } else {
-            command.add("java");
+            return "java";
         }
+    }
+
+    public List<String> buildCommand() throws IOException {
+        List<String> command = new ArrayList<String>();
 
+        command.add(getJavaCommand());
         command.addAll(flags);
 
         if (minMemory > 0) {
@@ -0,0 +1,233 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch;
+
+import com.skcraft.launcher.launch.runtime.JavaRuntime;
+import com.skcraft.launcher.model.modpack.LaunchRequirements;
+import com.sun.management.OperatingSystemMXBean;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Picks garbage collector and heap flags for the game process from the
+ * selected {@link TuningProfile}, the runtime version, the number of cores,
+ * the physical memory and the pack's {@link LaunchRequirements}.
+ *
+ * <p>Shenandoah is not used because it is missing from some vendors' builds
+ * and there is no way to tell without starting the runtime.</p>
+ */
+@Log
+public class JvmTuner {
+
+    private static final Pattern GC_SELECTION_PATTERN = Pattern.compile("^-XX:\\+Use\\w*GC$");
+    /**
+     * The share of physical memory that the heap may be raised to, leaving
+     * the rest for the operating system and the game's native allocations.
+     */
+    private static final int MAX_HEAP_PERCENT = 75;
+
+    @Getter private final TuningProfile profile;
+    private final int javaVersion;
+    private final int cores;
+    private final long physicalMemory;
+    private final LaunchRequirements requirements;
+
+    /**
+     * Create a new tuner for the current machine.
+     *
+     * @param profile the profile selected by the user
+     * @param runtime the runtime that will be launched, or null if unknown
+     * @param requirements the pack's declared needs, or null
+     */
+    public JvmTuner(@NonNull TuningProfile profile, JavaRuntime runtime, LaunchRequirements requirements) {
+        this(profile,
+                runtime != null && runtime.getVersion() != null ? runtime.getMajorVersion() : 8,
+                Runtime.getRuntime().availableProcessors(),
+                requirements);
+    }
+
+    /**
+     * Create a new tuner for the physical memory of the current machine.
+     *
+     * @param profile the profile selected by the user
+     * @param javaVersion the major version of the runtime
+     * @param cores the number of available cores
+     * @param requirements the pack's declared needs, or null
+     */
+    public JvmTuner(@NonNull TuningProfile profile, int javaVersion, int cores, LaunchRequirements requirements) {
+        this(profile, javaVersion, cores, detectPhysicalMemory(), requirements);
+    }
+
+    /**
+     * Create a new tuner.
+     *
+     * @param profile the profile selected by the user
+     * @param javaVersion the major version of the runtime
+     * @param cores the number of available cores
+     * @param physicalMemory the physical memory in megabytes, or 0 if unknown
+     * @param requirements the pack's declared needs, or null
+     */
+    public JvmTuner(@NonNull TuningProfile profile, int javaVersion, int cores, long physicalMemory,
+                    LaunchRequirements requirements) {
+        this.javaVersion = javaVersion;
+        this.cores = Math.max(1, cores);
+        this.physicalMemory = physicalMemory;
+        this.requirements = requirements != null ? requirements : new LaunchRequirements();
+        this.profile = resolve(profile);
+    }
+
+    private TuningProfile resolve(TuningProfile profile) {
+        if (profile != TuningProfile.AUTO) {
+            return profile;
+        }
+
+        if (requirements.isLowLatency() && javaVersion >= 17 && cores >= 4) {
+            return TuningProfile.LOW_LATENCY;
+        }
+
+        return TuningProfile.BALANCED;
+    }
+
+    /**
+     * Apply heap sizing and collector flags to the builder.
+     *
+     * <p>Collector flags are skipped if the user has already selected a
+     * collector, because the JVM refuses to start with two of them.</p>
+     *
+     * @param builder the process builder
+     * @param userFlags flags the user or the pack supplied
+     */
+    public void apply(JavaProcessBuilder builder, List<String> userFlags) {
+        if (profile == TuningProfile.NONE) {
+            return;
+        }
+
+        applyHeapSize(builder);
+
+        for (String flag : userFlags) {
+            if (GC_SELECTION_PATTERN.matcher(flag).matches()) {
+                log.info("Garbage collector already chosen with " + flag + "; skipping " + profile + " collector flags");
+                return;
+            }
+        }
+
+        List<String> flags = builder.getFlags();
+        int parallelThreads = getParallelGCThreads();
+        int concurrentThreads = Math.max(1, (parallelThreads + 2) / 4);
+
+        if (profile == TuningProfile.LOW_LATENCY && javaVersion >= 15) {
+            flags.add("-XX:+UseZGC");
+            if (javaVersion >= 21 && javaVersion < 23) {
+                flags.add("-XX:+ZGenerational");
+            }
+        } else {
+            int pauseTarget = profile == TuningProfile.LOW_LATENCY ? 30 : 100;
+            flags.add("-XX:+UseG1GC");
+            flags.add("-XX:MaxGCPauseMillis=" + pauseTarget);
+            flags.add("-XX:G1HeapRegionSize=" + getRegionSize(builder.getMaxMemory()) + "M");
+            flags.add("-XX:+ParallelRefProcEnabled");
+        }
+
+        flags.add("-XX:ParallelGCThreads=" + parallelThreads);
+        flags.add("-XX:ConcGCThreads=" + concurrentThreads);
+
+        // G1 has had string deduplication since 8u20, ZGC since 18
+        boolean zgc = profile == TuningProfile.LOW_LATENCY && javaVersion >= 15;
+        if (requirements.isAllocationHeavy() && (!zgc || javaVersion >= 18)) {
+            flags.add("-XX:+UseStringDeduplication");
+        }
+
+        log.info("Applied " + profile + " JVM tuning for Java " + javaVersion + " with " + cores + " core(s)");
+    }
+
+    /**
+     * Raise the maximum heap to the least that the pack needs to run at all,
+     * but not past {@link #MAX_HEAP_PERCENT} of the physical memory. The
+     * user's choice is otherwise left alone, even if it is below what the
+     * pack recommends.
+     *
+     * @param builder the process builder
+     */
+    private void applyHeapSize(JavaProcessBuilder builder) {
+        int maxMemory = builder.getMaxMemory();
+        int minMemory = requirements.getMinMemory();
+        int recommended = requirements.getRecommendedMemory();
+
+        if (minMemory > maxMemory) {
+            int raised = minMemory;
+            if (physicalMemory > 0) {
+                int limit = (int) Math.min(Integer.MAX_VALUE, physicalMemory * MAX_HEAP_PERCENT / 100);
+                if (raised > limit) {
+                    log.warning("The pack needs " + minMemory + " MB of maximum memory to run, but only " + limit +
+                            " MB of the " + physicalMemory + " MB of physical memory can be given to the game");
+                    raised = Math.max(maxMemory, limit);
+                }
+            }
+
+            if (raised > maxMemory) {
+                log.warning("The maximum memory of " + maxMemory + " MB is below the " + minMemory +
+                        " MB that the pack needs to run, so it is raised to " + raised + " MB for this launch");
+                builder.setMaxMemory(raised);
+            }
+        } else if (recommended > maxMemory) {
+            log.info("The pack recommends " + recommended + " MB of maximum memory, but " + maxMemory +
+                    " MB was chosen and is used");
+        }
+    }
+
+    /**
+     * Get the number of parallel GC threads, leaving room for the game's
+     * render and server threads on machines with enough cores.
+     *
+     * @return the number of threads
+     */
+    private int getParallelGCThreads() {
+        // Same formula as HotSpot's default
+        int threads = cores <= 8 ? cores : 8 + (cores - 8) * 5 / 8;
+        int reserved = cores >= 8 ? 2 : cores >= 4 ? 1 : 0;
+        return Math.max(1, Math.min(threads, cores - reserved));
+    }
+
+    /**
+     * Get the total physical memory of this machine.
+     *
+     * @return the memory in megabytes, or 0 if unknown
+     */
+    private static long detectPhysicalMemory() {
+        try {
+            OperatingSystemMXBean bean = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            return bean.getTotalPhysicalMemorySize() / 1024 / 1024;
+        } catch (Exception ignored) {
+            return 0;
+        }
+    }
+
+    /**
+     * Get a G1 region size large enough that chunk and texture arrays in
+     * big modded heaps do not become humongous allocations.
+     *
+     * @param maxMemory the maximum heap in megabytes
+     * @return the region size in megabytes
+     */
+    private static int getRegionSize(int maxMemory) {
+        if (maxMemory >= 16384) {
+            return 32;
+        } else if (maxMemory >= 8192) {
+            return 16;
+        } else if (maxMemory >= 4096) {
+            return 8;
+        } else {
+            return 4;
+        }
+    }
+
+}
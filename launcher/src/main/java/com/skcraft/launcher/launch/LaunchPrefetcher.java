@@ -0,0 +1,285 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.skcraft.launcher.AssetsRoot;
+import com.skcraft.launcher.Instance;
+import com.skcraft.launcher.Launcher;
+import com.skcraft.launcher.model.minecraft.Asset;
+import com.skcraft.launcher.model.minecraft.AssetsIndex;
+import com.skcraft.launcher.model.minecraft.Library;
+import com.skcraft.launcher.model.minecraft.VersionManifest;
+import com.skcraft.launcher.util.Environment;
+import com.skcraft.launcher.util.JsonCodec;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Reads the files an instance needs at startup into the OS page cache while
+ * the user is still logging in or the update check is running.
+ *
+ * <p>On cold starts, especially from hard disks, class loading is bound by
+ * seeks. Reading the class path, natives and frequently used assets ahead of
+ * time on a small pool of low-priority threads overlaps that I/O with user
+ * interaction. The parsed version manifest and assets index are kept so that
+ * {@link Runner} does not have to read them again, as long as the files have
+ * not been changed since (such as by an update).</p>
+ */
+@Log
+public class LaunchPrefetcher {
+
+    private static final int THREAD_COUNT = 4;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final long MAX_PREFETCH_BYTES = 1024L * 1024 * 1024;
+    private static final String[] HOT_ASSET_PREFIXES = {
+            "icons/",
+            "minecraft/font/",
+            "minecraft/lang/en_us",
+            "minecraft/sounds.json",
+            "minecraft/textures/gui/title/",
+            "pack.mcmeta"
+    };
+
+    private static final ThreadLocal<ByteBuffer> buffers = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    };
+
+    private final Launcher launcher;
+    private final Instance instance;
+    private final Environment environment = Environment.getInstance();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private ExecutorService executor;
+
+    private volatile Resolved<VersionManifest> versionManifest;
+    private volatile Resolved<AssetsIndex> assetsIndex;
+
+    /**
+     * Create a new prefetcher.
+     *
+     * @param launcher the launcher
+     * @param instance the instance about to be launched
+     */
+    public LaunchPrefetcher(@NonNull Launcher launcher, @NonNull Instance instance) {
+        this.launcher = launcher;
+        this.instance = instance;
+    }
+
+    /**
+     * Start resolving and reading files in the background.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+
+        executor = Executors.newFixedThreadPool(THREAD_COUNT, new ThreadFactoryBuilder()
+                .setNameFormat("Launch prefetch %d")
+                .setPriority(Thread.MIN_PRIORITY)
+                .setDaemon(true)
+                .build());
+
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    prefetch();
+                } catch (Throwable t) {
+                    log.log(Level.FINE, "Prefetch of " + instance.getName() + " failed", t);
+                } finally {
+                    executor.shutdown();
+                }
+            }
+        });
+    }
+
+    /**
+     * Stop any outstanding reads.
+     */
+    public synchronized void cancel() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the version manifest if it was resolved and is still current.
+     *
+     * @return the version manifest, or null
+     */
+    public VersionManifest getVersionManifest() {
+        return Resolved.getIfCurrent(versionManifest);
+    }
+
+    /**
+     * Get the assets index if it was resolved from the given file and is
+     * still current.
+     *
+     * @param indexPath the path to the index
+     * @return the assets index, or null
+     */
+    public AssetsIndex getAssetsIndex(File indexPath) {
+        Resolved<AssetsIndex> resolved = assetsIndex;
+        if (resolved != null && resolved.file.equals(indexPath)) {
+            return Resolved.getIfCurrent(resolved);
+        }
+
+        return null;
+    }
+
+    private void prefetch() throws IOException {
+        if (!instance.isInstalled()) {
+            return;
+        }
+
+        File versionPath = instance.getVersionPath();
+        long versionModified = versionPath.lastModified();
+        VersionManifest manifest = JsonCodec.read(versionPath, VersionManifest.class);
+        versionManifest = new Resolved<VersionManifest>(manifest, versionPath, versionModified);
+
+        // Class path and natives first, since class loading waits on them
+        List<File> files = new ArrayList<File>();
+        for (Library library : manifest.getLibraries()) {
+            if (library.matches(environment)) {
+                files.add(new File(launcher.getLibrariesDir(), library.getPath(environment)));
+            }
+        }
+
+        File customJar = instance.getCustomJarPath();
+        files.add(customJar.exists() ? customJar : launcher.getJarPath(manifest));
+
+        File[] mods = new File(instance.getContentDir(), "mods").listFiles();
+        if (mods != null) {
+            for (File mod : mods) {
+                if (mod.isFile()) {
+                    files.add(mod);
+                }
+            }
+        }
+
+        queue(files);
+
+        AssetsRoot assetsRoot = launcher.getAssets();
+        File indexPath = assetsRoot.getIndexPath(manifest);
+        long indexModified = indexPath.lastModified();
+        AssetsIndex index = JsonCodec.read(indexPath, AssetsIndex.class);
+        assetsIndex = new Resolved<AssetsIndex>(index, indexPath, indexModified);
+
+        List<File> assets = new ArrayList<File>();
+        if (index.getObjects() != null) {
+            for (Map.Entry<String, Asset> entry : index.getObjects().entrySet()) {
+                if (isHotAsset(entry.getKey())) {
+                    assets.add(assetsRoot.getObjectPath(entry.getValue()));
+                }
+            }
+        }
+
+        queue(assets);
+    }
+
+    private void queue(List<File> files) {
+        for (final File file : files) {
+            long length = file.length();
+            if (length == 0) {
+                continue;
+            }
+
+            if (queuedBytes.addAndGet(length) > MAX_PREFETCH_BYTES) {
+                log.info("Prefetch budget reached for " + instance.getName());
+                return;
+            }
+
+            try {
+                executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        read(file);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                return; // Cancelled
+            }
+        }
+    }
+
+    private static boolean isHotAsset(String name) {
+        for (String prefix : HOT_ASSET_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void read(File file) {
+        ByteBuffer buffer = buffers.get();
+        FileInputStream fis = null;
+
+        try {
+            fis = new FileInputStream(file);
+            FileChannel channel = fis.getChannel();
+
+            while (!Thread.currentThread().isInterrupted()) {
+                buffer.clear();
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.log(Level.FINE, "Failed to prefetch " + file.getAbsolutePath(), e);
+        } finally {
+            if (fis != null) {
+                try {
+                    fis.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * A parsed file along with the modification time it was parsed at.
+     */
+    private static class Resolved<V> {
+        private final V value;
+        private final File file;
+        private final long lastModified;
+
+        private Resolved(V value, File file, long lastModified) {
+            this.value = value;
+            this.file = file;
+            this.lastModified = lastModified;
+        }
+
+        private static <V> V getIfCurrent(Resolved<V> resolved) {
+            if (resolved != null && resolved.lastModified != 0 && resolved.file.lastModified() == resolved.lastModified) {
+                return resolved.value;
+            }
+
+            return null;
+        }
+    }
+
+}
@@ -10,12 +10,20 @@ import com.google.common.base.Function;
 import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.dialog.LauncherFrame;
 import com.skcraft.launcher.dialog.ProcessConsoleFrame;
+import com.skcraft.launcher.persistence.Persistence;
 import com.skcraft.launcher.swing.MessageLog;
+import com.skcraft.launcher.util.LogSpool;
 import lombok.NonNull;
 import lombok.extern.java.Log;
 
 import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.logging.Level;
 
 /**
@@ -25,37 +33,72 @@ import java.util.logging.Level;
 public class LaunchProcessHandler implements Function<Process, ProcessConsoleFrame> {
 
     private static final int CONSOLE_NUM_LINES = 10000;
+    private static final long READER_DRAIN_TIMEOUT = 10000;
 
     private final Launcher launcher;
+    private final Runner runner;
     private ProcessConsoleFrame consoleFrame;
 
-    public LaunchProcessHandler(@NonNull Launcher launcher) {
+    public LaunchProcessHandler(@NonNull Launcher launcher, @NonNull Runner runner) {
         this.launcher = launcher;
+        this.runner = runner;
     }
 
     @Override
     public ProcessConsoleFrame apply(final Process process) {
         log.info("Watching process " + process);
 
+        final ProcessTelemetry telemetry = ProcessTelemetry.isPlatformSupported()
+                ? new ProcessTelemetry(process, runner.getGcLogFile()) : null;
+        final LogSpool spool = new LogSpool(new File(runner.getInstance().getDir(), "logs/console"));
+        spool.setEcho(System.out);
+        final LogSummary logSummary = new LogSummary();
+        final List<Thread> readers = new ArrayList<Thread>();
+
         try {
             SwingUtilities.invokeAndWait(new Runnable() {
                 @Override
                 public void run() {
                     consoleFrame = new ProcessConsoleFrame(CONSOLE_NUM_LINES, true);
                     consoleFrame.setProcess(process);
+                    if (telemetry != null && telemetry.isSupported()) {
+                        consoleFrame.setTelemetry(telemetry);
+                    }
                     consoleFrame.setVisible(true);
                     MessageLog messageLog = consoleFrame.getMessageLog();
-                    messageLog.consume(process.getInputStream());
-                    messageLog.consume(process.getErrorStream());
+                    messageLog.setSpool(spool);
+                    readers.add(messageLog.consume(process.getInputStream(), new GameLogParser(logSummary)));
+                    readers.add(messageLog.consume(process.getErrorStream(), new GameLogParser(logSummary)));
                 }
             });
 
+            if (telemetry != null) {
+                telemetry.start();
+            }
+
             // Wait for the process to end
             process.waitFor();
+
+            // The readers may still be draining the pipes, which hold the last output before a crash
+            for (Thread reader : readers) {
+                reader.join(READER_DRAIN_TIMEOUT);
+                if (reader.isAlive()) {
+                    log.warning("The game output was not fully read, as the pipe was left open by another process");
+                }
+            }
         } catch (InterruptedException e) {
             // Orphan process
         } catch (InvocationTargetException e) {
             log.log(Level.WARNING, "Unexpected failure", e);
+        } finally {
+            spool.close();
+            SessionSummary summary = new SessionSummary();
+            summary.setLog(logSummary);
+            if (telemetry != null && telemetry.isStarted()) {
+                telemetry.stop();
+                summary.setResources(telemetry.getSummary());
+            }
+            writeSummary(summary);
         }
 
         log.info("Process ended, re-showing launcher...");
@@ -74,4 +117,16 @@ public class LaunchProcessHandler implements Function<Process, ProcessConsoleFra
         return consoleFrame;
     }
 
+    private void writeSummary(SessionSummary summary) {
+        String name = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date()) + ".json";
+        File file = new File(runner.getInstance().getDir(), "sessions/" + name);
+
+        try {
+            Persistence.write(file, summary, Persistence.L2F_LIST_PRETTY_PRINTER);
+            log.info("Session summary written to " + file.getAbsolutePath());
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to write session summary to " + file.getAbsolutePath(), e);
+        }
+    }
+
 }
@@ -64,6 +64,10 @@ public class LaunchSupervisor {
             instance.setLastAccessed(now);
             Persistence.commitAndForget(instance);
 
+            // Read the game's files into the page cache while the user logs in and updates run
+            final LaunchPrefetcher prefetcher = new LaunchPrefetcher(launcher, instance);
+            prefetcher.start();
+
             // Perform login
             final Session session;
             if (options.getSession() != null) {
@@ -71,6 +75,7 @@ public class LaunchSupervisor {
             } else {
                 session = AccountSelectDialog.showAccountRequest(window, launcher);
                 if (session == null) {
+                    prefetcher.cancel();
                     return;
                 }
             }
@@ -108,26 +113,29 @@ public class LaunchSupervisor {
                 Futures.addCallback(future, new FutureCallback<Instance>() {
                     @Override
                     public void onSuccess(Instance result) {
-                        launch(window, instance, session, listener);
+                        launch(window, instance, session, listener, prefetcher);
                     }
 
                     @Override
                     public void onFailure(Throwable t) {
+                        prefetcher.cancel();
                     }
                 }, SwingExecutor.INSTANCE);
             } else {
-                launch(window, instance, session, listener);
+                launch(window, instance, session, listener, prefetcher);
             }
         } catch (ArrayIndexOutOfBoundsException e) {
             SwingHelper.showErrorDialog(window, SharedLocale.tr("launcher.noInstanceError"), SharedLocale.tr("launcher.noInstanceTitle"));
         }
     }
 
-    private void launch(Window window, Instance instance, Session session, final LaunchListener listener) {
+    private void launch(Window window, Instance instance, Session session, final LaunchListener listener,
+                        LaunchPrefetcher prefetcher) {
         final File extractDir = launcher.createExtractDir();
 
         // Get the process
         Runner task = new Runner(launcher, instance, session, extractDir, new RuntimeVerifier(instance));
+        task.setPrefetcher(prefetcher);
         ObservableFuture<Process> processFuture = new ObservableFuture<Process>(
                 launcher.getExecutor().submit(task), task);
 
@@ -149,7 +157,7 @@ public class LaunchSupervisor {
 
         // Watch the created process
         ListenableFuture<ProcessConsoleFrame> future = Futures.transform(
-                processFuture, new LaunchProcessHandler(launcher), launcher.getExecutor());
+                processFuture, new LaunchProcessHandler(launcher, task), launcher.getExecutor());
         SwingHelper.addErrorDialogCallback(null, future);
 
         // Clean up at the very end
@@ -162,6 +170,14 @@ public class LaunchSupervisor {
             }
         }, sameThreadExecutor());
 
+        // Build the class data sharing archive once the class list has been recorded
+        future.addListener(() -> {
+            ClassDataSharing classDataSharing = task.getClassDataSharing();
+            if (classDataSharing != null && classDataSharing.isArchivePending()) {
+                launcher.getScheduler().getCpu().submit(classDataSharing::createArchive);
+            }
+        }, sameThreadExecutor());
+
         // Hook up launch listener
         Futures.addCallback(future, new FutureCallback<ProcessConsoleFrame>() {
             @Override
@@ -0,0 +1,81 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts of log events and performance signals seen in one game session.
+ * Times are in milliseconds.
+ */
+@Data
+public class LogSummary {
+
+    private static final int MAX_LOGGERS = 100;
+    private static final int MAX_ENTRIES = 20;
+
+    private long lines;
+    private long events;
+    private Map<String, Long> levels = new TreeMap<String, Long>();
+    private Map<String, Long> warningsByLogger = new TreeMap<String, Long>();
+    private Map<PerformanceSignal, Long> signals = new EnumMap<PerformanceSignal, Long>(PerformanceSignal.class);
+    private long tickLagTotal;
+    private long tickLagMax;
+    private List<String> slowModInit = new ArrayList<String>();
+    private List<String> crashReports = new ArrayList<String>();
+
+    synchronized void addLine() {
+        lines++;
+    }
+
+    synchronized void addEvent(String level, String logger) {
+        if (level == null) {
+            level = "UNKNOWN";
+        }
+
+        events++;
+        increment(levels, level);
+        if ((level.startsWith("WARN") || level.equals("ERROR") || level.equals("FATAL"))
+                && logger != null && (warningsByLogger.size() < MAX_LOGGERS || warningsByLogger.containsKey(logger))) {
+            increment(warningsByLogger, logger);
+        }
+    }
+
+    synchronized void addSignal(PerformanceSignal signal) {
+        Long count = signals.get(signal);
+        signals.put(signal, count != null ? count + 1 : 1);
+    }
+
+    synchronized void addTickLag(long lag) {
+        tickLagTotal += lag;
+        tickLagMax = Math.max(tickLagMax, lag);
+    }
+
+    synchronized void addSlowModInit(String entry) {
+        if (slowModInit.size() < MAX_ENTRIES) {
+            slowModInit.add(entry);
+        }
+    }
+
+    synchronized void addCrashReport(String path) {
+        if (crashReports.size() < MAX_ENTRIES && !crashReports.contains(path)) {
+            crashReports.add(path);
+        }
+    }
+
+    private static void increment(Map<String, Long> map, String key) {
+        Long count = map.get(key);
+        map.put(key, count != null ? count + 1 : 1);
+    }
+
+}
@@ -16,4 +16,9 @@ public class MemorySettings {
 	 * Maximum memory in megabytes.
 	 */
 	private int maxMemory;
+
+	/**
+	 * Garbage collector and heap tuning profile, or null to use the launcher's.
+	 */
+	private TuningProfile tuningProfile;
 }
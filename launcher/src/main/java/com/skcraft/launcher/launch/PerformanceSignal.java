@@ -0,0 +1,43 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Log messages that indicate a performance problem or a crash.
+ */
+public enum PerformanceSignal {
+
+    TICK_LAG("Can't keep up!"),
+    SERVER_WATCHDOG("A single server tick took"),
+    OUT_OF_MEMORY("java.lang.OutOfMemoryError"),
+    SLOW_CHUNK("Slow chunk", "Long chunk", "chunk generation took"),
+    SLOW_MOD_INIT("Bar Finished: "),
+    CRASH_REPORT("Crash report saved to: ", "This crash report has been saved to: ");
+
+    private final String[] patterns;
+
+    PerformanceSignal(String... patterns) {
+        this.patterns = patterns;
+    }
+
+    /**
+     * Get the strings that identify this signal.
+     *
+     * @return the patterns
+     */
+    public String[] getPatterns() {
+        return patterns.clone();
+    }
+
+    @JsonValue
+    public String toJson() {
+        return name().toLowerCase();
+    }
+
+}
@@ -0,0 +1,371 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.skcraft.launcher.util.Environment;
+import com.skcraft.launcher.util.Platform;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Samples resource usage of the game process from <code>/proc/&lt;pid&gt;</code>
+ * and follows its unified GC log, on a low-frequency schedule.
+ *
+ * <p>Samples are passed to listeners as they are taken, and a summary of
+ * the whole session is available once the process has ended. Sampling is
+ * only available on Linux.</p>
+ */
+@Log
+public class ProcessTelemetry {
+
+    /**
+     * Interval between samples in seconds.
+     */
+    public static final int SAMPLE_INTERVAL = 2;
+
+    // Linux reports CPU times in USER_HZ, which is 100 on all mainstream architectures
+    private static final double CLOCK_TICKS_PER_SECOND = 100.0;
+    // G1 and Shenandoah log pauses to gc, ZGC to gc+phases, with a "Y:" or "O:" generation if generational
+    private static final Pattern GC_PAUSE_PATTERN =
+            Pattern.compile("GC\\(\\d+\\) (?:[YO]: )?Pause\\b.*?([\\d.]+)ms\\s*$");
+    // G1 logs "24M->4M(256M)" on its pause lines, ZGC "102M(1%)->24M(0%)" on its collection lines
+    private static final Pattern GC_HEAP_PATTERN =
+            Pattern.compile("GC\\(\\d+\\) (?:Pause|Garbage Collection|Major Collection|Minor Collection)\\b"
+                    + ".*? \\d+M(?:\\(\\d+%\\))?->(\\d+)M\\((\\d+)(M|%)\\)");
+
+    private final long pid;
+    private final File procDir;
+    private final File gcLogFile;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+    private final Summary summary = new Summary();
+    private ScheduledExecutorService scheduler;
+
+    private long lastSampleTime;
+    private long lastCpuTicks = -1;
+    private long gcLogPosition;
+    private double cpuTotal;
+    private int cpuSamples;
+
+    /**
+     * Create a new instance.
+     *
+     * @param process the game process
+     * @param gcLogFile the unified GC log written by the process, or null
+     */
+    public ProcessTelemetry(@NonNull Process process, File gcLogFile) {
+        this.pid = getPid(process);
+        this.procDir = new File("/proc/" + pid);
+        this.gcLogFile = gcLogFile;
+    }
+
+    /**
+     * Check whether resource usage can be sampled for this process.
+     *
+     * @return true if supported
+     */
+    public boolean isSupported() {
+        return pid > 0 && procDir.isDirectory();
+    }
+
+    /**
+     * Check whether telemetry can be collected on this platform at all.
+     *
+     * @return true if supported
+     */
+    public static boolean isPlatformSupported() {
+        return Environment.getInstance().getPlatform() == Platform.LINUX;
+    }
+
+    /**
+     * Add a listener that is called from the sampling thread.
+     *
+     * @param listener the listener
+     */
+    public void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Start sampling.
+     */
+    public synchronized void start() {
+        if (scheduler != null || !isSupported()) {
+            return;
+        }
+
+        summary.setStarted(new Date());
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("Process telemetry " + pid)
+                .setPriority(Thread.MIN_PRIORITY)
+                .setDaemon(true)
+                .build());
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sample();
+                } catch (Throwable t) {
+                    log.log(Level.FINE, "Failed to sample process " + pid, t);
+                }
+            }
+        }, 0, SAMPLE_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Check whether sampling has been started.
+     *
+     * @return true if started
+     */
+    public synchronized boolean isStarted() {
+        return scheduler != null;
+    }
+
+    /**
+     * Stop sampling and read what remains of the GC log.
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(SAMPLE_INTERVAL, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        readGcLog(new Sample());
+        summary.setEnded(new Date());
+        summary.setAverageCpu(cpuSamples > 0 ? cpuTotal / cpuSamples : 0);
+    }
+
+    /**
+     * Get the totals and peaks of the session, which are complete once
+     * sampling has been stopped.
+     *
+     * @return the summary
+     */
+    public Summary getSummary() {
+        return summary;
+    }
+
+    private void sample() throws IOException {
+        long now = System.nanoTime();
+        Sample sample = new Sample();
+        sample.setTime(System.currentTimeMillis());
+
+        for (String line : Files.readLines(new File(procDir, "status"), Charsets.UTF_8)) {
+            if (line.startsWith("VmRSS:")) {
+                sample.setRss(parseLong(line.substring(6).replace("kB", "")) / 1024);
+            } else if (line.startsWith("Threads:")) {
+                sample.setThreads((int) parseLong(line.substring(8)));
+            }
+        }
+
+        // Fields after the parenthesized command name, which may contain spaces
+        String stat = Files.toString(new File(procDir, "stat"), Charsets.UTF_8);
+        String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+        long cpuTicks = parseLong(fields[11]) + parseLong(fields[12]);
+        if (lastCpuTicks >= 0) {
+            double seconds = (now - lastSampleTime) / 1e9;
+            sample.setCpu((cpuTicks - lastCpuTicks) / CLOCK_TICKS_PER_SECOND / seconds * 100);
+            cpuTotal += sample.getCpu();
+            cpuSamples++;
+        }
+        lastCpuTicks = cpuTicks;
+        lastSampleTime = now;
+
+        String[] fds = new File(procDir, "fd").list();
+        sample.setOpenFiles(fds != null ? fds.length : 0);
+
+        File ioFile = new File(procDir, "io");
+        if (ioFile.canRead()) {
+            for (String line : Files.readLines(ioFile, Charsets.UTF_8)) {
+                if (line.startsWith("read_bytes:")) {
+                    sample.setReadBytes(parseLong(line.substring(11)));
+                } else if (line.startsWith("write_bytes:")) {
+                    sample.setWriteBytes(parseLong(line.substring(12)));
+                }
+            }
+        }
+
+        readGcLog(sample);
+
+        summary.setPeakRss(Math.max(summary.getPeakRss(), sample.getRss()));
+        summary.setPeakThreads(Math.max(summary.getPeakThreads(), sample.getThreads()));
+        summary.setPeakOpenFiles(Math.max(summary.getPeakOpenFiles(), sample.getOpenFiles()));
+        summary.setReadBytes(Math.max(summary.getReadBytes(), sample.getReadBytes()));
+        summary.setWriteBytes(Math.max(summary.getWriteBytes(), sample.getWriteBytes()));
+
+        for (Listener listener : listeners) {
+            listener.sampleTaken(sample);
+        }
+    }
+
+    /**
+     * Read GC log lines written since the last call.
+     *
+     * @param sample the sample to record pauses in
+     */
+    private void readGcLog(Sample sample) {
+        if (gcLogFile == null || !gcLogFile.isFile()) {
+            return;
+        }
+
+        try {
+            RandomAccessFile file = new RandomAccessFile(gcLogFile, "r");
+            try {
+                if (file.length() < gcLogPosition) {
+                    gcLogPosition = 0; // Truncated
+                }
+
+                file.seek(gcLogPosition);
+                String line;
+                while ((line = file.readLine()) != null) {
+                    parseGcLine(line, sample, summary);
+                }
+                gcLogPosition = file.getFilePointer();
+            } finally {
+                file.close();
+            }
+        } catch (IOException e) {
+            log.log(Level.FINE, "Failed to read GC log " + gcLogFile.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Record the pause or heap occupancy that a line of the GC log reports.
+     * The committed heap is only known for collectors that log it in
+     * megabytes rather than as a share of the maximum.
+     *
+     * @param line the line
+     * @param sample the sample to record it in
+     * @param summary the summary to record it in
+     */
+    static void parseGcLine(String line, Sample sample, Summary summary) {
+        Matcher m = GC_PAUSE_PATTERN.matcher(line);
+        if (m.find()) {
+            double pause = Double.parseDouble(m.group(1));
+
+            sample.setGcPauses(sample.getGcPauses() + 1);
+            sample.setGcPauseTime(sample.getGcPauseTime() + pause);
+
+            summary.setGcPauses(summary.getGcPauses() + 1);
+            summary.setGcPauseTime(summary.getGcPauseTime() + pause);
+            summary.setGcMaxPause(Math.max(summary.getGcMaxPause(), pause));
+        }
+
+        m = GC_HEAP_PATTERN.matcher(line);
+        if (m.find()) {
+            int heapAfter = Integer.parseInt(m.group(1));
+
+            sample.setHeapUsed(heapAfter);
+            summary.setPeakHeapAfterGc(Math.max(summary.getPeakHeapAfterGc(), heapAfter));
+
+            if (m.group(3).equals("M")) {
+                int heapCommitted = Integer.parseInt(m.group(2));
+                sample.setHeapCommitted(heapCommitted);
+                summary.setPeakHeapCommitted(Math.max(summary.getPeakHeapCommitted(), heapCommitted));
+            }
+        }
+    }
+
+    private static long parseLong(String value) {
+        return Long.parseLong(value.trim());
+    }
+
+    /**
+     * Get the PID of a process, using {@code Process.pid()} on Java 9+ and
+     * the private field of {@code UNIXProcess} on Java 8.
+     *
+     * @param process the process
+     * @return the PID, or -1 if it could not be determined
+     */
+    private static long getPid(Process process) {
+        try {
+            Method method = Process.class.getMethod("pid");
+            return (Long) method.invoke(process);
+        } catch (NoSuchMethodException e) {
+            try {
+                Field field = process.getClass().getDeclaredField("pid");
+                field.setAccessible(true);
+                return field.getInt(process);
+            } catch (Exception ignored) {
+            }
+        } catch (Exception ignored) {
+        }
+
+        return -1;
+    }
+
+    /**
+     * Called with each sample.
+     */
+    public interface Listener {
+        void sampleTaken(Sample sample);
+    }
+
+    /**
+     * A single measurement. Memory is in megabytes, CPU in percent of one core.
+     */
+    @Data
+    public static class Sample {
+        private long time;
+        private long rss;
+        private double cpu;
+        private int threads;
+        private int openFiles;
+        private long readBytes;
+        private long writeBytes;
+        private int gcPauses;
+        private double gcPauseTime;
+        private int heapUsed;
+        private int heapCommitted;
+    }
+
+    /**
+     * Totals and peaks for a whole session. Memory is in megabytes and
+     * pause times in milliseconds.
+     */
+    @Data
+    public static class Summary {
+        private Date started;
+        private Date ended;
+        private long peakRss;
+        private double averageCpu;
+        private int peakThreads;
+        private int peakOpenFiles;
+        private long readBytes;
+        private long writeBytes;
+        private int gcPauses;
+        private double gcPauseTime;
+        private double gcMaxPause;
+        private int peakHeapAfterGc;
+        private int peakHeapCommitted;
+    }
+
+}
@@ -7,20 +7,21 @@
 package com.skcraft.launcher.launch;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Files;
 import com.skcraft.concurrency.DefaultProgress;
-import com.skcraft.concurrency.ProgressObservable;
+import com.skcraft.concurrency.ProgressBus;
+import com.skcraft.concurrency.ProgressSource;
 import com.skcraft.launcher.*;
 import com.skcraft.launcher.auth.Session;
 import com.skcraft.launcher.install.ZipExtract;
 import com.skcraft.launcher.launch.runtime.JavaRuntime;
-import com.skcraft.launcher.launch.runtime.JavaRuntimeFinder;
+import com.skcraft.launcher.launch.runtime.JavaRuntimeRegistry;
 import com.skcraft.launcher.model.minecraft.*;
 import com.skcraft.launcher.persistence.Persistence;
 import com.skcraft.launcher.util.Environment;
+import com.skcraft.launcher.util.JsonCodec;
 import com.skcraft.launcher.util.Platform;
 import com.skcraft.launcher.util.SharedLocale;
 import lombok.Getter;
@@ -32,6 +33,7 @@ import org.apache.commons.lang.text.StrSubstitutor;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,13 +49,12 @@ import static com.skcraft.launcher.util.SharedLocale.tr;
  * Handles the launching of an instance.
  */
 @Log
-public class Runner implements Callable<Process>, ProgressObservable {
+public class Runner implements Callable<Process>, ProgressSource {
 
-    private ProgressObservable progress = new DefaultProgress(0, SharedLocale.tr("runner.preparing"));
+    @Getter private final ProgressBus progressBus = new ProgressBus(new DefaultProgress(0, SharedLocale.tr("runner.preparing")));
 
-    private final ObjectMapper mapper = new ObjectMapper();
     private final Launcher launcher;
-    private final Instance instance;
+    @Getter private final Instance instance;
     private final Session session;
     private final File extractDir;
     private final BiPredicate<JavaRuntime, JavaVersion> javaRuntimeMismatch;
@@ -66,6 +67,9 @@ public class Runner implements Callable<Process>, ProgressObservable {
     private JavaProcessBuilder builder;
     private AssetsRoot assetsRoot;
     private FeatureList.Mutable featureList;
+    @Getter private ClassDataSharing classDataSharing;
+    @Getter @Setter private LaunchPrefetcher prefetcher;
+    @Getter private File gcLogFile;
 
     /**
      * Create a new instance launcher.
@@ -109,13 +113,19 @@ public class Runner implements Callable<Process>, ProgressObservable {
         builder = new JavaProcessBuilder();
         assetsRoot = launcher.getAssets();
 
-        // Load manifiests
-        versionManifest = mapper.readValue(instance.getVersionPath(), VersionManifest.class);
+        // Load manifiests, unless they were already read ahead of time
+        versionManifest = prefetcher != null ? prefetcher.getVersionManifest() : null;
+        if (versionManifest == null) {
+            versionManifest = JsonCodec.read(instance.getVersionPath(), VersionManifest.class);
+        }
 
         // Load assets index
         File assetsFile = assetsRoot.getIndexPath(versionManifest);
         try {
-            assetsIndex = mapper.readValue(assetsFile, AssetsIndex.class);
+            assetsIndex = prefetcher != null ? prefetcher.getAssetsIndex(assetsFile) : null;
+            if (assetsIndex == null) {
+                assetsIndex = JsonCodec.read(assetsFile, AssetsIndex.class);
+            }
         } catch (FileNotFoundException e) {
             instance.setInstalled(false);
             Persistence.commitAndForget(instance);
@@ -131,7 +141,7 @@ public class Runner implements Callable<Process>, ProgressObservable {
         // Copy over assets to the tree
         try {
             AssetsRoot.AssetsTreeBuilder assetsBuilder = assetsRoot.createAssetsBuilder(versionManifest);
-            progress = assetsBuilder;
+            progressBus.follow(assetsBuilder);
             virtualAssetsDir = assetsBuilder.build();
         } catch (LauncherException e) {
             instance.setInstalled(false);
@@ -139,7 +149,7 @@ public class Runner implements Callable<Process>, ProgressObservable {
             throw e;
         }
 
-        progress = new DefaultProgress(0.9, SharedLocale.tr("runner.collectingArgs"));
+        progressBus.publish(0.9, SharedLocale.tr("runner.collectingArgs"));
         builder.setMainClass(versionManifest.getMainClass());
 
         addWindowArgs();
@@ -155,12 +165,15 @@ public class Runner implements Callable<Process>, ProgressObservable {
 
         verifyJavaRuntime();
 
+        addClassDataSharingArgs();
+        addTelemetryArgs();
+
         ProcessBuilder processBuilder = new ProcessBuilder(builder.buildCommand());
         processBuilder.directory(instance.getContentDir());
         Runner.log.info("Launching: " + builder);
         checkInterrupted();
 
-        progress = new DefaultProgress(1, SharedLocale.tr("runner.startingJava"));
+        progressBus.publish(1, SharedLocale.tr("runner.startingJava"));
 
         return processBuilder.start();
     }
@@ -189,6 +202,44 @@ public class Runner implements Callable<Process>, ProgressObservable {
         }
     }
 
+    /**
+     * Add arguments to record or use a class data sharing archive, if enabled.
+     *
+     * @throws IOException on I/O error
+     */
+    private void addClassDataSharingArgs() throws IOException {
+        if (instance.getSettings().isClassDataSharing()) {
+            classDataSharing = new ClassDataSharing(new File(instance.getDir(), "cds"));
+            classDataSharing.configure(builder);
+        }
+    }
+
+    /**
+     * Add an argument to write a GC log for {@link ProcessTelemetry} to follow.
+     *
+     * <p>Only unified logging (Java 9+) is parsed. Since the option uses colons
+     * as separators, paths that contain one are skipped.</p>
+     */
+    private void addTelemetryArgs() {
+        JavaRuntime runtime = builder.getRuntime();
+        if (!ProcessTelemetry.isPlatformSupported()
+                || runtime == null || runtime.getVersion() == null || runtime.getMajorVersion() < 9) {
+            return;
+        }
+
+        File file = new File(instance.getDir(), "logs/gc.log");
+        String path = file.getAbsolutePath();
+        if (path.contains(":") || path.contains(",")) {
+            return;
+        }
+
+        file.getParentFile().mkdirs();
+        file.delete();
+        // ZGC logs its pauses to gc+phases rather than gc
+        builder.getFlags().add("-Xlog:gc,gc+phases:file=" + path);
+        gcLogFile = file;
+    }
+
     /**
      * Add platform-specific arguments.
      */
@@ -267,17 +318,18 @@ public class Runner implements Callable<Process>, ProgressObservable {
         builder.setMinMemory(minMemory);
         builder.setMaxMemory(maxMemory);
 
+        JavaRuntimeRegistry javaRuntimes = launcher.getJavaRuntimes();
         JavaRuntime selectedRuntime = Optional.ofNullable(instance.getSettings().getRuntime())
                 .orElseGet(() -> Optional.ofNullable(versionManifest.getJavaVersion())
-                        .flatMap(JavaRuntimeFinder::findBestJavaRuntime)
-                        .orElseGet(() -> JavaRuntimeFinder.findNewestRuntime()
+                        .flatMap(javaRuntimes::findBestJavaRuntime)
+                        .orElseGet(() -> javaRuntimes.findNewestRuntime()
                                 .orElse(config.getJavaRuntime()))
                 );
 
         // Builder defaults to the PATH `java` if the runtime is null
         builder.setRuntime(selectedRuntime);
 
-        List<String> flags = builder.getFlags();
+        List<String> userFlags = new ArrayList<String>();
         String[] rawJvmArgsList = new String[] {
                 config.getJvmArgs(),
                 instance.getSettings().getCustomJvmArgs()
@@ -285,10 +337,28 @@ public class Runner implements Callable<Process>, ProgressObservable {
 
         for (String rawJvmArgs : rawJvmArgsList) {
             if (!Strings.isNullOrEmpty(rawJvmArgs)) {
-                flags.addAll(JavaProcessBuilder.splitArgs(rawJvmArgs));
+                userFlags.addAll(JavaProcessBuilder.splitArgs(rawJvmArgs));
             }
         }
 
+        // Tuning flags go first so that the user's own arguments override them
+        TuningProfile tuningProfile = memorySettings
+                .map(MemorySettings::getTuningProfile)
+                .orElse(config.getTuningProfile());
+
+        if (tuningProfile != null) {
+            List<String> overrides = new ArrayList<String>(userFlags);
+            if (instance.getLaunchModifier() != null) {
+                overrides.addAll(instance.getLaunchModifier().getFlags());
+            }
+
+            JvmTuner tuner = new JvmTuner(tuningProfile, selectedRuntime, instance.getLaunchRequirements());
+            tuner.apply(builder, overrides);
+        }
+
+        List<String> flags = builder.getFlags();
+        flags.addAll(userFlags);
+
         List<GameArgument> javaArguments = versionManifest.getArguments().getJvmArguments();
         StrSubstitutor substitutor = new StrSubstitutor(getCommandSubstitutions());
         for (GameArgument arg : javaArguments) {
@@ -438,7 +508,7 @@ public class Runner implements Callable<Process>, ProgressObservable {
 
         map.put("profile_name", session.getName());
         map.put("user_type", session.getUserType().getId());
-        map.put("user_properties", mapper.writeValueAsString(session.getUserProperties()));
+        map.put("user_properties", JsonCodec.writer().writeValueAsString(session.getUserProperties()));
 
         map.put("game_directory", instance.getContentDir().getAbsolutePath());
         map.put("game_assets", virtualAssetsDir.getAbsolutePath());
@@ -462,12 +532,12 @@ public class Runner implements Callable<Process>, ProgressObservable {
 
     @Override
     public double getProgress() {
-        return progress.getProgress();
+        return progressBus.getProgress();
     }
 
     @Override
     public String getStatus() {
-        return progress.getStatus();
+        return progressBus.getStatus();
     }
 
 }
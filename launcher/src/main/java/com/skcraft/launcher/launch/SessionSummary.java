@@ -0,0 +1,21 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch;
+
+import lombok.Data;
+
+/**
+ * What was measured and logged during one game session, written to the
+ * instance's <code>sessions</code> directory when the game exits.
+ */
+@Data
+public class SessionSummary {
+
+    private ProcessTelemetry.Summary resources;
+    private LogSummary log;
+
+}
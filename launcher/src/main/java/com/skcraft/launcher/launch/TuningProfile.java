@@ -0,0 +1,50 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import static com.skcraft.launcher.util.SharedLocale.tr;
+
+/**
+ * Named sets of garbage collector and heap settings that {@link JvmTuner}
+ * applies to the game process.
+ */
+public enum TuningProfile {
+    /**
+     * Add no tuning flags and leave everything to the JVM defaults.
+     */
+    NONE,
+    /**
+     * Pick a profile from the runtime, the hardware and the pack's declared needs.
+     */
+    AUTO,
+    /**
+     * G1 tuned for a client with a large modded heap.
+     */
+    BALANCED,
+    /**
+     * A concurrent collector where the runtime supports it, to minimize pauses.
+     */
+    LOW_LATENCY;
+
+    @JsonCreator
+    public static TuningProfile fromJson(String text) {
+        return valueOf(text.toUpperCase());
+    }
+
+    @JsonValue
+    public String toJson() {
+        return name().toLowerCase();
+    }
+
+    @Override
+    public String toString() {
+        return tr("tuning." + toJson());
+    }
+}
@@ -52,6 +52,35 @@ public final class JavaRuntimeFinder {
         return entries.stream().sorted().collect(Collectors.toList());
     }
 
+    /**
+     * Get the directories whose contents determine the result of
+     * {@link #getAvailableRuntimes()}, for use in change detection.
+     *
+     * @return set of searched directories
+     */
+    static Set<File> getSearchRoots() {
+        Environment env = Environment.getInstance();
+        PlatformRuntimeFinder runtimeFinder = getRuntimeFinder(env);
+
+        if (runtimeFinder == null) {
+            return Collections.emptySet();
+        }
+
+        Set<File> roots = new HashSet<>();
+
+        for (File launcherDir : runtimeFinder.getLauncherDirectories(env)) {
+            roots.add(new File(launcherDir, "runtime"));
+        }
+
+        for (File location : runtimeFinder.getCandidateJavaLocations()) {
+            if (location.getParentFile() != null) {
+                roots.add(location.getParentFile());
+            }
+        }
+
+        return roots;
+    }
+
     /**
      * Find the best runtime for a given Java version
      * @param targetVersion Version to match
@@ -0,0 +1,244 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch.runtime;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.skcraft.launcher.model.minecraft.JavaVersion;
+import com.skcraft.launcher.persistence.Persistence;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+
+/**
+ * Keeps a snapshot of the Java runtimes available on the system.
+ *
+ * <p>Discovery through {@link JavaRuntimeFinder} walks the launcher runtime
+ * directories, system JVM directories and platform sources, which can be slow.
+ * The last result is persisted together with the modification time of every
+ * runtime directory, the hash of its release file and the modification time
+ * of the directories that were searched. On the next start the snapshot is
+ * used immediately if none of those have changed, while a full scan
+ * refreshes it in the background.</p>
+ */
+@Log
+public class JavaRuntimeRegistry {
+
+    private final ListeningExecutorService executor;
+    private final File cacheFile;
+    private volatile List<JavaRuntime> runtimes;
+    private ListenableFuture<List<JavaRuntime>> refreshFuture;
+
+    /**
+     * Create a new registry.
+     *
+     * @param executor the executor to scan on
+     * @param cacheFile the file to persist the snapshot to
+     */
+    public JavaRuntimeRegistry(@NonNull ListeningExecutorService executor, @NonNull File cacheFile) {
+        this.executor = executor;
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Load the persisted snapshot, if it still matches what is on disk.
+     */
+    public void load() {
+        RuntimeCache cache = Persistence.read(cacheFile, RuntimeCache.class, true);
+        if (cache == null) {
+            return;
+        }
+
+        for (Map.Entry<String, Long> entry : cache.getSearchRoots().entrySet()) {
+            if (new File(entry.getKey()).lastModified() != entry.getValue()) {
+                log.info("Java runtime search directory " + entry.getKey() + " changed; rescan required");
+                return;
+            }
+        }
+
+        List<JavaRuntime> loaded = new ArrayList<JavaRuntime>();
+        for (CachedRuntime entry : cache.getRuntimes()) {
+            if (!entry.isCurrent()) {
+                log.info("Java runtime at " + entry.getDir() + " changed; rescan required");
+                return;
+            }
+
+            loaded.add(entry.toRuntime());
+        }
+
+        Collections.sort(loaded);
+        runtimes = Collections.unmodifiableList(loaded);
+        log.info("Loaded " + loaded.size() + " cached Java runtime(s)");
+    }
+
+    /**
+     * Start a scan of the system in the background, unless one is already running.
+     *
+     * @return a future for the scanned list of runtimes
+     */
+    public synchronized ListenableFuture<List<JavaRuntime>> refresh() {
+        if (refreshFuture != null && !refreshFuture.isDone()) {
+            return refreshFuture;
+        }
+
+        refreshFuture = executor.submit(new Callable<List<JavaRuntime>>() {
+            @Override
+            public List<JavaRuntime> call() throws Exception {
+                Set<File> roots = JavaRuntimeFinder.getSearchRoots();
+                List<JavaRuntime> found = JavaRuntimeFinder.getAvailableRuntimes();
+                save(roots, found);
+                return found;
+            }
+        });
+
+        Futures.addCallback(refreshFuture, new FutureCallback<List<JavaRuntime>>() {
+            @Override
+            public void onSuccess(List<JavaRuntime> result) {
+                runtimes = Collections.unmodifiableList(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                log.log(Level.WARNING, "Failed to scan for Java runtimes", t);
+            }
+        });
+
+        return refreshFuture;
+    }
+
+    /**
+     * Get the current snapshot of available runtimes, waiting for a scan
+     * to complete if there is no usable snapshot yet.
+     *
+     * @return a list of runtimes sorted by preference
+     */
+    public List<JavaRuntime> getRuntimes() {
+        List<JavaRuntime> current = runtimes;
+        if (current != null) {
+            return current;
+        }
+
+        try {
+            return refresh().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.log(Level.WARNING, "Java runtime scan failed", e.getCause());
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Find the best runtime for a given Java version.
+     *
+     * @param targetVersion version to match
+     * @return Java runtime if available, empty Optional otherwise
+     */
+    public Optional<JavaRuntime> findBestJavaRuntime(JavaVersion targetVersion) {
+        return getRuntimes().stream()
+                .filter(runtime -> runtime.getMajorVersion() == targetVersion.getMajorVersion())
+                .findFirst();
+    }
+
+    /**
+     * Find the runtime with the newest major version.
+     *
+     * @return Java runtime if available, empty Optional otherwise
+     */
+    public Optional<JavaRuntime> findNewestRuntime() {
+        return getRuntimes().stream()
+                .max(Comparator.comparingInt(JavaRuntime::getMajorVersion));
+    }
+
+    private void save(Set<File> roots, List<JavaRuntime> found) {
+        RuntimeCache cache = new RuntimeCache();
+
+        for (File root : roots) {
+            cache.getSearchRoots().put(root.getAbsolutePath(), root.lastModified());
+        }
+
+        for (JavaRuntime runtime : found) {
+            cache.getRuntimes().add(CachedRuntime.of(runtime));
+        }
+
+        try {
+            Persistence.write(cacheFile, cache);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to save Java runtime cache to " + cacheFile.getAbsolutePath(), e);
+        }
+    }
+
+    private static String hashReleaseFile(File dir) {
+        File releaseFile = new File(dir, "release");
+
+        if (releaseFile.isFile()) {
+            try {
+                return Files.hash(releaseFile, Hashing.sha1()).toString();
+            } catch (IOException e) {
+                log.log(Level.FINE, "Failed to hash " + releaseFile.getAbsolutePath(), e);
+            }
+        }
+
+        return null;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class RuntimeCache {
+        private Map<String, Long> searchRoots = new HashMap<String, Long>();
+        private List<CachedRuntime> runtimes = new ArrayList<CachedRuntime>();
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class CachedRuntime {
+        private String dir;
+        private String version;
+        private boolean arch64Bit;
+        private boolean minecraftBundled;
+        private long lastModified;
+        private String releaseHash;
+
+        boolean isCurrent() {
+            File file = new File(dir);
+            return file.isDirectory()
+                    && file.lastModified() == lastModified
+                    && Objects.equals(hashReleaseFile(file), releaseHash);
+        }
+
+        JavaRuntime toRuntime() {
+            JavaRuntime runtime = new JavaRuntime(new File(dir), version, arch64Bit);
+            runtime.setMinecraftBundled(minecraftBundled);
+            return runtime;
+        }
+
+        static CachedRuntime of(JavaRuntime runtime) {
+            CachedRuntime entry = new CachedRuntime();
+            entry.setDir(runtime.getDir().getAbsolutePath());
+            entry.setVersion(runtime.getVersion());
+            entry.setArch64Bit(runtime.is64Bit());
+            entry.setMinecraftBundled(runtime.isMinecraftBundled());
+            entry.setLastModified(runtime.getDir().lastModified());
+            entry.setReleaseHash(hashReleaseFile(runtime.getDir()));
+            return entry;
+        }
+    }
+
+}
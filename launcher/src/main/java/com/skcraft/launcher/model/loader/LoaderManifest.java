@@ -2,6 +2,7 @@ package com.skcraft.launcher.model.loader;
 
 import com.skcraft.launcher.model.minecraft.Library;
 import com.skcraft.launcher.model.modpack.DownloadableFile;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,11 +13,24 @@ import java.util.Map;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class LoaderManifest {
 	private List<Library> libraries;
 	private Map<String, SidedData<String>> sidedData;
 	private List<DownloadableFile> downloadableFiles;
 
+	/**
+	 * The files written to the libraries directory by the client processors,
+	 * named by their path in the libraries directory, if the package builder
+	 * ran the processors. Null if the processors have to be run on install.
+	 */
+	private List<DownloadableFile> processorOutputs;
+
+	public LoaderManifest(List<Library> libraries, Map<String, SidedData<String>> sidedData,
+						  List<DownloadableFile> downloadableFiles) {
+		this(libraries, sidedData, downloadableFiles, null);
+	}
+
 	public Library findLibrary(String name) {
 		for (Library library : getLibraries()) {
 			if (library.matches(name)) {
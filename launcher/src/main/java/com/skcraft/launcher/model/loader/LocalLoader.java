@@ -9,4 +9,10 @@ import java.util.HashMap;
 public class LocalLoader {
 	private final LoaderManifest manifest;
 	private final HashMap<String, DownloadableFile.LocalFile> localFiles;
+
+	/**
+	 * Whether the outputs of the processors were installed pre-built, in
+	 * which case the processors do not have to run.
+	 */
+	private volatile boolean processed;
 }
@@ -21,7 +21,7 @@ public class ProcessorEntry extends ManifestEntry {
 		LocalLoader loader = extras.getLoader(loaderName);
 
 		if (processor.shouldRunOn(Side.CLIENT)) {
-			installer.queueLate(new ProcessorTask(processor, loader.getManifest(), getManifest(), loader.getLocalFiles()));
+			installer.queueLate(new ProcessorTask(processor, loader, getManifest()));
 		}
 	}
 }
@@ -0,0 +1,41 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.model.modpack;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/**
+ * Declares what a modpack needs from the JVM, which the launcher uses to
+ * choose garbage collector and heap settings.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LaunchRequirements {
+
+    /**
+     * Memory in megabytes that the pack needs to run at all.
+     */
+    private int minMemory;
+
+    /**
+     * Memory in megabytes that the pack runs comfortably with.
+     */
+    private int recommendedMemory;
+
+    /**
+     * Whether the pack allocates heavily, such as large mod counts or
+     * many duplicate strings from registries and recipes.
+     */
+    private boolean allocationHeavy;
+
+    /**
+     * Whether the pack prefers short garbage collection pauses over throughput.
+     */
+    private boolean lowLatency;
+
+}
@@ -32,6 +32,10 @@ import java.util.Map;
 public class Manifest extends BaseManifest {
 
     public static final int MIN_PROTOCOL_VERSION = 3;
+    /**
+     * The protocol version needed for loaders with pre-built processor outputs.
+     */
+    public static final int PROCESSOR_OUTPUTS_PROTOCOL_VERSION = 4;
 
     private int minimumVersion;
     private URL baseUrl;
@@ -40,6 +44,8 @@ public class Manifest extends BaseManifest {
     private String gameVersion;
     @JsonProperty("launch")
     private LaunchModifier launchModifier;
+    @JsonProperty("requirements")
+    private LaunchRequirements launchRequirements;
     private List<Feature> features = new ArrayList<Feature>();
     @JsonManagedReference("manifest")
     private List<ManifestEntry> tasks = new ArrayList<ManifestEntry>();
@@ -94,5 +100,6 @@ public class Manifest extends BaseManifest {
 
     public void update(Instance instance) {
         instance.setLaunchModifier(getLaunchModifier());
+        instance.setLaunchRequirements(getLaunchRequirements());
     }
 }
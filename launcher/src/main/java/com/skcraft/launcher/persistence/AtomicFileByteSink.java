@@ -0,0 +1,152 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.persistence;
+
+import com.google.common.io.ByteSink;
+import com.google.common.io.ByteStreams;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes to a temporary file next to the target, which replaces the target
+ * only once the stream has been committed and synced to disk. If anything
+ * fails before then, or the stream is closed without being committed, the
+ * temporary file is removed and the target is left as it was.
+ *
+ * <p>{@link #write(byte[])} and {@link #writeFrom(InputStream)} commit by
+ * themselves. Other writers must call {@link AtomicOutputStream#commit()}
+ * on the stream from {@link #openStream()} once everything has been
+ * written, and close it in a finally block.</p>
+ */
+public class AtomicFileByteSink extends ByteSink {
+
+    private final File file;
+
+    public AtomicFileByteSink(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public AtomicOutputStream openStream() throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        dir.mkdirs();
+
+        File temp = File.createTempFile(file.getName(), ".tmp", dir);
+        return new AtomicOutputStream(new FileOutputStream(temp), temp);
+    }
+
+    @Override
+    public void write(byte[] bytes) throws IOException {
+        AtomicOutputStream out = openStream();
+        try {
+            out.write(bytes);
+            out.commit();
+        } finally {
+            out.close();
+        }
+    }
+
+    @Override
+    public long writeFrom(InputStream input) throws IOException {
+        AtomicOutputStream out = openStream();
+        try {
+            long written = ByteStreams.copy(input, out);
+            out.commit();
+            return written;
+        } finally {
+            out.close();
+        }
+    }
+
+    private void replace(File temp) throws IOException {
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AtomicFileByteSink(" + file + ")";
+    }
+
+    /**
+     * A stream to the temporary file, which replaces the target when it is
+     * committed.
+     */
+    public class AtomicOutputStream extends FilterOutputStream {
+        private final FileOutputStream fos;
+        private final File temp;
+        private boolean closed;
+
+        private AtomicOutputStream(FileOutputStream fos, File temp) {
+            super(fos);
+            this.fos = fos;
+            this.temp = temp;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            fos.write(b, off, len);
+        }
+
+        /**
+         * Sync the temporary file and move it over the target, which closes
+         * the stream. If this fails, the target is left as it was.
+         *
+         * @throws IOException on I/O error
+         */
+        public void commit() throws IOException {
+            if (closed) {
+                throw new IOException("The stream for " + file + " has already been closed");
+            }
+            closed = true;
+
+            try {
+                try {
+                    fos.flush();
+                    fos.getFD().sync();
+                } finally {
+                    fos.close();
+                }
+                replace(temp);
+            } finally {
+                // Only still there if the move did not happen
+                temp.delete();
+            }
+        }
+
+        /**
+         * Close the stream, discarding what was written unless it was
+         * committed.
+         *
+         * @throws IOException on I/O error
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            try {
+                fos.close();
+            } finally {
+                temp.delete();
+            }
+        }
+    }
+
+}
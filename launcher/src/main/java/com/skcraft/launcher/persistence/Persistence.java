@@ -9,19 +9,20 @@ package com.skcraft.launcher.persistence;
 import com.fasterxml.jackson.core.PrettyPrinter;
 import com.fasterxml.jackson.core.util.DefaultIndenter;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.MapMaker;
 import com.google.common.io.ByteSink;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Closer;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.skcraft.launcher.util.JsonCodec;
 import lombok.NonNull;
 import lombok.extern.java.Log;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.util.WeakHashMap;
+import java.util.Map;
 import java.util.logging.Level;
 
 /**
@@ -33,12 +34,16 @@ import java.util.logging.Level;
  * <pre>config = Persistence.load(file, Configuration.class);
  * config.changeSomething();
  * Persistence.commit(config);</pre>
+ * <p>Files are replaced atomically, so a crash while saving leaves the previous
+ * version in place. {@link #commitAndForget(Object)} saves in the background and
+ * writes a burst of commits of the same object only once.</p>
  */
 @Log
 public final class Persistence {
 
-    private static final ObjectMapper mapper = new ObjectMapper();
-    private static final WeakHashMap<Object, ByteSink> bound = new WeakHashMap<Object, ByteSink>();
+    // Weak keys are compared by identity, so bound objects may change their hash code
+    private static final Map<Object, ByteSink> bound = new MapMaker().weakKeys().makeMap();
+    private static final WriteBehindCommitter committer = new WriteBehindCommitter(500);
     public static final DefaultPrettyPrinter L2F_LIST_PRETTY_PRINTER;
 
     static {
@@ -56,9 +61,7 @@ public final class Persistence {
      * @param sink the byte sink
      */
     public static void bind(@NonNull Object object, @NonNull ByteSink sink) {
-        synchronized (bound) {
-            bound.put(object, sink);
-        }
+        bound.put(object, sink);
     }
 
     /**
@@ -68,34 +71,45 @@ public final class Persistence {
      * @throws java.io.IOException on save error
      */
     public static void commit(@NonNull Object object) throws IOException {
-        ByteSink sink;
-        synchronized (bound) {
-            sink = bound.get(object);
-            if (sink == null) {
-                throw new IOException("Cannot persist unbound object: " + object);
-            }
+        ByteSink sink = bound.get(object);
+        if (sink == null) {
+            throw new IOException("Cannot persist unbound object: " + object);
         }
 
-        Closer closer = Closer.create();
-        try {
-            OutputStream os = closer.register(sink.openBufferedStream());
-            mapper.writeValue(os, object);
-        } finally {
-            closer.close();
+        // Serialize first so that a failure doesn't touch the file
+        byte[] data = JsonCodec.writer().writeValueAsBytes(object);
+
+        synchronized (sink) {
+            sink.write(data);
         }
     }
 
     /**
-     * Save an object to file, and send all errors to the log.
+     * Save an object to file in the background, and send all errors to the log.
      *
      * @param object the object
      */
     public static void commitAndForget(@NonNull Object object)  {
-        try {
-            commit(object);
-        } catch (IOException e) {
-            log.log(Level.WARNING, "Failed to save " + object.getClass() + ": " + object.toString(), e);
-        }
+        commitLater(object);
+    }
+
+    /**
+     * Save an object to file in the background, shortly after the last call
+     * for the same object.
+     *
+     * @param object the object
+     * @return a future that completes with the object once it has been saved
+     */
+    public static ListenableFuture<Object> commitLater(@NonNull Object object) {
+        return committer.submit(object);
+    }
+
+    /**
+     * Save every object waiting to be saved in the background, and wait for
+     * them to be written. Errors are sent to the log.
+     */
+    public static void flush() {
+        committer.flush();
     }
 
     /**
@@ -112,7 +126,7 @@ public final class Persistence {
         Closer closer = Closer.create();
 
         try {
-            object = mapper.readValue(closer.register(source.openBufferedStream()), cls);
+            object = JsonCodec.read(closer.register(source.openBufferedStream()), cls);
         } catch (IOException e) {
             if (!(e instanceof FileNotFoundException)) {
                 log.log(Level.INFO, "Failed to load" + cls.getCanonicalName(), e);
@@ -151,6 +165,7 @@ public final class Persistence {
      * @return an object
      */
     public static <V> V read(File file, Class<V> cls, boolean returnNull) {
+        committer.flush();
         return read(Files.asByteSource(file), cls, returnNull);
     }
 
@@ -177,8 +192,11 @@ public final class Persistence {
      * @return an object
      */
     public static <V> V load(File file, Class<V> cls, boolean returnNull) {
+        // The file may have a write still waiting
+        committer.flush();
+
         ByteSource source = Files.asByteSource(file);
-        ByteSink sink = new MkdirByteSink(Files.asByteSink(file), file.getParentFile());
+        ByteSink sink = new AtomicFileByteSink(file);
 
         Scrambled scrambled = cls.getAnnotation(Scrambled.class);
         if (cls.getAnnotation(Scrambled.class) != null) {
@@ -226,12 +244,8 @@ public final class Persistence {
      * @throws java.io.IOException on I/O error
      */
     public static void write(File file, Object object, PrettyPrinter prettyPrinter) throws IOException {
-        file.getParentFile().mkdirs();
-        if (prettyPrinter != null) {
-            mapper.writer(prettyPrinter).writeValue(file, object);
-        } else {
-            mapper.writeValue(file, object);
-        }
+        byte[] data = JsonCodec.writer(prettyPrinter).writeValueAsBytes(object);
+        new AtomicFileByteSink(file).write(data);
     }
 
     /**
@@ -242,11 +256,7 @@ public final class Persistence {
      * @throws java.io.IOException on I/O error
      */
     public static String writeValueAsString(Object object, PrettyPrinter prettyPrinter) throws IOException {
-        if (prettyPrinter != null) {
-            return mapper.writer(prettyPrinter).writeValueAsString(object);
-        } else {
-            return mapper.writeValueAsString(object);
-        }
+        return JsonCodec.writer(prettyPrinter).writeValueAsString(object);
     }
 
 }
@@ -40,6 +40,18 @@ class ScramblingSinkFilter extends ByteSink {
         return new CipherOutputStream(delegate.openStream(), cipher);
     }
 
+    @Override
+    public void write(byte[] bytes) throws IOException {
+        // Written to the delegate in one piece, so that a sink that commits on write can do so
+        byte[] encrypted;
+        try {
+            encrypted = getCipher(Cipher.ENCRYPT_MODE, key).doFinal(bytes);
+        } catch (Throwable e) {
+            throw new IOException("Failed to encrypt", e);
+        }
+        delegate.write(encrypted);
+    }
+
     public static Cipher getCipher(int mode, String password)
             throws InvalidKeySpecException, NoSuchAlgorithmException,
             NoSuchPaddingException, InvalidKeyException, InvalidAlgorithmParameterException {
@@ -0,0 +1,115 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.persistence;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.java.Log;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+
+/**
+ * Commits objects on a background thread a short while after they were
+ * last asked to be committed, so that a burst of commits of the same
+ * object results in one write of its latest state.
+ */
+@Log
+class WriteBehindCommitter {
+
+    private final long delay;
+    private final Object writeLock = new Object();
+    private final Map<Object, SettableFuture<Object>> pending = new IdentityHashMap<Object, SettableFuture<Object>>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("Persistence writer")
+            .setDaemon(true)
+            .build());
+
+    /**
+     * Create a new committer.
+     *
+     * @param delay the time in milliseconds to wait for further commits
+     */
+    public WriteBehindCommitter(long delay) {
+        this.delay = delay;
+
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, "Persistence shutdown flush"));
+    }
+
+    /**
+     * Queue an object to be committed.
+     *
+     * @param object the object
+     * @return a future that completes with the object once it has been written
+     */
+    public ListenableFuture<Object> submit(final Object object) {
+        synchronized (pending) {
+            SettableFuture<Object> future = pending.get(object);
+            if (future != null) {
+                return future;
+            }
+
+            future = SettableFuture.create();
+            pending.put(object, future);
+            executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    write(object);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+            return future;
+        }
+    }
+
+    /**
+     * Write everything that is queued, waiting for it to be written.
+     */
+    public void flush() {
+        List<Object> objects;
+        synchronized (pending) {
+            objects = new ArrayList<Object>(pending.keySet());
+        }
+
+        for (Object object : objects) {
+            write(object);
+        }
+    }
+
+    private void write(Object object) {
+        // Held across the write, so a flush doesn't return while another thread is still writing
+        synchronized (writeLock) {
+            SettableFuture<Object> future;
+            synchronized (pending) {
+                // Commits from here on need another write
+                future = pending.remove(object);
+            }
+
+            if (future == null) {
+                return; // Already written by a flush
+            }
+
+            try {
+                Persistence.commit(object);
+                future.set(object);
+            } catch (Throwable t) {
+                log.log(Level.WARNING, "Failed to save " + object.getClass() + ": " + object.toString(), t);
+                future.setException(t);
+            }
+        }
+    }
+
+}
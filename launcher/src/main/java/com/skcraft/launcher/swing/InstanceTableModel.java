@@ -13,6 +13,8 @@ import com.skcraft.launcher.util.SharedLocale;
 
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
 
 public class InstanceTableModel extends AbstractTableModel {
 
@@ -20,6 +22,8 @@ public class InstanceTableModel extends AbstractTableModel {
     private final Icon instanceIcon;
     private final Icon customInstanceIcon;
     private final Icon downloadIcon;
+    // Only touched on the event dispatch thread, as the instance list is refilled by the enumerator
+    private List<Instance> shown = new ArrayList<Instance>();
 
     public InstanceTableModel(InstanceList instances) {
         this.instances = instances;
@@ -29,8 +33,35 @@ public class InstanceTableModel extends AbstractTableModel {
     }
 
     public void update() {
-        instances.sort();
-        fireTableDataChanged();
+        List<Instance> current;
+        synchronized (instances) {
+            instances.sort();
+            current = new ArrayList<Instance>(instances.getInstances());
+        }
+
+        // Only repaint the rows if they are the same instances, so that the selection is kept
+        boolean sameRows = current.size() == shown.size();
+        for (int i = 0; sameRows && i < current.size(); i++) {
+            sameRows = current.get(i) == shown.get(i);
+        }
+
+        shown = current;
+
+        if (sameRows && !current.isEmpty()) {
+            fireTableRowsUpdated(0, current.size() - 1);
+        } else {
+            fireTableDataChanged();
+        }
+    }
+
+    /**
+     * Get the instance shown in the given row.
+     *
+     * @param rowIndex the row
+     * @return the instance
+     */
+    public Instance getInstance(int rowIndex) {
+        return shown.get(rowIndex);
     }
 
     @Override
@@ -61,7 +92,7 @@ public class InstanceTableModel extends AbstractTableModel {
     public void setValueAt(Object value, int rowIndex, int columnIndex) {
         switch (columnIndex) {
             case 0:
-                instances.get(rowIndex).setSelected((boolean) (Boolean) value);
+                shown.get(rowIndex).setSelected((boolean) (Boolean) value);
                 break;
             case 1:
             default:
@@ -83,7 +114,7 @@ public class InstanceTableModel extends AbstractTableModel {
 
     @Override
     public int getRowCount() {
-        return instances.size();
+        return shown.size();
     }
 
     @Override
@@ -96,7 +127,7 @@ public class InstanceTableModel extends AbstractTableModel {
         Instance instance;
         switch (columnIndex) {
             case 0:
-                instance = instances.get(rowIndex);
+                instance = shown.get(rowIndex);
                 if (!instance.isLocal()) {
                     return downloadIcon;
                 } else if (instance.getManifestURL() != null) {
@@ -105,7 +136,7 @@ public class InstanceTableModel extends AbstractTableModel {
                     return customInstanceIcon;
                 }
             case 1:
-                instance = instances.get(rowIndex);
+                instance = shown.get(rowIndex);
                 return instance.getTitle();
             default:
                 return null;
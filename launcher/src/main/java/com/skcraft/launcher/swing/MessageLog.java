@@ -6,36 +6,81 @@
 
 package com.skcraft.launcher.swing;
 
-import com.skcraft.launcher.LauncherUtils;
-import com.skcraft.launcher.util.LimitLinesDocumentListener;
+import com.skcraft.launcher.util.LineListener;
+import com.skcraft.launcher.util.LineStore;
+import com.skcraft.launcher.util.LogSpool;
 import com.skcraft.launcher.util.SimpleLogFormatter;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.java.Log;
 
 import javax.swing.*;
-import javax.swing.text.*;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PrintWriter;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
+import static com.skcraft.launcher.util.SharedLocale.tr;
 import static org.apache.commons.io.IOUtils.closeQuietly;
 
 /**
  * A simple message log.
+ *
+ * <p>Messages are appended to a {@link LineStore}, which keeps the whole
+ * session on disk, by the thread that logs them. The event dispatch thread
+ * only picks up the new size of the store, at most once per
+ * {@link #FLUSH_INTERVAL}. Only the visible rows are read back and rendered,
+ * and searching runs in the background against the store's index, with
+ * optional level and thread filters.</p>
  */
+@Log
 public class MessageLog extends JPanel {
 
     private static final Logger rootLogger = Logger.getLogger("");
-    
-    private final int numLines;
+
+    /**
+     * Milliseconds between view updates.
+     */
+    private static final int FLUSH_INTERVAL = 50;
+    private static final int CELL_WIDTH = 4000;
+    private static final Pattern REDACT_PATTERN = Pattern.compile("(Session ID is )[A-Fa-f0-9]+");
+
     private final boolean colorEnabled;
-    
-    protected JTextComponent textComponent;
-    protected Document document;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Timer flushTimer;
+    private final LineStore store;
+    private final List<AttributeSet> styles = new CopyOnWriteArrayList<AttributeSet>();
+    private final LineListModel model = new LineListModel();
+
+    private JList<String> list;
+    private JScrollPane scrollPane;
+    private JTextField searchField;
+    private JComboBox<String> levelCombo;
+    private JComboBox<String> threadCombo;
+    private SwingWorker<Integer, Void> searchWorker;
+    @Getter @Setter private volatile LogSpool spool;
+    private volatile boolean closed;
 
     private Handler loggerHandler;
     protected final SimpleAttributeSet defaultAttributes = new SimpleAttributeSet();
@@ -44,10 +89,27 @@ public class MessageLog extends JPanel {
     protected final SimpleAttributeSet infoAttributes;
     protected final SimpleAttributeSet debugAttributes;
 
-    public MessageLog(int numLines, boolean colorEnabled) {
-        this.numLines = numLines;
+    /**
+     * Create a new message log.
+     *
+     * @param colorEnabled true to color lines
+     */
+    public MessageLog(boolean colorEnabled) {
         this.colorEnabled = colorEnabled;
-        
+        this.flushTimer = new Timer(FLUSH_INTERVAL, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                flush();
+            }
+        });
+        this.flushTimer.setRepeats(false);
+
+        try {
+            this.store = new LineStore();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create console line store", e);
+        }
+
         this.highlightedAttributes = new SimpleAttributeSet();
         StyleConstants.setForeground(highlightedAttributes, new Color(0xFF7F00));
         
@@ -56,53 +118,122 @@ public class MessageLog extends JPanel {
         this.infoAttributes = new SimpleAttributeSet();
         this.debugAttributes = new SimpleAttributeSet();
 
+        styles.add(defaultAttributes);
+
         setLayout(new BorderLayout());
         
         initComponents();
     }
 
     private void initComponents() {
-        if (colorEnabled) {
-            JTextPane text = new JTextPane() {
-                @Override
-                public boolean getScrollableTracksViewportWidth() {
-                    return true;
-                }
-            };
-            this.textComponent = text;
-        } else {
-            JTextArea text = new JTextArea();
-            this.textComponent = text;
-            text.setLineWrap(true);
-            text.setWrapStyleWord(true);
-        }
-
-        textComponent.setFont(new JLabel().getFont());
-        textComponent.setEditable(false);
-        textComponent.setComponentPopupMenu(TextFieldPopupMenu.INSTANCE);
-        DefaultCaret caret = (DefaultCaret) textComponent.getCaret();
-        caret.setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
-        document = textComponent.getDocument();
-        document.addDocumentListener(new LimitLinesDocumentListener(numLines, true));
-        
-        JScrollPane scrollText = new JScrollPane(textComponent);
-        scrollText.setBorder(null);
-        scrollText.setVerticalScrollBarPolicy(
+        list = new JList<String>(model);
+        list.setFont(new JLabel().getFont());
+        list.setFixedCellHeight(list.getFontMetrics(list.getFont()).getHeight() + 1);
+        // Fixed sizes keep the list from measuring every line
+        list.setFixedCellWidth(CELL_WIDTH);
+        list.setCellRenderer(new LineRenderer());
+
+        scrollPane = new JScrollPane(list);
+        scrollPane.setBorder(null);
+        scrollPane.setVerticalScrollBarPolicy(
                 ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS);
-        scrollText.setHorizontalScrollBarPolicy(
-                ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
-        
-        add(scrollText, BorderLayout.CENTER);
+        scrollPane.setHorizontalScrollBarPolicy(
+                ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+
+        searchField = new JTextField(20);
+        searchField.setComponentPopupMenu(TextFieldPopupMenu.INSTANCE);
+        JButton previousButton = new JButton(tr("console.searchPrevious"));
+        JButton nextButton = new JButton(tr("console.searchNext"));
+        levelCombo = new JComboBox<String>(new String[] {
+                tr("console.level.all"), tr("console.level.debug"), tr("console.level.info"),
+                tr("console.level.warn"), tr("console.level.error") });
+        threadCombo = new JComboBox<String>(new String[] { tr("console.thread.all") });
+
+        LinedBoxPanel searchPanel = new LinedBoxPanel(true);
+        searchPanel.setBorder(BorderFactory.createEmptyBorder(0, 0, 4, 0));
+        searchPanel.addElement(new JLabel(tr("console.search")));
+        searchPanel.addElement(searchField);
+        searchPanel.addElement(previousButton);
+        searchPanel.addElement(nextButton);
+        searchPanel.addGlue();
+        searchPanel.addElement(levelCombo);
+        searchPanel.addElement(threadCombo);
+
+        add(searchPanel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+
+        ActionListener searchNext = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                search(true);
+            }
+        };
+        searchField.addActionListener(searchNext);
+        nextButton.addActionListener(searchNext);
+        previousButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                search(false);
+            }
+        });
+
+        ActionListener filterListener = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                list.clearSelection();
+                model.setFilter((byte) levelCombo.getSelectedIndex(),
+                        threadCombo.getSelectedIndex() > 0 ? (String) threadCombo.getSelectedItem() : null);
+            }
+        };
+        levelCombo.addActionListener(filterListener);
+        threadCombo.addActionListener(filterListener);
+        threadCombo.addPopupMenuListener(new PopupMenuListener() {
+            @Override
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+                updateThreadNames();
+            }
+
+            @Override
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+            }
+
+            @Override
+            public void popupMenuCanceled(PopupMenuEvent e) {
+            }
+        });
     }
-    
+
+    /**
+     * Get the whole log as text, with session IDs redacted.
+     *
+     * <p>This reads the entire session, so it should not be called on the
+     * event dispatch thread.</p>
+     *
+     * @return the text
+     */
     public String getPastableText() {
-        String text = textComponent.getText().replaceAll("[\r\n]+", "\n");
-        text = text.replaceAll("Session ID is [A-Fa-f0-9]+", "Session ID is [redacted]");
-        return text;
+        StringWriter writer = new StringWriter();
+        try {
+            store.export(writer, REDACT_PATTERN);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to read the console log", e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Write the whole log to the given writer, with session IDs redacted.
+     *
+     * @param writer the writer
+     * @throws IOException on I/O error
+     */
+    public void export(Writer writer) throws IOException {
+        store.export(writer, REDACT_PATTERN);
     }
 
     public void clear() {
-        textComponent.setText("");
+        store.clear();
+        model.reset();
     }
     
     /**
@@ -111,29 +242,144 @@ public class MessageLog extends JPanel {
      * @param line line
      * @param attributes attribute set, or null for none
      */
-    public void log(final String line, AttributeSet attributes) {
-        final Document d = document;
-        final JTextComponent t = textComponent;
+    public void log(String line, AttributeSet attributes) {
+        if (closed) {
+            return;
+        }
+
         if (colorEnabled) {
             if (line.startsWith("(!!)")) {
                 attributes = highlightedAttributes;
             }
         }
-        final AttributeSet a = attributes;
-        
-        SwingUtilities.invokeLater(new Runnable() {
+
+        int style = getStyleIndex((attributes != null && colorEnabled) ? attributes : defaultAttributes);
+
+        // Kept together, so that lines from other threads do not end up inside a message
+        synchronized (store) {
+            int start = 0;
+            int end;
+            while ((end = line.indexOf('\n', start)) >= 0) {
+                store.append(stripReturn(line.substring(start, end)), style);
+                start = end + 1;
+            }
+            if (start < line.length()) {
+                store.append(stripReturn(line.substring(start)), style);
+            }
+        }
+
+        if (flushScheduled.compareAndSet(false, true)) {
+            flushTimer.start();
+        }
+    }
+
+    /**
+     * Show the lines added to the store since the last call, keeping the view
+     * at the end if it was there before. Called on the event dispatch thread.
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        if (closed) {
+            return;
+        }
+
+        JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+        boolean atEnd = scrollBar.getValue() + scrollBar.getVisibleAmount()
+                >= scrollBar.getMaximum() - list.getFixedCellHeight();
+
+        model.update();
+
+        if (atEnd && model.getSize() > 0) {
+            list.ensureIndexIsVisible(model.getSize() - 1);
+        }
+    }
+
+    private static String stripReturn(String line) {
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    private synchronized int getStyleIndex(AttributeSet attributes) {
+        for (int i = 0; i < styles.size(); i++) {
+            if (styles.get(i) == attributes) {
+                return i;
+            }
+        }
+
+        if (styles.size() > Byte.MAX_VALUE) {
+            return 0;
+        }
+
+        styles.add(attributes);
+        return styles.size() - 1;
+    }
+
+    private void updateThreadNames() {
+        Object selected = threadCombo.getSelectedItem();
+        List<String> names = store.getThreadNames();
+        if (names.size() + 1 == threadCombo.getItemCount()) {
+            return;
+        }
+
+        DefaultComboBoxModel<String> threadModel = new DefaultComboBoxModel<String>();
+        threadModel.addElement(tr("console.thread.all"));
+        for (String name : names) {
+            threadModel.addElement(name);
+        }
+        threadModel.setSelectedItem(selected);
+        threadCombo.setModel(threadModel);
+    }
+
+    /**
+     * Find the next or previous line containing the search text, starting
+     * from the selected line, and select it.
+     *
+     * @param forward true to search towards the end
+     */
+    private void search(boolean forward) {
+        final String query = searchField.getText();
+        if (query.isEmpty()) {
+            return;
+        }
+
+        if (searchWorker != null) {
+            searchWorker.cancel(true);
+        }
+
+        int selected = list.getSelectedIndex();
+        final int from = selected >= 0
+                ? model.getLine(selected) + (forward ? 1 : -1)
+                : (forward ? 0 : model.getLineCount() - 1);
+        final boolean searchForward = forward;
+        final byte minLevel = model.minLevel;
+        final String thread = model.thread;
+
+        searchWorker = new SwingWorker<Integer, Void>() {
             @Override
-            public void run() {
+            protected Integer doInBackground() {
+                return store.find(query, from, searchForward, minLevel, thread);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+
                 try {
-                    int offset = d.getLength();
-                    d.insertString(offset, line,
-                            (a != null && colorEnabled) ? a : defaultAttributes);
-                    t.setCaretPosition(d.getLength());
-                } catch (BadLocationException ble) {
-                
+                    int index = model.indexOf(get());
+                    if (index >= 0) {
+                        list.setSelectedIndex(index);
+                        list.ensureIndexIsVisible(index);
+                    } else {
+                        Toolkit.getDefaultToolkit().beep();
+                    }
+                } catch (InterruptedException ignored) {
+                } catch (ExecutionException e) {
+                    log.log(Level.WARNING, "Console search failed", e.getCause());
                 }
             }
-        });
+        };
+        searchWorker.execute();
     }
     
     /**
@@ -172,9 +418,22 @@ public class MessageLog extends JPanel {
      * will be in a separate daemon thread.
      * 
      * @param from stream to read
+     * @return the thread
+     */
+    public Thread consume(InputStream from) {
+        return consume(from, null, null);
+    }
+
+    /**
+     * Consume an input stream and print it to the dialog. The consumer
+     * will be in a separate daemon thread.
+     *
+     * @param from stream to read
+     * @param listener also called with every line, or null
+     * @return the thread
      */
-    public void consume(InputStream from) {
-        consume(from, getOutputStream());
+    public Thread consume(InputStream from, LineListener listener) {
+        return consume(from, null, listener);
     }
 
     /**
@@ -183,9 +442,12 @@ public class MessageLog extends JPanel {
      * 
      * @param from stream to read
      * @param color color to use
+     * @return the thread
      */
-    public void consume(InputStream from, Color color) {
-        consume(from, getOutputStream(color));
+    public Thread consume(InputStream from, Color color) {
+        SimpleAttributeSet attributes = new SimpleAttributeSet();
+        StyleConstants.setForeground(attributes, color);
+        return consume(from, attributes, null);
     }
 
     /**
@@ -194,41 +456,50 @@ public class MessageLog extends JPanel {
      * 
      * @param from stream to read
      * @param attributes attributes
+     * @return the thread
      */
-    public void consume(InputStream from, AttributeSet attributes) {
-        consume(from, getOutputStream(attributes));
+    public Thread consume(InputStream from, AttributeSet attributes) {
+        return consume(from, attributes, null);
     }
-    
+
     /**
-     * Internal method to consume a stream.
-     * 
-     * @param from stream to consume
-     * @param outputStream console stream to write to
+     * Consume an input stream and print it to the dialog. The consumer
+     * will be in a separate daemon thread. Lines are also written to the
+     * spool if one is set, or to standard output otherwise.
+     *
+     * @param from stream to read
+     * @param attributes attributes
+     * @param listener also called with every line, or null
+     * @return the thread, which ends once the stream has been read to the end
      */
-    private void consume(InputStream from, ConsoleOutputStream outputStream) {
-        final InputStream in = from;
-        final PrintWriter out = new PrintWriter(outputStream, true);
+    public Thread consume(final InputStream from, final AttributeSet attributes, final LineListener listener) {
         Thread thread = new Thread(new Runnable() {
             @Override
             public void run() {
-                byte[] buffer = new byte[1024];
+                BufferedReader reader = new BufferedReader(new InputStreamReader(from));
                 try {
-                    int len;
-                    while ((len = in.read(buffer)) != -1) {
-                        String s = new String(buffer, 0, len);
-                        System.out.print(s);
-                        out.append(s);
-                        out.flush();
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        LogSpool spool = getSpool();
+                        if (spool != null) {
+                            spool.write(line);
+                        } else {
+                            System.out.println(line);
+                        }
+                        if (listener != null) {
+                            listener.lineRead(line);
+                        }
+                        log(line + "\n", attributes);
                     }
                 } catch (IOException e) {
                 } finally {
-                    closeQuietly(in);
-                    closeQuietly(out);
+                    closeQuietly(reader);
                 }
             }
         });
         thread.setDaemon(true);
         thread.start();
+        return thread;
     }
 
     /**
@@ -249,6 +520,29 @@ public class MessageLog extends JPanel {
         }
     }
 
+    /**
+     * Release the store that holds the lines and delete its file. Lines
+     * logged after this are dropped. Called on the event dispatch thread.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        flushTimer.stop();
+        detachGlobalHandler();
+        if (searchWorker != null) {
+            searchWorker.cancel(true);
+        }
+
+        try {
+            store.close();
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to close the console store", e);
+        }
+    }
+
     public SimpleAttributeSet asDefault() {
         return defaultAttributes;
     }
@@ -299,6 +593,130 @@ public class MessageLog extends JPanel {
         }
     }
     
+    /**
+     * Exposes the lines of the store that pass the level and thread filters.
+     * Changes are only picked up on {@link #update()}, so the size the list
+     * sees only changes on the event dispatch thread.
+     */
+    private class LineListModel extends AbstractListModel<String> {
+        private byte minLevel = LineStore.LEVEL_UNKNOWN;
+        private String thread;
+        private int lineCount;
+        private int[] filtered;
+        private int filteredSize;
+
+        @Override
+        public int getSize() {
+            return filtered != null ? filteredSize : lineCount;
+        }
+
+        @Override
+        public String getElementAt(int index) {
+            return store.get(getLine(index));
+        }
+
+        private int getLine(int index) {
+            return filtered != null ? filtered[index] : index;
+        }
+
+        private int getLineCount() {
+            return lineCount;
+        }
+
+        /**
+         * Get the row that shows the given line.
+         *
+         * @param line the line number
+         * @return the row, or -1 if the line is not shown
+         */
+        private int indexOf(int line) {
+            if (line < 0 || line >= lineCount) {
+                return -1;
+            } else if (filtered == null) {
+                return line;
+            } else {
+                int index = Arrays.binarySearch(filtered, 0, filteredSize, line);
+                return index >= 0 ? index : -1;
+            }
+        }
+
+        private void setFilter(byte minLevel, String thread) {
+            this.minLevel = minLevel;
+            this.thread = thread;
+
+            if (minLevel == LineStore.LEVEL_UNKNOWN && thread == null) {
+                filtered = null;
+            } else {
+                filtered = new int[Math.max(16, lineCount / 4)];
+                filteredSize = 0;
+                addFiltered(0, lineCount);
+            }
+
+            fireContentsChanged(this, 0, Integer.MAX_VALUE);
+        }
+
+        private void update() {
+            int oldSize = getSize();
+            int count = store.size();
+            if (filtered != null) {
+                addFiltered(lineCount, count);
+            }
+            lineCount = count;
+
+            int newSize = getSize();
+            if (newSize > oldSize) {
+                fireIntervalAdded(this, oldSize, newSize - 1);
+            }
+        }
+
+        private void reset() {
+            int oldSize = getSize();
+            lineCount = 0;
+            filteredSize = 0;
+            if (oldSize > 0) {
+                fireIntervalRemoved(this, 0, oldSize - 1);
+            }
+        }
+
+        private void addFiltered(int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (store.matches(i, minLevel, thread)) {
+                    if (filteredSize == filtered.length) {
+                        filtered = Arrays.copyOf(filtered, filteredSize * 2);
+                    }
+                    filtered[filteredSize++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Colors each line by its style, or red for error lines.
+     */
+    private class LineRenderer extends DefaultListCellRenderer {
+        private LineRenderer() {
+            putClientProperty("html.disable", Boolean.TRUE);
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                      boolean isSelected, boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, false);
+
+            if (colorEnabled && !isSelected) {
+                int line = model.getLine(index);
+                AttributeSet attributes = styles.get(store.getStyle(line));
+                if (attributes.isDefined(StyleConstants.Foreground)) {
+                    setForeground(StyleConstants.getForeground(attributes));
+                } else if (store.getLevel(line) == LineStore.LEVEL_ERROR) {
+                    setForeground(StyleConstants.getForeground(errorAttributes));
+                }
+            }
+
+            return this;
+        }
+    }
+
     /**
      * Used to send console messages to the console.
      */
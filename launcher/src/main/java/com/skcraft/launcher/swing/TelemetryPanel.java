@@ -0,0 +1,120 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.swing;
+
+import com.skcraft.launcher.launch.ProcessTelemetry;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import static com.skcraft.launcher.util.SharedLocale.tr;
+
+/**
+ * Draws small live graphs of memory, CPU and GC pauses for the game process.
+ */
+public class TelemetryPanel extends JPanel implements ProcessTelemetry.Listener {
+
+    private static final int HISTORY_SIZE = 150;
+    private static final int GRAPH_HEIGHT = 60;
+    private static final Color MEMORY_COLOR = new Color(0, 120, 215);
+    private static final Color CPU_COLOR = new Color(0, 150, 60);
+    private static final Color GC_COLOR = new Color(200, 80, 0);
+
+    private final LinkedList<ProcessTelemetry.Sample> history = new LinkedList<ProcessTelemetry.Sample>();
+    private final JLabel statusLabel = new JLabel(" ");
+    private final Graphs graphs = new Graphs();
+
+    public TelemetryPanel() {
+        setLayout(new BorderLayout(0, 4));
+        setBorder(BorderFactory.createEmptyBorder(0, 8, 8, 8));
+        add(graphs, BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+    }
+
+    @Override
+    public void sampleTaken(final ProcessTelemetry.Sample sample) {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                history.addLast(sample);
+                while (history.size() > HISTORY_SIZE) {
+                    history.removeFirst();
+                }
+
+                statusLabel.setText(tr("console.telemetry.status",
+                        sample.getThreads(), sample.getOpenFiles(),
+                        sample.getReadBytes() / 1024 / 1024, sample.getWriteBytes() / 1024 / 1024));
+                graphs.repaint();
+            }
+        });
+    }
+
+    private class Graphs extends JComponent {
+        private Graphs() {
+            setPreferredSize(new Dimension(0, GRAPH_HEIGHT));
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+            int gap = 8;
+            int width = (getWidth() - gap * 2) / 3;
+            int height = getHeight();
+
+            List<Double> memory = new ArrayList<Double>();
+            List<Double> cpu = new ArrayList<Double>();
+            List<Double> gc = new ArrayList<Double>();
+            for (ProcessTelemetry.Sample sample : history) {
+                memory.add((double) sample.getRss());
+                cpu.add(sample.getCpu());
+                gc.add(sample.getGcPauseTime());
+            }
+
+            ProcessTelemetry.Sample last = history.isEmpty() ? null : history.getLast();
+            drawGraph(g2, 0, width, height, memory, MEMORY_COLOR,
+                    tr("console.telemetry.memory", last != null ? last.getRss() : 0));
+            drawGraph(g2, width + gap, width, height, cpu, CPU_COLOR,
+                    tr("console.telemetry.cpu", last != null ? Math.round(last.getCpu()) : 0));
+            drawGraph(g2, (width + gap) * 2, width, height, gc, GC_COLOR,
+                    tr("console.telemetry.gc", last != null ? Math.round(last.getGcPauseTime()) : 0));
+
+            g2.dispose();
+        }
+
+        private void drawGraph(Graphics2D g, int x, int width, int height, List<Double> values, Color color, String title) {
+            g.setColor(getBackground().darker());
+            g.drawRect(x, 0, width - 1, height - 1);
+
+            double max = 1;
+            for (double value : values) {
+                max = Math.max(max, value);
+            }
+
+            if (values.size() > 1) {
+                int count = values.size();
+                int[] xs = new int[count];
+                int[] ys = new int[count];
+                for (int i = 0; i < count; i++) {
+                    xs[i] = x + width - 1 - (count - 1 - i) * (width - 2) / (HISTORY_SIZE - 1);
+                    ys[i] = height - 2 - (int) (values.get(i) / max * (height - 4));
+                }
+
+                g.setColor(color);
+                g.drawPolyline(xs, ys, count);
+            }
+
+            g.setColor(getForeground());
+            g.drawString(title, x + 4, g.getFontMetrics().getAscent() + 2);
+        }
+    }
+
+}
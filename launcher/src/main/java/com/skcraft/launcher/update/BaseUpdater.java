@@ -19,14 +19,12 @@ import com.skcraft.launcher.install.*;
 import com.skcraft.launcher.model.loader.LoaderManifest;
 import com.skcraft.launcher.model.loader.LocalLoader;
 import com.skcraft.launcher.model.minecraft.*;
-import com.skcraft.launcher.model.modpack.DownloadableFile;
-import com.skcraft.launcher.model.modpack.Feature;
-import com.skcraft.launcher.model.modpack.Manifest;
-import com.skcraft.launcher.model.modpack.ManifestEntry;
+import com.skcraft.launcher.model.modpack.*;
 import com.skcraft.launcher.persistence.Persistence;
 import com.skcraft.launcher.util.Environment;
 import com.skcraft.launcher.util.FileUtils;
 import com.skcraft.launcher.util.HttpRequest;
+import com.skcraft.launcher.util.MorePaths;
 import com.skcraft.launcher.util.SharedLocale;
 import lombok.NonNull;
 import lombok.extern.java.Log;
@@ -79,65 +77,59 @@ public abstract class BaseUpdater {
 
     protected Manifest installPackage(@NonNull Installer installer, @NonNull Instance instance) throws Exception {
         final File contentDir = instance.getContentDir();
-        final File logPath = new File(instance.getDir(), "install_log.json");
-        final File cachePath = new File(instance.getDir(), "update_cache.json");
+        final File instanceDir = instance.getDir();
         final File featuresPath = new File(instance.getDir(), "features.json");
 
         // Make sure the temp dir exists
         installer.getTempDir().mkdirs();
 
-        final InstallLog previousLog = Persistence.read(logPath, InstallLog.class);
+        final InstallLog previousLog = InstallDataStore.readInstallLog(instanceDir);
         final InstallLog currentLog = new InstallLog();
         currentLog.setBaseDir(contentDir);
-        final UpdateCache updateCache = Persistence.read(cachePath, UpdateCache.class);
+        final UpdateCache updateCache = InstallDataStore.readUpdateCache(instanceDir);
         final FeatureCache featuresCache = Persistence.read(featuresPath, FeatureCache.class);
 
-        Manifest manifest = HttpRequest
+        // Save the manifest to disk first, so that it can be read as a stream
+        File manifestPath = instance.getManifestPath();
+        File manifestTemp = new File(manifestPath.getParentFile(), manifestPath.getName() + ".tmp");
+        HttpRequest
                 .get(instance.getManifestURL())
                 .execute()
                 .expectResponseCode(200)
-                .returnContent()
-                .saveContent(instance.getManifestPath())
-                .asJson(Manifest.class);
+                .saveContent(manifestTemp);
+        Files.move(manifestTemp.toPath(), manifestPath.toPath(), StandardCopyOption.REPLACE_EXISTING);
 
-        if (manifest.getMinimumVersion() > Launcher.PROTOCOL_VERSION) {
-            throw new LauncherException("Update required", SharedLocale.tr("errors.updateRequiredError"));
-        }
+        // Files start downloading as the tasks that need them are read
+        installer.startDownloads();
 
-        if (manifest.getBaseUrl() == null) {
-            manifest.setBaseUrl(instance.getManifestURL());
-        }
+        final HashMap<String, LocalLoader> loaders = Maps.newHashMap();
+        final InstallExtras extras = new InstallExtras(contentDir, loaders);
+        final List<ManifestEntry> loaderTasks = new ArrayList<ManifestEntry>();
 
-        final List<Feature> features = manifest.getFeatures();
-        if (!features.isEmpty()) {
-            for (Feature feature : features) {
-                Boolean last = featuresCache.getSelected().get(feature.getName());
-                if (last != null) {
-                    feature.setSelected(last);
+        ManifestStreamer streamer = new ManifestStreamer(manifestPath, instance.getManifestURL(), new ManifestStreamer.Handler() {
+            @Override
+            public void headerRead(Manifest header) throws Exception {
+                if (header.getMinimumVersion() > Launcher.PROTOCOL_VERSION) {
+                    throw new LauncherException("Update required", SharedLocale.tr("errors.updateRequiredError"));
                 }
-            }
 
-            Collections.sort(features);
+                selectFeatures(header.getFeatures(), featuresCache);
+            }
 
-            SwingUtilities.invokeLater(new Runnable() {
-                @Override
-                public void run() {
-                    new FeatureSelectionDialog(ProgressDialog.getLastDialog(), features, BaseUpdater.this)
-                            .setVisible(true);
+            @Override
+            public void taskRead(ManifestEntry entry) throws Exception {
+                if (entry instanceof FileInstall) {
+                    entry.install(installer, currentLog, updateCache, extras);
+                } else {
+                    // Other tasks may need the loaders, which are listed after the tasks
+                    loaderTasks.add(entry);
                 }
-            });
-
-            synchronized (this) {
-                this.wait();
             }
+        });
 
-            for (Feature feature : features) {
-                featuresCache.getSelected().put(Strings.nullToEmpty(feature.getName()), feature.isSelected());
-            }
-        }
+        Manifest manifest = streamer.read();
 
         // Download any extra processing files for each loader
-        HashMap<String, LocalLoader> loaders = Maps.newHashMap();
         for (Map.Entry<String, LoaderManifest> entry : manifest.getLoaders().entrySet()) {
             HashMap<String, DownloadableFile.LocalFile> localFilesMap = Maps.newHashMap();
 
@@ -148,27 +140,31 @@ public abstract class BaseUpdater {
                 localFilesMap.put(localFile.getName(), localFile);
             }
 
-            loaders.put(entry.getKey(), new LocalLoader(entry.getValue(), localFilesMap));
+            LocalLoader loader = new LocalLoader(entry.getValue(), localFilesMap);
+            installProcessorOutputs(installer, manifest, loader, updateCache);
+            loaders.put(entry.getKey(), loader);
         }
 
-        InstallExtras extras = new InstallExtras(contentDir, loaders);
-        for (ManifestEntry entry : manifest.getTasks()) {
+        for (ManifestEntry entry : loaderTasks) {
             entry.install(installer, currentLog, updateCache, extras);
         }
 
+        log.info("Read " + streamer.getTaskCount() + " task(s) from the manifest, " +
+                loaderTasks.size() + " of which waited for loaders");
+
         executeOnCompletion.add(new Runnable() {
             @Override
             public void run() {
-                for (Map.Entry<String, Set<String>> entry : previousLog.getEntrySet()) {
-                    for (String path : entry.getValue()) {
-                        if (!currentLog.has(path)) {
-                            new File(contentDir, path).delete();
-                        }
-                    }
+                for (String path : previousLog.getPathsNotIn(currentLog)) {
+                    new File(contentDir, path).delete();
                 }
 
-                writeDataFile(logPath, currentLog);
-                writeDataFile(cachePath, updateCache);
+                try {
+                    InstallDataStore.writeInstallLog(instanceDir, currentLog);
+                    InstallDataStore.writeUpdateCache(instanceDir, updateCache);
+                } catch (IOException e) {
+                    log.log(Level.WARNING, "Failed to write the install log for " + instanceDir.getAbsolutePath(), e);
+                }
                 writeDataFile(featuresPath, featuresCache);
             }
         });
@@ -176,6 +172,98 @@ public abstract class BaseUpdater {
         return manifest;
     }
 
+    /**
+     * Queue the pre-built outputs of a loader's processors, if the package
+     * has them, so that the processors do not have to run. Outputs that are
+     * already in the libraries directory are not downloaded again. Whether
+     * they are is told from the update cache if the file has not changed
+     * since it was installed, and from its hash otherwise.
+     *
+     * @param installer the installer
+     * @param manifest the manifest
+     * @param loader the loader
+     * @param updateCache the update cache of the instance
+     * @throws IOException on I/O error
+     */
+    private void installProcessorOutputs(Installer installer, Manifest manifest, LocalLoader loader,
+                                         UpdateCache updateCache) throws IOException {
+        List<DownloadableFile> outputs = loader.getManifest().getProcessorOutputs();
+        if (outputs == null || outputs.isEmpty()) {
+            return;
+        }
+
+        File librariesDir = launcher.getLibrariesDir();
+        for (DownloadableFile output : outputs) {
+            if (!MorePaths.isSubDirectory(librariesDir, new File(librariesDir, output.getName()))) {
+                log.warning("Ignoring the pre-built processor outputs, as " + output.getName() +
+                        " is outside of the libraries directory");
+                return;
+            }
+        }
+
+        loader.setProcessed(true);
+
+        for (DownloadableFile output : outputs) {
+            if (output.getSide() != Side.CLIENT) continue;
+
+            File target = new File(librariesDir, output.getName());
+            String cacheKey = "processorOutput:" + output.getName();
+            if (target.length() == output.getSize() && target.isFile()) {
+                String version = ProcessorOutputInstall.getCacheVersion(output.getHash(), target);
+                if (version.equals(updateCache.get(cacheKey))) {
+                    continue;
+                }
+                if (FileUtils.getShaHash(target).equals(output.getHash())) {
+                    updateCache.mark(cacheKey, version);
+                    continue;
+                }
+            }
+
+            DownloadableFile.LocalFile localFile = output.download(installer, manifest);
+            installer.queue(new ProcessorOutputInstall(localFile.getLocation(), target, output.getHash(), loader,
+                    updateCache, cacheKey));
+        }
+    }
+
+    /**
+     * Ask the user to pick features, starting from their last choices, and
+     * remember the choices.
+     *
+     * @param features the features, which may be empty
+     * @param featuresCache the last choices
+     * @throws InterruptedException if interrupted while waiting for the user
+     */
+    private void selectFeatures(final List<Feature> features, FeatureCache featuresCache) throws InterruptedException {
+        if (features.isEmpty()) {
+            return;
+        }
+
+        for (Feature feature : features) {
+            Boolean last = featuresCache.getSelected().get(feature.getName());
+            if (last != null) {
+                feature.setSelected(last);
+            }
+        }
+
+        Collections.sort(features);
+
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                new FeatureSelectionDialog(ProgressDialog.getLastDialog(), features, BaseUpdater.this)
+                        .setVisible(true);
+            }
+        });
+
+        synchronized (this) {
+            this.wait();
+        }
+
+        for (Feature feature : features) {
+            featuresCache.getSelected().put(Strings.nullToEmpty(feature.getName()), feature.isSelected());
+        }
+    }
+
     protected void installJar(@NonNull Installer installer,
                               @NonNull VersionManifest.Artifact artifact,
                               @NonNull File jarFile,
@@ -9,6 +9,7 @@ package com.skcraft.launcher.update;
 import com.skcraft.concurrency.ProgressObservable;
 import com.skcraft.launcher.Instance;
 import com.skcraft.launcher.LauncherUtils;
+import com.skcraft.launcher.install.InstallDataStore;
 import com.skcraft.launcher.persistence.Persistence;
 import lombok.NonNull;
 
@@ -44,7 +45,7 @@ public class HardResetter implements Callable<Instance>, ProgressObservable {
         instance.setUpdatePending(true);
         Persistence.commitAndForget(instance);
 
-        new File(instance.getDir(), "update_cache.json").delete();
+        InstallDataStore.deleteUpdateCache(instance.getDir());
 
         removeDir(new File(instance.getContentDir(), "config"));
         removeDir(new File(instance.getContentDir(), "mods"));
@@ -0,0 +1,206 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.update;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.skcraft.launcher.model.modpack.*;
+import com.skcraft.launcher.util.JsonCodec;
+import lombok.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a package manifest from a file and hands each task to a handler as
+ * soon as it has been read, so that no list of tasks is ever built.
+ *
+ * <p>Everything but the task list is collected as a tree. When the task
+ * list is reached, the fields read so far are given to the handler as the
+ * manifest header, which is where features are selected. Manifests written
+ * by the package builder list their features before their tasks; if a
+ * manifest does not, its tasks are held until the whole file has been read.</p>
+ *
+ * <p>Task conditions refer to features by name, and are resolved here
+ * against the features of the header, since each task is read on its
+ * own.</p>
+ */
+class ManifestStreamer {
+
+    private final File file;
+    private final URL baseUrl;
+    private final Handler handler;
+    private int taskCount;
+
+    /**
+     * Create a new streamer.
+     *
+     * @param file the manifest file
+     * @param baseUrl the URL to use if the manifest has no base URL
+     * @param handler the handler
+     */
+    public ManifestStreamer(@NonNull File file, @NonNull URL baseUrl, @NonNull Handler handler) {
+        this.file = file;
+        this.baseUrl = baseUrl;
+        this.handler = handler;
+    }
+
+    /**
+     * Read the manifest.
+     *
+     * @return the manifest, without its tasks
+     * @throws Exception on a read error or an error from the handler
+     */
+    public Manifest read() throws Exception {
+        ObjectNode header = JsonCodec.getMapper().createObjectNode();
+        Manifest streamedHeader = null;
+        List<JsonNode> heldTasks = null;
+
+        JsonParser parser = JsonCodec.getMapper().getFactory().createParser(file);
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("The manifest is not a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+
+                if (field.equals("tasks") && token == JsonToken.START_ARRAY) {
+                    if (header.has("features")) {
+                        streamedHeader = toManifest(header);
+                        handler.headerRead(streamedHeader);
+                        Map<String, Feature> features = indexFeatures(streamedHeader);
+
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            ObjectNode node = parser.readValueAsTree();
+                            handler.taskRead(toEntry(node, streamedHeader, features));
+                            taskCount++;
+                        }
+                    } else {
+                        heldTasks = new ArrayList<JsonNode>();
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            heldTasks.add(parser.<JsonNode>readValueAsTree());
+                        }
+                    }
+                } else {
+                    header.set(field, parser.<JsonNode>readValueAsTree());
+                }
+            }
+        } finally {
+            parser.close();
+        }
+
+        Manifest manifest = toManifest(header);
+
+        if (streamedHeader != null) {
+            // Keep the features that were selected
+            manifest.setFeatures(streamedHeader.getFeatures());
+        } else {
+            handler.headerRead(manifest);
+
+            if (heldTasks != null) {
+                Map<String, Feature> features = indexFeatures(manifest);
+                for (JsonNode node : heldTasks) {
+                    handler.taskRead(toEntry((ObjectNode) node, manifest, features));
+                    taskCount++;
+                }
+            }
+        }
+
+        return manifest;
+    }
+
+    /**
+     * Get the number of tasks read.
+     *
+     * @return the number of tasks
+     */
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    private Manifest toManifest(ObjectNode header) throws IOException {
+        Manifest manifest = JsonCodec.reader(Manifest.class).readValue(header);
+        if (manifest.getBaseUrl() == null) {
+            manifest.setBaseUrl(baseUrl);
+        }
+        return manifest;
+    }
+
+    private static Map<String, Feature> indexFeatures(Manifest manifest) {
+        Map<String, Feature> features = new HashMap<String, Feature>();
+        for (Feature feature : manifest.getFeatures()) {
+            features.put(feature.getName(), feature);
+        }
+        return features;
+    }
+
+    private static ManifestEntry toEntry(ObjectNode node, Manifest manifest, Map<String, Feature> features) throws IOException {
+        JsonNode when = node.remove("when");
+        ManifestEntry entry = JsonCodec.reader(ManifestEntry.class).readValue(node);
+        entry.setManifest(manifest);
+        entry.setWhen(toCondition(when, features));
+        return entry;
+    }
+
+    private static Condition toCondition(JsonNode when, Map<String, Feature> features) throws IOException {
+        if (when == null || when.isNull()) {
+            return null;
+        }
+
+        List<Feature> required = new ArrayList<Feature>();
+        for (JsonNode ref : when.path("features")) {
+            // A reference is the feature's name, unless the feature was written out in full
+            String name = ref.isObject() ? ref.path("name").asText() : ref.asText();
+            Feature feature = features.get(name);
+            if (feature == null) {
+                feature = new Feature(name, null, false);
+                features.put(name, feature);
+            }
+            required.add(feature);
+        }
+
+        String type = when.path("if").asText();
+        if (type.equals("requireAny")) {
+            return new RequireAny(required);
+        } else if (type.equals("requireAll")) {
+            return new RequireAll(required);
+        } else {
+            throw new IOException("Unknown task condition '" + type + "'");
+        }
+    }
+
+    /**
+     * Receives the parts of a manifest as they are read.
+     */
+    interface Handler {
+        /**
+         * Called once, before any task, with the fields read so far.
+         *
+         * @param header the manifest header
+         * @throws Exception on error
+         */
+        void headerRead(Manifest header) throws Exception;
+
+        /**
+         * Called for each task, in order.
+         *
+         * @param entry the task
+         * @throws Exception on error
+         */
+        void taskRead(ManifestEntry entry) throws Exception;
+    }
+
+}
@@ -51,7 +51,7 @@ public class UpdateManager {
     }
 
     public void checkForUpdate(final Window window) {
-        ListenableFuture<LatestVersionInfo> future = launcher.getExecutor().submit(new UpdateChecker(launcher));
+        ListenableFuture<LatestVersionInfo> future = launcher.getScheduler().getNetwork().submit(new UpdateChecker(launcher));
 
         Futures.addCallback(future, new FutureCallback<LatestVersionInfo>() {
             @Override
@@ -76,7 +76,7 @@ public class UpdateManager {
         if (url != null) {
             SelfUpdater downloader = new SelfUpdater(launcher, url);
             ObservableFuture<File> future = new ObservableFuture<File>(
-                    launcher.getExecutor().submit(downloader), downloader);
+                    launcher.getScheduler().getNetwork().submit(downloader), downloader);
 
             Futures.addCallback(future, new FutureCallback<File>() {
                 @Override
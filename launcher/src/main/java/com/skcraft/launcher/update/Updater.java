@@ -6,10 +6,8 @@
 
 package com.skcraft.launcher.update;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.skcraft.concurrency.DefaultProgress;
-import com.skcraft.concurrency.ProgressFilter;
-import com.skcraft.concurrency.ProgressObservable;
+import com.skcraft.concurrency.ProgressBus;
+import com.skcraft.concurrency.ProgressSource;
 import com.skcraft.launcher.Instance;
 import com.skcraft.launcher.Launcher;
 import com.skcraft.launcher.LauncherException;
@@ -20,6 +18,7 @@ import com.skcraft.launcher.model.minecraft.VersionManifest;
 import com.skcraft.launcher.model.modpack.Manifest;
 import com.skcraft.launcher.persistence.Persistence;
 import com.skcraft.launcher.util.HttpRequest;
+import com.skcraft.launcher.util.JsonCodec;
 import com.skcraft.launcher.util.SharedLocale;
 import lombok.Getter;
 import lombok.NonNull;
@@ -38,9 +37,8 @@ import java.util.logging.Level;
 import static com.skcraft.launcher.util.HttpRequest.url;
 
 @Log
-public class Updater extends BaseUpdater implements Callable<Instance>, ProgressObservable {
+public class Updater extends BaseUpdater implements Callable<Instance>, ProgressSource {
 
-    private final ObjectMapper mapper = new ObjectMapper();
     private final Installer installer;
     private final Launcher launcher;
     private final Instance instance;
@@ -51,7 +49,7 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
     private List<URL> librarySources = new ArrayList<URL>();
     private List<URL> assetsSources = new ArrayList<URL>();
 
-    private ProgressObservable progress = new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.preparingUpdate"));
+    @Getter private final ProgressBus progressBus = new ProgressBus();
 
     public Updater(@NonNull Launcher launcher, @NonNull Instance instance) {
         super(launcher);
@@ -60,6 +58,7 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
         this.launcher = launcher;
         this.instance = instance;
 
+        progressBus.publish(-1, SharedLocale.tr("instanceUpdater.preparingUpdate"));
         librarySources.add(launcher.propUrl("librariesSource"));
         assetsSources.add(launcher.propUrl("assetsSource"));
     }
@@ -88,7 +87,12 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
 
         if (updateDesired) {
             log.info("Updating " + instance.getTitle() + "...");
-            update(instance);
+            try {
+                update(instance);
+            } finally {
+                // Downloads start while the manifest is read, so stop them if the update failed
+                installer.cancelDownloads();
+            }
         } else {
             log.info("No update found for " + instance.getTitle());
         }
@@ -121,7 +125,7 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
             version.setAssetIndex(otherManifest.getAssetIndex());
         }
 
-        mapper.writeValue(instance.getVersionPath(), version);
+        JsonCodec.writer().writeValue(instance.getVersionPath(), version);
         return version;
     }
 
@@ -155,7 +159,7 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
 
         // Read manifest
         log.info("Reading package manifest...");
-        progress = new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.readingManifest"));
+        progressBus.publish(-1, SharedLocale.tr("instanceUpdater.readingManifest"));
         Manifest manifest = installPackage(installer, instance);
 
         // Update instance from manifest
@@ -163,10 +167,10 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
 
         // Read version manifest
         log.info("Reading version manifest...");
-        progress = new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.readingVersion"));
+        progressBus.publish(-1, SharedLocale.tr("instanceUpdater.readingVersion"));
         VersionManifest version = readVersionManifest(manifest);
 
-        progress = new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.buildingDownloadList"));
+        progressBus.publish(-1, SharedLocale.tr("instanceUpdater.buildingDownloadList"));
 
         // Install the .jar
         File jarPath = launcher.getJarPath(version);
@@ -184,20 +188,20 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
             librarySources.add(0, url);
         }
 
-        progress = new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.collectingLibraries"));
+        progressBus.publish(-1, SharedLocale.tr("instanceUpdater.collectingLibraries"));
         installLibraries(installer, manifest, launcher.getLibrariesDir(), librarySources);
 
         // Download assets
         log.info("Enumerating assets to download...");
-        progress = new DefaultProgress(-1, SharedLocale.tr("instanceUpdater.collectingAssets"));
+        progressBus.publish(-1, SharedLocale.tr("instanceUpdater.collectingAssets"));
         installAssets(installer, version, url(version.getAssetIndex().getUrl()), assetsSources);
 
         log.info("Executing download phase...");
-        progress = ProgressFilter.between(installer.getDownloader(), 0, 0.98);
+        progressBus.follow(installer.getDownloader(), 0, 0.98);
         installer.download();
 
         log.info("Executing install phase...");
-        progress = ProgressFilter.between(installer, 0.98, 1);
+        progressBus.follow(installer, 0.98, 1);
         installer.execute(launcher);
 
         installer.executeLate(launcher);
@@ -219,12 +223,12 @@ public class Updater extends BaseUpdater implements Callable<Instance>, Progress
 
     @Override
     public double getProgress() {
-        return progress.getProgress();
+        return progressBus.getProgress();
     }
 
     @Override
     public String getStatus() {
-        return progress.getStatus();
+        return progressBus.getStatus();
     }
 
 
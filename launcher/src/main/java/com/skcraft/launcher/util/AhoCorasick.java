@@ -0,0 +1,203 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.util;
+
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * Finds all occurrences of a fixed set of strings in a text in a single
+ * pass, using the Aho-Corasick automaton.
+ *
+ * <p>The cost of a search depends on the length of the text and the number
+ * of matches, not on the number of patterns. Instances are immutable and
+ * may be shared between threads.</p>
+ *
+ * @param <T> the type of value associated with each pattern
+ */
+public class AhoCorasick<T> {
+
+    private final char[] alphabet;
+    private final int[] asciiIndex;
+    private final int[] delta;
+    private final Object[][] outputs;
+
+    private AhoCorasick(char[] alphabet, int[] asciiIndex, int[] delta, Object[][] outputs) {
+        this.alphabet = alphabet;
+        this.asciiIndex = asciiIndex;
+        this.delta = delta;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Report every pattern that occurs in the text.
+     *
+     * @param text the text
+     * @param listener called for each occurrence, in order of where it ends
+     */
+    @SuppressWarnings("unchecked")
+    public void match(CharSequence text, MatchListener<T> listener) {
+        int width = alphabet.length;
+        int state = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            int index = indexOf(text.charAt(i));
+            if (index < 0) {
+                // No pattern contains this character
+                state = 0;
+                continue;
+            }
+
+            state = delta[state * width + index];
+
+            Object[] matched = outputs[state];
+            if (matched != null) {
+                for (Object value : matched) {
+                    listener.matched((T) value, i + 1);
+                }
+            }
+        }
+    }
+
+    private int indexOf(char c) {
+        return c < 128 ? asciiIndex[c] : Arrays.binarySearch(alphabet, c);
+    }
+
+    /**
+     * Called for each occurrence of a pattern.
+     *
+     * @param <T> the type of value
+     */
+    public interface MatchListener<T> {
+        /**
+         * Called when a pattern has been found.
+         *
+         * @param value the value of the pattern
+         * @param end the index in the text just after the occurrence
+         */
+        void matched(T value, int end);
+    }
+
+    /**
+     * Builds an automaton.
+     *
+     * <p>The trie is turned into a complete transition table over the
+     * characters that appear in the patterns, with failure links folded in,
+     * so matching takes one table lookup per character.</p>
+     *
+     * @param <T> the type of value associated with each pattern
+     */
+    public static class Builder<T> {
+        private final List<Map<Character, Integer>> trie = new ArrayList<Map<Character, Integer>>();
+        private final List<List<Object>> values = new ArrayList<List<Object>>();
+        private final SortedSet<Character> characters = new TreeSet<Character>();
+
+        public Builder() {
+            addNode();
+        }
+
+        private int addNode() {
+            trie.add(new HashMap<Character, Integer>());
+            values.add(new ArrayList<Object>());
+            return trie.size() - 1;
+        }
+
+        /**
+         * Add a pattern.
+         *
+         * @param pattern the text to find
+         * @param value the value to report for it
+         * @return this object
+         */
+        public Builder<T> add(@NonNull String pattern, @NonNull T value) {
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern");
+            }
+
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                characters.add(c);
+                Integer target = trie.get(state).get(c);
+                if (target == null) {
+                    target = addNode();
+                    trie.get(state).put(c, target);
+                }
+                state = target;
+            }
+            values.get(state).add(value);
+            return this;
+        }
+
+        /**
+         * Build the automaton.
+         *
+         * @return the automaton
+         */
+        public AhoCorasick<T> build() {
+            int size = trie.size();
+            char[] alphabet = new char[characters.size()];
+            int[] asciiIndex = new int[128];
+            Arrays.fill(asciiIndex, -1);
+
+            int width = 0;
+            for (char c : characters) {
+                if (c < 128) {
+                    asciiIndex[c] = width;
+                }
+                alphabet[width++] = c;
+            }
+
+            int[] delta = new int[size * width];
+            int[] fail = new int[size];
+            List<List<Object>> merged = new ArrayList<List<Object>>(values);
+
+            // Breadth-first, so that the row of a node's failure state is complete before the node's own
+            Deque<Integer> queue = new ArrayDeque<Integer>();
+            for (int i = 0; i < width; i++) {
+                Integer child = trie.get(0).get(alphabet[i]);
+                if (child != null) {
+                    delta[i] = child;
+                    queue.add(child);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                int f = fail[state];
+
+                // Patterns that are suffixes of this one also end here
+                if (!merged.get(f).isEmpty()) {
+                    List<Object> combined = new ArrayList<Object>(merged.get(state));
+                    combined.addAll(merged.get(f));
+                    merged.set(state, combined);
+                }
+
+                for (int i = 0; i < width; i++) {
+                    Integer child = trie.get(state).get(alphabet[i]);
+                    if (child != null) {
+                        delta[state * width + i] = child;
+                        fail[child] = delta[f * width + i];
+                        queue.add(child);
+                    } else {
+                        delta[state * width + i] = delta[f * width + i];
+                    }
+                }
+            }
+
+            Object[][] outputs = new Object[size][];
+            for (int state = 0; state < size; state++) {
+                List<Object> list = merged.get(state);
+                outputs[state] = list.isEmpty() ? null : list.toArray();
+            }
+
+            return new AhoCorasick<T>(alphabet, asciiIndex, delta, outputs);
+        }
+    }
+
+}
@@ -1,43 +1,75 @@
 package com.skcraft.launcher.util;
 
-import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
-import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
 import com.skcraft.launcher.model.modpack.DownloadableFile;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
 
 public class FileUtils {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Save a stream to the objects directory under its SHA-1 hash.
+	 *
+	 * <p>The stream is hashed as it is written to a temporary file in the
+	 * objects directory, so it is never held in memory. The file is then
+	 * moved to its hash path, or deleted if that object already exists.</p>
+	 *
+	 * @param stream the stream, which is read to the end but not closed
+	 * @param outputDir the objects directory
+	 * @return the object
+	 * @throws IOException on I/O error
+	 */
 	public static DownloadableFile saveStreamToObjectsDir(InputStream stream, File outputDir) throws IOException {
-		byte[] input = ByteStreams.toByteArray(stream);
-		HashFunction hf = Hashing.sha1();
+		outputDir.mkdirs();
+		File tempFile = File.createTempFile("object", ".tmp", outputDir);
+
+		try {
+			Hasher hasher = Hashing.sha1().newHasher();
+			long size = 0;
 
-		String fileHash = hf.hashBytes(input).toString();
-		String filePath = fileHash.substring(0, 2) + "/" + fileHash.substring(2, 4) + "/" + fileHash;
+			OutputStream out = new FileOutputStream(tempFile);
+			try {
+				byte[] buffer = new byte[BUFFER_SIZE];
+				int len;
+				while ((len = stream.read(buffer)) != -1) {
+					hasher.putBytes(buffer, 0, len);
+					out.write(buffer, 0, len);
+					size += len;
+				}
+			} finally {
+				out.close();
+			}
 
-		File dest = new File(outputDir, filePath);
-		dest.getParentFile().mkdirs();
+			String fileHash = hasher.hash().toString();
+			String filePath = fileHash.substring(0, 2) + "/" + fileHash.substring(2, 4) + "/" + fileHash;
 
-		Files.write(input, dest);
+			File dest = new File(outputDir, filePath);
+			if (dest.length() != size || !dest.isFile()) {
+				dest.getParentFile().mkdirs();
+				try {
+					java.nio.file.Files.move(tempFile.toPath(), dest.toPath(), StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					java.nio.file.Files.move(tempFile.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
 
-		DownloadableFile entry = new DownloadableFile();
-		entry.setLocation(filePath);
-		entry.setHash(fileHash);
-		entry.setSize(input.length);
+			DownloadableFile entry = new DownloadableFile();
+			entry.setLocation(filePath);
+			entry.setHash(fileHash);
+			entry.setSize((int) size);
 
-		return entry;
+			return entry;
+		} finally {
+			tempFile.delete();
+		}
 	}
 
 	public static String getShaHash(File file) throws IOException {
-		FileInputStream stream = new FileInputStream(file);
-		byte[] input = ByteStreams.toByteArray(stream);
-		String res = Hashing.sha1().hashBytes(input).toString();
-
-		stream.close();
-		return res;
+		return Files.hash(file, Hashing.sha1()).toString();
 	}
 }
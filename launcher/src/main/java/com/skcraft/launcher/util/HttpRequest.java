@@ -7,14 +7,13 @@
 package com.skcraft.launcher.util;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skcraft.concurrency.ProgressBus;
 import com.skcraft.concurrency.ProgressObservable;
 import lombok.Data;
 import lombok.Getter;
 import lombok.extern.java.Log;
 import okhttp3.*;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 import java.io.*;
@@ -42,7 +41,6 @@ public class HttpRequest implements Closeable, ProgressObservable {
             .followSslRedirects(true)
             .build();
 
-    private final ObjectMapper mapper = new ObjectMapper();
     private final Request.Builder builder = new Request.Builder();
     private final String method;
     
@@ -53,9 +51,10 @@ public class HttpRequest implements Closeable, ProgressObservable {
     private InputStream inputStream;
     private RequestBody requestBody;
     private long contentLength = -1;
-    private long readBytes = 0;
+    private volatile long readBytes = 0;
     
     private PartialDownloadInfo resumeInfo;
+    private ProgressBus progressBus;
 
     private HttpRequest(String method, URL url) {
         this.method = method;
@@ -64,7 +63,7 @@ public class HttpRequest implements Closeable, ProgressObservable {
     }
 
     public HttpRequest bodyJson(Object object) throws IOException {
-        String json = mapper.writeValueAsString(object);
+        String json = JsonCodec.writer().writeValueAsString(object);
         this.requestBody = RequestBody.create(json, MediaType.parse("application/json"));
         return this;
     }
@@ -160,6 +159,11 @@ public class HttpRequest implements Closeable, ProgressObservable {
         return response.code();
     }
 
+    public String getResponseHeader(String name) {
+        if (response == null) throw new IllegalArgumentException("No connection has been made");
+        return response.header(name);
+    }
+
     public boolean isSuccessCode() {
         return response != null && response.isSuccessful();
     }
@@ -206,6 +210,9 @@ public class HttpRequest implements Closeable, ProgressObservable {
             while ((len = inputStream.read(data, 0, READ_BUFFER_SIZE)) >= 0) {
                 out.write(data, 0, len);
                 readBytes += len;
+                if (progressBus != null) {
+                    progressBus.changed();
+                }
                 checkInterrupted();
             }
 
@@ -235,6 +242,17 @@ public class HttpRequest implements Closeable, ProgressObservable {
         return this;
     }
 
+    /**
+     * Set a bus to announce on whenever more of the content has been read.
+     *
+     * @param progressBus the bus, or null
+     * @return this object
+     */
+    public HttpRequest setProgressBus(ProgressBus progressBus) {
+        this.progressBus = progressBus;
+        return this;
+    }
+
     public boolean isResumedRequest() {
         return resumeInfo != null;
     }
@@ -271,6 +289,10 @@ public class HttpRequest implements Closeable, ProgressObservable {
         return new HttpRequest("POST", url);
     }
 
+    public static HttpRequest head(URL url) {
+        return new HttpRequest("HEAD", url);
+    }
+
     public static URL url(String url) {
         try {
             return new URL(url);
@@ -331,18 +353,17 @@ public class HttpRequest implements Closeable, ProgressObservable {
         }
 
         public <T> T asJson(Class<T> cls) throws IOException {
-            return mapper.readValue(asString("UTF-8"), cls);
+            return JsonCodec.read(data, cls);
         }
 
         public <T> T asJson(TypeReference<T> type) throws IOException {
-            return mapper.readValue(asString("UTF-8"), type);
+            return JsonCodec.read(data, type);
         }
 
         @SuppressWarnings("unchecked")
         public <T> T asXml(Class<T> cls) throws IOException {
             try {
-                JAXBContext context = JAXBContext.newInstance(cls);
-                Unmarshaller um = context.createUnmarshaller();
+                Unmarshaller um = JsonCodec.getJaxbContext(cls).createUnmarshaller();
                 return (T) um.unmarshal(new ByteArrayInputStream(data));
             } catch (JAXBException e) {
                 throw new IOException(e);
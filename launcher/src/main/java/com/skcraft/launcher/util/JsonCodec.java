@@ -0,0 +1,140 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.util;
+
+import com.fasterxml.jackson.core.PrettyPrinter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.NonNull;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The launcher's shared JSON and XML codecs.
+ *
+ * <p>Building an <code>ObjectMapper</code> or a <code>JAXBContext</code> is
+ * expensive, and so is the first use of a mapper for each type, so one
+ * mapper is shared and a reader is kept for each type that is read. Readers
+ * and writers are immutable and may be used from any thread. Content should
+ * be read from bytes or streams, which Jackson decodes itself, rather than
+ * from a string built first.</p>
+ */
+public final class JsonCodec {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectWriter writer = mapper.writer();
+    private static final ConcurrentMap<JavaType, ObjectReader> readers = new ConcurrentHashMap<JavaType, ObjectReader>();
+    private static final ConcurrentMap<Class<?>, JAXBContext> contexts = new ConcurrentHashMap<Class<?>, JAXBContext>();
+
+    private JsonCodec() {
+    }
+
+    /**
+     * Get the shared mapper. It must not be reconfigured.
+     *
+     * @return the mapper
+     */
+    public static ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * Get a reader for the given type.
+     *
+     * @param cls the class
+     * @return the reader
+     */
+    public static ObjectReader reader(@NonNull Class<?> cls) {
+        return reader(mapper.getTypeFactory().constructType(cls));
+    }
+
+    /**
+     * Get a reader for the given type.
+     *
+     * @param type the type
+     * @return the reader
+     */
+    public static ObjectReader reader(@NonNull TypeReference<?> type) {
+        return reader(mapper.getTypeFactory().constructType(type));
+    }
+
+    private static ObjectReader reader(JavaType type) {
+        ObjectReader reader = readers.get(type);
+        if (reader == null) {
+            reader = mapper.readerFor(type);
+            ObjectReader existing = readers.putIfAbsent(type, reader);
+            if (existing != null) {
+                reader = existing;
+            }
+        }
+        return reader;
+    }
+
+    /**
+     * Get the writer.
+     *
+     * @return the writer
+     */
+    public static ObjectWriter writer() {
+        return writer;
+    }
+
+    /**
+     * Get a writer that uses the given pretty printer.
+     *
+     * @param prettyPrinter the pretty printer, or null for compact output
+     * @return the writer
+     */
+    public static ObjectWriter writer(PrettyPrinter prettyPrinter) {
+        return prettyPrinter != null ? writer.with(prettyPrinter) : writer;
+    }
+
+    public static <T> T read(byte[] data, Class<T> cls) throws IOException {
+        return reader(cls).readValue(data);
+    }
+
+    public static <T> T read(byte[] data, TypeReference<T> type) throws IOException {
+        return reader(type).readValue(data);
+    }
+
+    public static <T> T read(InputStream in, Class<T> cls) throws IOException {
+        return reader(cls).readValue(in);
+    }
+
+    public static <T> T read(File file, Class<T> cls) throws IOException {
+        return reader(cls).readValue(file);
+    }
+
+    /**
+     * Get the JAXB context for the given class.
+     *
+     * @param cls the class
+     * @return the context
+     * @throws JAXBException if the context could not be created
+     */
+    public static JAXBContext getJaxbContext(@NonNull Class<?> cls) throws JAXBException {
+        JAXBContext context = contexts.get(cls);
+        if (context == null) {
+            context = JAXBContext.newInstance(cls);
+            JAXBContext existing = contexts.putIfAbsent(cls, context);
+            if (existing != null) {
+                context = existing;
+            }
+        }
+        return context;
+    }
+
+}
@@ -0,0 +1,21 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.util;
+
+/**
+ * Receives lines read from a stream.
+ */
+public interface LineListener {
+
+    /**
+     * Called for each line, from the thread reading the stream.
+     *
+     * @param line the line, without a line terminator
+     */
+    void lineRead(String line);
+
+}
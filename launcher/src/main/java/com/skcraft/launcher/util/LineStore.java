@@ -0,0 +1,410 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.util;
+
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.java.Log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An append-only store of log lines kept in a temporary file, with only
+ * offsets and a few bytes of metadata per line held on the heap.
+ *
+ * <p>Every line is tagged with a log level and a thread, parsed from the
+ * game's log format or the launcher's, and inherited from the previous line
+ * for continuation lines such as stack traces. For search, lines are grouped
+ * into blocks of {@link #BLOCK_SIZE} and each block keeps a Bloom filter of
+ * the lower-cased trigrams it contains, built as lines are appended. A search
+ * only reads the blocks whose filter may contain every trigram of the query.</p>
+ *
+ * <p>All methods are thread-safe.</p>
+ */
+@Log
+public class LineStore implements Closeable {
+
+    public static final byte LEVEL_UNKNOWN = 0;
+    public static final byte LEVEL_DEBUG = 1;
+    public static final byte LEVEL_INFO = 2;
+    public static final byte LEVEL_WARN = 3;
+    public static final byte LEVEL_ERROR = 4;
+
+    private static final int BLOCK_SIZE = 128;
+    private static final int BLOOM_BITS = 16384;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final Pattern GAME_LINE_PATTERN = Pattern.compile("^\\[[^\\]]*\\] \\[([^\\]]+)/([A-Z]+)\\]");
+    private static final Pattern LAUNCHER_LINE_PATTERN = Pattern.compile("^\\[([a-z]+)\\] ");
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    private final Cache<Integer, String> lineCache = CacheBuilder.newBuilder().maximumSize(2048).build();
+
+    private long written;
+    private long[] offsets = new long[4096];
+    private byte[] levels = new byte[4096];
+    private byte[] styles = new byte[4096];
+    private short[] threads = new short[4096];
+    private int size;
+    private boolean closed;
+    private final List<long[]> blooms = new ArrayList<long[]>();
+    private final List<String> threadNames = new ArrayList<String>();
+    private final Map<String, Short> threadIds = new HashMap<String, Short>();
+
+    /**
+     * Create a new store backed by a temporary file.
+     *
+     * @throws IOException on I/O error
+     */
+    public LineStore() throws IOException {
+        file = File.createTempFile("console", ".log");
+        file.deleteOnExit();
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+        threadNames.add("");
+    }
+
+    /**
+     * Append a line.
+     *
+     * @param line the line, without a line terminator
+     * @param style an index into the caller's list of styles
+     */
+    public synchronized void append(String line, int style) {
+        if (closed) {
+            return;
+        }
+
+        byte level = LEVEL_UNKNOWN;
+        short thread = 0;
+
+        Matcher m = GAME_LINE_PATTERN.matcher(line);
+        if (m.find()) {
+            level = parseLevel(m.group(2));
+            thread = getThreadId(m.group(1));
+        } else if ((m = LAUNCHER_LINE_PATTERN.matcher(line)).find()) {
+            level = parseLevel(m.group(1));
+        } else if (size > 0) {
+            level = levels[size - 1];
+            thread = threads[size - 1];
+        }
+
+        if (size == offsets.length) {
+            int capacity = size * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            styles = Arrays.copyOf(styles, capacity);
+            threads = Arrays.copyOf(threads, capacity);
+        }
+
+        offsets[size] = written;
+        levels[size] = level;
+        styles[size] = (byte) style;
+        threads[size] = thread;
+
+        if (size % BLOCK_SIZE == 0) {
+            blooms.add(new long[BLOOM_BITS / 64]);
+        }
+        long[] bloom = blooms.get(blooms.size() - 1);
+        String lower = line.toLowerCase(Locale.ROOT);
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            addTrigram(bloom, lower, i);
+        }
+
+        try {
+            write(line.getBytes(Charsets.UTF_8));
+            write(new byte[] { '\n' });
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to write to console store", e);
+        }
+
+        size++;
+    }
+
+    /**
+     * Get the number of lines.
+     *
+     * @return the number of lines
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Get a line.
+     *
+     * <p>The cache is checked and filled under the store's lock, so that a
+     * line read before {@link #clear()} is not cached for the lines after.</p>
+     *
+     * @param index the line number
+     * @return the line
+     */
+    public synchronized String get(int index) {
+        String line = lineCache.getIfPresent(index);
+        if (line == null) {
+            line = read(index);
+            lineCache.put(index, line);
+        }
+        return line;
+    }
+
+    public synchronized byte getLevel(int index) {
+        return levels[index];
+    }
+
+    public synchronized int getStyle(int index) {
+        return styles[index];
+    }
+
+    public synchronized String getThread(int index) {
+        return threadNames.get(threads[index]);
+    }
+
+    /**
+     * Get the names of all threads seen so far.
+     *
+     * @return a list of thread names
+     */
+    public synchronized List<String> getThreadNames() {
+        return new ArrayList<String>(threadNames.subList(1, threadNames.size()));
+    }
+
+    /**
+     * Check whether a line passes the given filters.
+     *
+     * @param index the line number
+     * @param minLevel the minimum level, or {@link #LEVEL_UNKNOWN} for any
+     * @param thread the thread name, or null for any
+     * @return true if the line matches
+     */
+    public synchronized boolean matches(int index, byte minLevel, String thread) {
+        if (minLevel != LEVEL_UNKNOWN && levels[index] < minLevel) {
+            return false;
+        }
+
+        return thread == null || threadNames.get(threads[index]).equals(thread);
+    }
+
+    /**
+     * Find the next line containing the query, ignoring case.
+     *
+     * @param query the text to find
+     * @param from the line to start at, inclusive
+     * @param forward true to search towards the end
+     * @param minLevel the minimum level, or {@link #LEVEL_UNKNOWN} for any
+     * @param thread the thread name, or null for any
+     * @return the line number, or -1 if not found
+     */
+    public int find(String query, int from, boolean forward, byte minLevel, String thread) {
+        String lower = query.toLowerCase(Locale.ROOT);
+        int count = size();
+        int step = forward ? 1 : -1;
+        int i = Math.max(0, Math.min(from, count - 1));
+
+        while (i >= 0 && i < count) {
+            if (Thread.currentThread().isInterrupted()) {
+                return -1;
+            }
+
+            int block = i / BLOCK_SIZE;
+            if (!mayContain(block, lower)) {
+                i = forward ? (block + 1) * BLOCK_SIZE : block * BLOCK_SIZE - 1;
+                continue;
+            }
+
+            if (matches(i, minLevel, thread) && get(i).toLowerCase(Locale.ROOT).contains(lower)) {
+                return i;
+            }
+
+            i += step;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Write all lines to the given writer.
+     *
+     * @param writer the writer
+     * @param redact a pattern whose matches are replaced with its first group followed by
+     *               <code>[redacted]</code>, or null
+     * @throws IOException on I/O error
+     */
+    public void export(Writer writer, Pattern redact) throws IOException {
+        int count = size();
+        for (int i = 0; i < count; i++) {
+            String line = read(i);
+            if (redact != null) {
+                line = redact.matcher(line).replaceAll("$1[redacted]");
+            }
+            writer.write(line);
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Remove all lines.
+     */
+    public synchronized void clear() {
+        try {
+            writeBuffer.clear();
+            channel.truncate(0);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to clear console store", e);
+        }
+
+        written = 0;
+        size = 0;
+        blooms.clear();
+        lineCache.invalidateAll();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        randomAccessFile.close();
+        file.delete();
+    }
+
+    private synchronized String read(int index) {
+        if (closed || index < 0 || index >= size) {
+            return "";
+        }
+
+        long start = offsets[index];
+        long end = index + 1 < size ? offsets[index + 1] : written;
+        // Leave out the line terminator
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start - 1));
+
+        try {
+            flushWrites();
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to read from console store", e);
+            return "";
+        }
+
+        return new String(buffer.array(), 0, buffer.position(), Charsets.UTF_8);
+    }
+
+    private void write(byte[] data) throws IOException {
+        if (data.length > writeBuffer.remaining()) {
+            flushWrites();
+        }
+
+        if (data.length > writeBuffer.capacity()) {
+            channel.write(ByteBuffer.wrap(data), written);
+        } else {
+            writeBuffer.put(data);
+        }
+
+        written += data.length;
+    }
+
+    private void flushWrites() throws IOException {
+        if (writeBuffer.position() == 0) {
+            return;
+        }
+
+        writeBuffer.flip();
+        long position = written - writeBuffer.remaining();
+        while (writeBuffer.hasRemaining()) {
+            position += channel.write(writeBuffer, position);
+        }
+        writeBuffer.clear();
+    }
+
+    private synchronized boolean mayContain(int block, String query) {
+        if (block >= blooms.size()) {
+            return false;
+        }
+
+        long[] bloom = blooms.get(block);
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            int hash = trigramHash(query, i);
+            if (!isSet(bloom, hash) || !isSet(bloom, hash >>> 16)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void addTrigram(long[] bloom, String text, int offset) {
+        int hash = trigramHash(text, offset);
+        set(bloom, hash);
+        set(bloom, hash >>> 16);
+    }
+
+    private static int trigramHash(String text, int offset) {
+        int h = text.charAt(offset) * 961 + text.charAt(offset + 1) * 31 + text.charAt(offset + 2);
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 15);
+    }
+
+    private static void set(long[] bloom, int hash) {
+        int bit = hash & (BLOOM_BITS - 1);
+        bloom[bit >>> 6] |= 1L << bit;
+    }
+
+    private static boolean isSet(long[] bloom, int hash) {
+        int bit = hash & (BLOOM_BITS - 1);
+        return (bloom[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private short getThreadId(String name) {
+        Short id = threadIds.get(name);
+        if (id == null) {
+            if (threadNames.size() > Short.MAX_VALUE) {
+                return 0;
+            }
+            id = (short) threadNames.size();
+            threadNames.add(name);
+            threadIds.put(name, id);
+        }
+        return id;
+    }
+
+    private static byte parseLevel(String name) {
+        String upper = name.toUpperCase(Locale.ROOT);
+        if (upper.equals("ERROR") || upper.equals("FATAL") || upper.equals("SEVERE")) {
+            return LEVEL_ERROR;
+        } else if (upper.startsWith("WARN")) {
+            return LEVEL_WARN;
+        } else if (upper.equals("INFO")) {
+            return LEVEL_INFO;
+        } else if (upper.equals("DEBUG") || upper.equals("TRACE") || upper.startsWith("FINE")
+                || upper.equals("CONFIG")) {
+            return LEVEL_DEBUG;
+        }
+        return LEVEL_UNKNOWN;
+    }
+
+}
@@ -0,0 +1,293 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.util;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.*;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes lines of game output to rotating log files on a dedicated thread.
+ *
+ * <p>Callers only put lines on a bounded queue, and never wait on the disk:
+ * if the queue is full, lines are dropped and counted. The writer thread
+ * drains the queue in batches through a large buffer, flushes whenever the
+ * queue runs empty, and starts a new segment once the current one is too
+ * large or too old. Closed segments are compressed with gzip in the
+ * background, and only the newest {@link #MAX_SEGMENTS} are kept.</p>
+ */
+@Log
+public class LogSpool implements Closeable {
+
+    public static final long MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+    public static final long MAX_SEGMENT_AGE = TimeUnit.HOURS.toMillis(1);
+    private static final int MAX_SEGMENTS = 50;
+    private static final int QUEUE_CAPACITY = 65536;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final String PREFIX = "console-";
+    private static final String EXTENSION = ".log";
+    private static final String COMPRESSED_EXTENSION = ".log.gz";
+
+    private static final ExecutorService compressor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("Log compressor")
+            .setPriority(Thread.MIN_PRIORITY)
+            .setDaemon(true)
+            .build());
+
+    private final File dir;
+    private final String sessionName;
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<String>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writerThread;
+    private PrintStream echo;
+    private volatile boolean closed;
+
+    private Writer writer;
+    private File segment;
+    private int segmentIndex;
+    private long segmentSize;
+    private long segmentStarted;
+
+    /**
+     * Create a new spool and start its writer thread.
+     *
+     * @param dir the directory to write segments to
+     */
+    public LogSpool(@NonNull File dir) {
+        this.dir = dir;
+        this.sessionName = PREFIX + new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
+
+        dir.mkdirs();
+        compressLeftovers();
+
+        writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "Log spool " + dir.getName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Also write every line to the given stream, from the writer thread.
+     *
+     * @param echo the stream, or null
+     */
+    public synchronized void setEcho(PrintStream echo) {
+        this.echo = echo;
+    }
+
+    private synchronized PrintStream getEcho() {
+        return echo;
+    }
+
+    /**
+     * Queue a line to be written. This never blocks.
+     *
+     * @param line the line, without a line terminator
+     */
+    public void write(String line) {
+        if (closed || !queue.offer(line)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Write out everything queued, close the current segment and stop the
+     * writer thread. The segment is then compressed in the background.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        writerThread.interrupt();
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<String> batch = new ArrayList<String>();
+
+        try {
+            while (!closed || !queue.isEmpty()) {
+                if (queue.drainTo(batch) == 0) {
+                    if (writer != null) {
+                        writer.flush();
+                    }
+                    try {
+                        batch.add(queue.take());
+                    } catch (InterruptedException e) {
+                        continue; // Closing, so write out what is left
+                    }
+                }
+
+                writeBatch(batch);
+                batch.clear();
+            }
+
+            closeSegment();
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to write game log in " + dir.getAbsolutePath(), e);
+            closed = true;
+            try {
+                closeSegment();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void writeBatch(List<String> batch) throws IOException {
+        long now = System.currentTimeMillis();
+        if (writer == null || segmentSize >= MAX_SEGMENT_SIZE || now - segmentStarted >= MAX_SEGMENT_AGE) {
+            closeSegment();
+            openSegment(now);
+        }
+
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            writeLine("(" + lost + " lines were not written because the log could not keep up)");
+        }
+
+        StringBuilder echoed = null;
+        PrintStream echo = getEcho();
+        if (echo != null) {
+            echoed = new StringBuilder();
+        }
+
+        for (String line : batch) {
+            writeLine(line);
+            if (echoed != null) {
+                echoed.append(line).append('\n');
+            }
+        }
+
+        if (echoed != null) {
+            echo.print(echoed);
+        }
+    }
+
+    private void writeLine(String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+        // Close enough for rotation, without encoding twice
+        segmentSize += line.length() + 1;
+    }
+
+    private void openSegment(long now) throws IOException {
+        segment = new File(dir, String.format("%s-%03d%s", sessionName, ++segmentIndex, EXTENSION));
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(segment), Charsets.UTF_8), BUFFER_SIZE);
+        segmentSize = 0;
+        segmentStarted = now;
+    }
+
+    private void closeSegment() throws IOException {
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.close();
+        } finally {
+            writer = null;
+            compress(segment);
+        }
+    }
+
+    /**
+     * Compress segments left behind by a session that did not close its spool.
+     */
+    private void compressLeftovers() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith(PREFIX) && file.getName().endsWith(EXTENSION)) {
+                    compress(file);
+                }
+            }
+        }
+    }
+
+    private void compress(final File file) {
+        compressor.submit(new Runnable() {
+            @Override
+            public void run() {
+                File target = new File(file.getParentFile(), file.getName() + ".gz");
+                File temp = new File(file.getParentFile(), target.getName() + ".tmp");
+
+                try {
+                    InputStream in = new FileInputStream(file);
+                    try {
+                        OutputStream out = new GZIPOutputStream(new FileOutputStream(temp), BUFFER_SIZE);
+                        try {
+                            ByteStreams.copy(in, out);
+                        } finally {
+                            out.close();
+                        }
+                    } finally {
+                        in.close();
+                    }
+
+                    target.delete();
+                    if (!temp.renameTo(target)) {
+                        throw new IOException("Failed to rename " + temp.getAbsolutePath() + " to " + target.getAbsolutePath());
+                    }
+                    file.delete();
+                } catch (IOException e) {
+                    log.log(Level.WARNING, "Failed to compress " + file.getAbsolutePath(), e);
+                    temp.delete();
+                }
+
+                removeOldSegments();
+            }
+        });
+    }
+
+    private void removeOldSegments() {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        List<File> segments = new ArrayList<File>();
+        for (File file : files) {
+            if (file.getName().startsWith(PREFIX) && file.getName().endsWith(COMPRESSED_EXTENSION)) {
+                segments.add(file);
+            }
+        }
+
+        if (segments.size() > MAX_SEGMENTS) {
+            File[] sorted = segments.toArray(new File[segments.size()]);
+            // Names start with the session's timestamp
+            Arrays.sort(sorted);
+            for (int i = 0; i < sorted.length - MAX_SEGMENTS; i++) {
+                sorted[i].delete();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.util;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.skcraft.launcher.persistence.Persistence;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Records how long each step of launcher startup takes, measured from the
+ * time the JVM was started.
+ *
+ * <p>Steps may be timed on any thread, including work that was deferred
+ * until after the first window was shown. There is one trace per JVM.</p>
+ */
+@Log
+public final class StartupTrace {
+
+    private static final StartupTrace instance = new StartupTrace();
+
+    private final long origin;
+    private final List<Entry> entries = new ArrayList<Entry>();
+    private long firstFrame = -1;
+
+    private StartupTrace() {
+        long origin;
+        try {
+            origin = ManagementFactory.getRuntimeMXBean().getStartTime();
+        } catch (Throwable t) {
+            origin = System.currentTimeMillis();
+        }
+        this.origin = origin;
+    }
+
+    /**
+     * Get the trace for this JVM.
+     *
+     * @return the trace
+     */
+    public static StartupTrace getInstance() {
+        return instance;
+    }
+
+    /**
+     * Start timing a step.
+     *
+     * @param name the name of the step
+     * @return the step, which must be ended
+     */
+    public Step begin(@NonNull String name) {
+        return new Step(name, elapsed());
+    }
+
+    /**
+     * Time a step that is run right away.
+     *
+     * @param name the name of the step
+     * @param runnable the step
+     */
+    public void time(@NonNull String name, @NonNull Runnable runnable) {
+        Step step = begin(name);
+        try {
+            runnable.run();
+        } finally {
+            step.end();
+        }
+    }
+
+    /**
+     * Record that the first window has been shown. Only the first call has
+     * any effect.
+     *
+     * @return true if this was the first call
+     */
+    public synchronized boolean markFirstFrame() {
+        if (firstFrame >= 0) {
+            return false;
+        }
+
+        firstFrame = elapsed();
+        log.info("Time to first frame: " + firstFrame + " ms");
+        return true;
+    }
+
+    /**
+     * Get a copy of everything recorded so far.
+     *
+     * @return the report
+     */
+    public synchronized Report getReport() {
+        Report report = new Report();
+        report.setJvmStarted(new Date(origin));
+        report.setFirstFrame(firstFrame >= 0 ? firstFrame : null);
+        report.setSteps(new ArrayList<Entry>(entries));
+        return report;
+    }
+
+    /**
+     * Write the report to a file, logging any error.
+     *
+     * @param file the file
+     */
+    public void writeReport(@NonNull File file) {
+        try {
+            Persistence.write(file, getReport(), Persistence.L2F_LIST_PRETTY_PRINTER);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to write the startup report to " + file.getAbsolutePath(), e);
+        }
+    }
+
+    private long elapsed() {
+        return System.currentTimeMillis() - origin;
+    }
+
+    private synchronized void add(Entry entry) {
+        entries.add(entry);
+    }
+
+    /**
+     * A step that is being timed.
+     */
+    public final class Step {
+        private final String name;
+        private final long start;
+        private final String thread = Thread.currentThread().getName();
+        private boolean ended;
+
+        private Step(String name, long start) {
+            this.name = name;
+            this.start = start;
+        }
+
+        /**
+         * Stop timing the step. Further calls have no effect.
+         */
+        public void end() {
+            if (ended) {
+                return;
+            }
+            ended = true;
+
+            Entry entry = new Entry();
+            entry.setName(name);
+            entry.setThread(thread);
+            entry.setStart(start);
+            entry.setDuration(elapsed() - start);
+            add(entry);
+
+            log.fine("Startup step '" + name + "' took " + entry.getDuration() + " ms");
+        }
+    }
+
+    @Data
+    public static class Entry {
+        private String name;
+        private String thread;
+        private long start;
+        private long duration;
+    }
+
+    @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Report {
+        private Date jvmStarted;
+        private Long firstFrame;
+        private List<Entry> steps;
+    }
+
+}
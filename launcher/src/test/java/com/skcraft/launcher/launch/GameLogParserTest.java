@@ -0,0 +1,83 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks what {@link GameLogParser} adds to a {@link LogSummary} for
+ * typical lines of game output.
+ */
+public class GameLogParserTest {
+
+    @Test
+    public void testPatternLayout() {
+        LogSummary summary = parse(
+                "[12:00:00] [main/INFO] [minecraft/Minecraft]: Setting user: Player",
+                "[12:00:01] [Render thread/WARN]: Missing sound for event",
+                "[12:00:02] [Server thread/ERROR] [FML]: Something failed",
+                "java.lang.RuntimeException: oops",
+                "\tat Example.run(Example.java:1)");
+
+        assertEquals(5, summary.getLines());
+        assertEquals(3, summary.getEvents());
+        assertEquals(Long.valueOf(1), summary.getLevels().get("INFO"));
+        assertEquals(Long.valueOf(1), summary.getLevels().get("WARN"));
+        assertEquals(Long.valueOf(1), summary.getLevels().get("ERROR"));
+        assertEquals(Collections.singletonMap("FML", 1L), summary.getWarningsByLogger());
+    }
+
+    @Test
+    public void testXmlLayout() {
+        LogSummary summary = parse(
+                "<log4j:Event logger=\"net.minecraft.client.Minecraft\" timestamp=\"1\" level=\"WARN\" thread=\"main\">",
+                "  <log4j:Message><![CDATA[Something]]></log4j:Message>",
+                "</log4j:Event>",
+                "<log4j:Event logger=\"FML\" level=\"INFO\" thread=\"main\"></log4j:Event>");
+
+        assertEquals(2, summary.getEvents());
+        assertEquals(Long.valueOf(1), summary.getLevels().get("WARN"));
+        assertEquals(Long.valueOf(1), summary.getLevels().get("INFO"));
+        assertEquals(Collections.singletonMap("net.minecraft.client.Minecraft", 1L), summary.getWarningsByLogger());
+    }
+
+    @Test
+    public void testSignals() {
+        LogSummary summary = parse(
+                "[12:00:00] [Server thread/WARN]: Can't keep up! Is the server overloaded? Running 2003ms or 40 ticks behind",
+                "[12:00:05] [Server thread/WARN]: Can't keep up! Is the server overloaded? Running 500ms or 10 ticks behind",
+                "[12:00:06] [main/INFO] [FML]: Bar Finished: Loading took 12.345s",
+                "[12:00:07] [main/INFO] [FML]: Bar Finished: Construction took 0.5s",
+                "Exception in thread \"main\" java.lang.OutOfMemoryError: Java heap space",
+                "[12:00:08] [main/INFO]: Crash report saved to: ./crash-reports/crash.txt",
+                "#@!@# Game crashed! Crash report saved to: ./crash-reports/crash.txt");
+
+        assertEquals(Long.valueOf(2), summary.getSignals().get(PerformanceSignal.TICK_LAG));
+        assertEquals(2503, summary.getTickLagTotal());
+        assertEquals(2003, summary.getTickLagMax());
+        assertEquals(Long.valueOf(1), summary.getSignals().get(PerformanceSignal.SLOW_MOD_INIT));
+        assertEquals(Arrays.asList("Loading took 12.345s"), summary.getSlowModInit());
+        assertEquals(Long.valueOf(1), summary.getSignals().get(PerformanceSignal.OUT_OF_MEMORY));
+        assertEquals(Long.valueOf(2), summary.getSignals().get(PerformanceSignal.CRASH_REPORT));
+        assertEquals(Arrays.asList("./crash-reports/crash.txt"), summary.getCrashReports());
+    }
+
+    private static LogSummary parse(String... lines) {
+        LogSummary summary = new LogSummary();
+        GameLogParser parser = new GameLogParser(summary);
+        for (String line : lines) {
+            parser.lineRead(line);
+        }
+        return summary;
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch;
+
+import com.skcraft.launcher.model.modpack.LaunchRequirements;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the profile, collector and heap flags that {@link JvmTuner} picks
+ * for a given runtime, machine and pack.
+ */
+public class JvmTunerTest {
+
+    @Test
+    public void testResolveAuto() {
+        LaunchRequirements lowLatency = requirements(0, 0, false, true);
+
+        assertEquals(TuningProfile.LOW_LATENCY, new JvmTuner(TuningProfile.AUTO, 17, 4, lowLatency).getProfile());
+        assertEquals(TuningProfile.BALANCED, new JvmTuner(TuningProfile.AUTO, 11, 4, lowLatency).getProfile());
+        assertEquals(TuningProfile.BALANCED, new JvmTuner(TuningProfile.AUTO, 17, 2, lowLatency).getProfile());
+        assertEquals(TuningProfile.BALANCED, new JvmTuner(TuningProfile.AUTO, 17, 8, null).getProfile());
+        assertEquals(TuningProfile.NONE, new JvmTuner(TuningProfile.NONE, 17, 8, lowLatency).getProfile());
+    }
+
+    @Test
+    public void testNoneAddsNothing() {
+        JavaProcessBuilder builder = apply(new JvmTuner(TuningProfile.NONE, 17, 8, 16384, requirements(8192, 0, true, true)), 2048);
+
+        assertEquals(Collections.<String>emptyList(), builder.getFlags());
+        assertEquals(2048, builder.getMaxMemory());
+    }
+
+    @Test
+    public void testBalanced() {
+        List<String> flags = apply(new JvmTuner(TuningProfile.BALANCED, 17, 8, null), 4096).getFlags();
+
+        assertEquals(Arrays.asList("-XX:+UseG1GC", "-XX:MaxGCPauseMillis=100", "-XX:G1HeapRegionSize=8M",
+                "-XX:+ParallelRefProcEnabled", "-XX:ParallelGCThreads=6", "-XX:ConcGCThreads=2"), flags);
+    }
+
+    @Test
+    public void testLowLatency() {
+        assertEquals(Arrays.asList("-XX:+UseZGC", "-XX:+ZGenerational", "-XX:ParallelGCThreads=3", "-XX:ConcGCThreads=1"),
+                apply(new JvmTuner(TuningProfile.LOW_LATENCY, 21, 4, null), 4096).getFlags());
+        assertEquals(Arrays.asList("-XX:+UseZGC", "-XX:ParallelGCThreads=3", "-XX:ConcGCThreads=1"),
+                apply(new JvmTuner(TuningProfile.LOW_LATENCY, 17, 4, null), 4096).getFlags());
+
+        // No ZGC before Java 15, so G1 with a shorter pause target
+        List<String> flags = apply(new JvmTuner(TuningProfile.LOW_LATENCY, 11, 4, null), 4096).getFlags();
+        assertTrue(flags.contains("-XX:+UseG1GC"));
+        assertTrue(flags.contains("-XX:MaxGCPauseMillis=30"));
+    }
+
+    @Test
+    public void testGCThreads() {
+        assertThreads(1, 1, 1);
+        assertThreads(2, 2, 1);
+        assertThreads(4, 3, 1);
+        assertThreads(8, 6, 2);
+        assertThreads(16, 13, 3);
+        assertThreads(32, 23, 6);
+    }
+
+    @Test
+    public void testRegionSize() {
+        assertRegionSize(1024, "4M");
+        assertRegionSize(4095, "4M");
+        assertRegionSize(4096, "8M");
+        assertRegionSize(8192, "16M");
+        assertRegionSize(16384, "32M");
+        assertRegionSize(65536, "32M");
+    }
+
+    @Test
+    public void testStringDeduplication() {
+        LaunchRequirements heavy = requirements(0, 0, true, false);
+
+        assertTrue(apply(new JvmTuner(TuningProfile.BALANCED, 8, 4, heavy), 4096).getFlags()
+                .contains("-XX:+UseStringDeduplication"));
+        assertFalse(apply(new JvmTuner(TuningProfile.LOW_LATENCY, 17, 4, heavy), 4096).getFlags()
+                .contains("-XX:+UseStringDeduplication"));
+        assertTrue(apply(new JvmTuner(TuningProfile.LOW_LATENCY, 18, 4, heavy), 4096).getFlags()
+                .contains("-XX:+UseStringDeduplication"));
+    }
+
+    @Test
+    public void testUserCollectorKept() {
+        JavaProcessBuilder builder = new JavaProcessBuilder();
+        builder.setMaxMemory(2048);
+        new JvmTuner(TuningProfile.BALANCED, 17, 8, 16384, requirements(4096, 0, false, false))
+                .apply(builder, Arrays.asList("-Xss2M", "-XX:+UseParallelGC"));
+
+        assertEquals(Collections.<String>emptyList(), builder.getFlags());
+        assertEquals(4096, builder.getMaxMemory());
+    }
+
+    @Test
+    public void testHeapSize() {
+        LaunchRequirements pack = requirements(6144, 8192, false, false);
+
+        // Raised to the minimum, never to the recommended size
+        assertEquals(6144, apply(new JvmTuner(TuningProfile.BALANCED, 17, 8, 32768, pack), 4096).getMaxMemory());
+        assertEquals(7000, apply(new JvmTuner(TuningProfile.BALANCED, 17, 8, 32768, pack), 7000).getMaxMemory());
+
+        // Capped at a share of physical memory, but never lowered
+        assertEquals(4608, apply(new JvmTuner(TuningProfile.BALANCED, 17, 8, 6144, pack), 4096).getMaxMemory());
+        assertEquals(4096, apply(new JvmTuner(TuningProfile.BALANCED, 17, 8, 4096, pack), 4096).getMaxMemory());
+
+        // Unknown physical memory
+        assertEquals(6144, apply(new JvmTuner(TuningProfile.BALANCED, 17, 8, 0, pack), 4096).getMaxMemory());
+    }
+
+    private static void assertThreads(int cores, int parallel, int concurrent) {
+        List<String> flags = apply(new JvmTuner(TuningProfile.BALANCED, 17, cores, null), 4096).getFlags();
+        assertTrue(flags.contains("-XX:ParallelGCThreads=" + parallel), cores + " cores: " + flags);
+        assertTrue(flags.contains("-XX:ConcGCThreads=" + concurrent), cores + " cores: " + flags);
+    }
+
+    private static void assertRegionSize(int maxMemory, String size) {
+        List<String> flags = apply(new JvmTuner(TuningProfile.BALANCED, 17, 8, null), maxMemory).getFlags();
+        assertTrue(flags.contains("-XX:G1HeapRegionSize=" + size), maxMemory + " MB: " + flags);
+    }
+
+    private static JavaProcessBuilder apply(JvmTuner tuner, int maxMemory) {
+        JavaProcessBuilder builder = new JavaProcessBuilder();
+        builder.setMaxMemory(maxMemory);
+        tuner.apply(builder, Collections.<String>emptyList());
+        return builder;
+    }
+
+    private static LaunchRequirements requirements(int minMemory, int recommendedMemory,
+                                                   boolean allocationHeavy, boolean lowLatency) {
+        LaunchRequirements requirements = new LaunchRequirements();
+        requirements.setMinMemory(minMemory);
+        requirements.setRecommendedMemory(recommendedMemory);
+        requirements.setAllocationHeavy(allocationHeavy);
+        requirements.setLowLatency(lowLatency);
+        return requirements;
+    }
+
+}
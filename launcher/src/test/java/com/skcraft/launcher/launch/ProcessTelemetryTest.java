@@ -0,0 +1,91 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.launch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks what {@link ProcessTelemetry} reads from the unified GC logs of
+ * the collectors that {@link JvmTuner} picks.
+ */
+public class ProcessTelemetryTest {
+
+    @Test
+    public void testG1() {
+        ProcessTelemetry.Summary summary = new ProcessTelemetry.Summary();
+        ProcessTelemetry.Sample sample = parse(summary,
+                "[0.006s][info][gc] Using G1",
+                "[1.482s][info][gc] GC(0) Pause Young (Normal) (G1 Evacuation Pause) 204M->18M(4096M) 7.624ms",
+                "[1.482s][info][gc,phases] GC(0)   Pre Evacuate Collection Set: 0.1ms",
+                "[1.482s][info][gc,phases] GC(0)   Evacuate Collection Set: 6.9ms",
+                "[5.201s][info][gc] GC(1) Pause Young (Concurrent Start) (G1 Humongous Allocation) 1210M->1012M(4096M) 12.311ms",
+                "[5.201s][info][gc] GC(2) Concurrent Mark Cycle",
+                "[5.390s][info][gc] GC(2) Pause Remark 1080M->1040M(4096M) 3.052ms",
+                "[5.402s][info][gc] GC(2) Pause Cleanup 1040M->1040M(4096M) 0.061ms",
+                "[5.403s][info][gc] GC(2) Concurrent Mark Cycle 201.754ms",
+                "[9.876s][info][gc] GC(3) Pause Full (System.gc()) 1500M->640M(2048M) 412.880ms");
+
+        assertEquals(5, sample.getGcPauses());
+        assertEquals(7.624 + 12.311 + 3.052 + 0.061 + 412.880, sample.getGcPauseTime(), 1e-9);
+        assertEquals(640, sample.getHeapUsed());
+        assertEquals(2048, sample.getHeapCommitted());
+
+        assertEquals(5, summary.getGcPauses());
+        assertEquals(412.880, summary.getGcMaxPause(), 1e-9);
+        assertEquals(1040, summary.getPeakHeapAfterGc());
+        assertEquals(4096, summary.getPeakHeapCommitted());
+    }
+
+    @Test
+    public void testZgc() {
+        ProcessTelemetry.Summary summary = new ProcessTelemetry.Summary();
+        ProcessTelemetry.Sample sample = parse(summary,
+                "[0.011s][info][gc] Using The Z Garbage Collector",
+                "[2.104s][info][gc,phases] GC(0) Pause Mark Start 0.012ms",
+                "[2.131s][info][gc,phases] GC(0) Concurrent Mark 26.412ms",
+                "[2.131s][info][gc,phases] GC(0) Pause Mark End 0.021ms",
+                "[2.140s][info][gc,phases] GC(0) Pause Relocate Start 0.009ms",
+                "[2.163s][info][gc,phases] GC(0) Concurrent Relocate 22.903ms",
+                "[2.163s][info][gc] GC(0) Garbage Collection (Warmup) 120M(1%)->86M(1%)");
+
+        assertEquals(3, sample.getGcPauses());
+        assertEquals(0.012 + 0.021 + 0.009, sample.getGcPauseTime(), 1e-9);
+        assertEquals(86, sample.getHeapUsed());
+        assertEquals(0, sample.getHeapCommitted());
+        assertEquals(0.021, summary.getGcMaxPause(), 1e-9);
+        assertEquals(86, summary.getPeakHeapAfterGc());
+    }
+
+    @Test
+    public void testGenerationalZgc() {
+        ProcessTelemetry.Summary summary = new ProcessTelemetry.Summary();
+        ProcessTelemetry.Sample sample = parse(summary,
+                "[0.010s][info][gc] Using The Z Garbage Collector",
+                "[3.224s][info][gc,phases] GC(4) Y: Young Generation",
+                "[3.224s][info][gc,phases] GC(4) Y: Pause Mark Start (Major) 0.010ms",
+                "[3.227s][info][gc,phases] GC(4) Y: Concurrent Mark 2.917ms",
+                "[3.227s][info][gc,phases] GC(4) Y: Pause Mark End 0.007ms",
+                "[3.245s][info][gc,phases] GC(4) O: Pause Mark End 0.015ms",
+                "[3.260s][info][gc] GC(4) Major Collection (Proactive) 2312M(28%)->1408M(17%) 0.036s");
+
+        assertEquals(3, sample.getGcPauses());
+        assertEquals(0.010 + 0.007 + 0.015, sample.getGcPauseTime(), 1e-9);
+        assertEquals(1408, sample.getHeapUsed());
+        assertEquals(1408, summary.getPeakHeapAfterGc());
+    }
+
+    private static ProcessTelemetry.Sample parse(ProcessTelemetry.Summary summary, String... lines) {
+        ProcessTelemetry.Sample sample = new ProcessTelemetry.Sample();
+        for (String line : lines) {
+            ProcessTelemetry.parseGcLine(line, sample, summary);
+        }
+        return sample;
+    }
+
+}
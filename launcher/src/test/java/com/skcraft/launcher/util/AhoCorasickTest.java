@@ -0,0 +1,129 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link AhoCorasick} against searching for each pattern with
+ * {@link String#indexOf(String, int)}.
+ */
+public class AhoCorasickTest {
+
+    @Test
+    public void testOverlappingPatterns() {
+        AhoCorasick<String> matcher = new AhoCorasick.Builder<String>()
+                .add("he", "he")
+                .add("she", "she")
+                .add("his", "his")
+                .add("hers", "hers")
+                .build();
+
+        assertEquals(Arrays.asList("she@4", "he@4", "hers@6"), find(matcher, "ushers"));
+        assertEquals(Arrays.asList("his@3"), find(matcher, "his"));
+        assertEquals(Collections.<String>emptyList(), find(matcher, "h-e"));
+    }
+
+    @Test
+    public void testSharedPattern() {
+        AhoCorasick<String> matcher = new AhoCorasick.Builder<String>()
+                .add("took", "a")
+                .add("took", "b")
+                .build();
+
+        assertEquals(Arrays.asList("a@7", "b@7"), find(matcher, "it took 5s"));
+    }
+
+    @Test
+    public void testNonAsciiCharacters() {
+        AhoCorasick<String> matcher = new AhoCorasick.Builder<String>()
+                .add("\u00e9t\u00e9", "summer")
+                .add("\u2603", "snowman")
+                .build();
+
+        assertEquals(Arrays.asList("summer@5", "snowman@7"), find(matcher, "l'\u00e9t\u00e9 \u2603"));
+    }
+
+    @Test
+    public void testEmptyPattern() {
+        assertThrows(IllegalArgumentException.class, () -> new AhoCorasick.Builder<String>().add("", "empty"));
+    }
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(20240601L);
+
+        for (int i = 0; i < 2000; i++) {
+            List<String> patterns = new ArrayList<String>();
+            AhoCorasick.Builder<String> builder = new AhoCorasick.Builder<String>();
+            int count = 1 + random.nextInt(10);
+            for (int j = 0; j < count; j++) {
+                String pattern = randomString(random, "abc\u00e9", 1 + random.nextInt(5));
+                patterns.add(pattern);
+                builder.add(pattern, pattern + "#" + j);
+            }
+            AhoCorasick<String> matcher = builder.build();
+
+            for (int j = 0; j < 20; j++) {
+                String text = randomString(random, "abcd\u00e9\u00e8", random.nextInt(40));
+
+                List<String> expected = new ArrayList<String>();
+                for (int k = 0; k < patterns.size(); k++) {
+                    String pattern = patterns.get(k);
+                    for (int at = text.indexOf(pattern); at >= 0; at = text.indexOf(pattern, at + 1)) {
+                        expected.add(pattern + "#" + k + "@" + (at + pattern.length()));
+                    }
+                }
+
+                final List<String> actual = new ArrayList<String>();
+                final int[] lastEnd = { 0 };
+                matcher.match(text, new AhoCorasick.MatchListener<String>() {
+                    @Override
+                    public void matched(String value, int end) {
+                        assertTrue(end >= lastEnd[0], "matches are reported in order of where they end");
+                        lastEnd[0] = end;
+                        actual.add(value + "@" + end);
+                    }
+                });
+
+                Collections.sort(expected);
+                Collections.sort(actual);
+                assertEquals(expected, actual, "matches of " + patterns + " in '" + text + "'");
+            }
+        }
+    }
+
+    private static List<String> find(AhoCorasick<String> matcher, String text) {
+        final List<String> found = new ArrayList<String>();
+        matcher.match(text, new AhoCorasick.MatchListener<String>() {
+            @Override
+            public void matched(String value, int end) {
+                found.add(value + "@" + end);
+            }
+        });
+        return found;
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * SK's Minecraft Launcher
+ * Copyright (C) 2010-2014 Albert Pham <http://www.sk89q.com> and contributors
+ * Please see LICENSE.txt for license information.
+ */
+
+package com.skcraft.launcher.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.skcraft.launcher.model.minecraft.Asset;
+import com.skcraft.launcher.model.minecraft.AssetsIndex;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that {@link JsonCodec} caches its readers and reads back what it
+ * writes.
+ */
+public class JsonCodecTest {
+
+    @Test
+    public void testReadersAreCached() {
+        assertSame(JsonCodec.reader(AssetsIndex.class), JsonCodec.reader(AssetsIndex.class));
+        assertSame(JsonCodec.reader(new TypeReference<List<String>>() {}),
+                JsonCodec.reader(new TypeReference<List<String>>() {}));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Asset asset = new Asset();
+        asset.setHash("0123456789abcdef0123456789abcdef01234567");
+        asset.setSize(1234);
+        AssetsIndex index = new AssetsIndex();
+        index.setObjects(Collections.singletonMap("minecraft/lang/en_us.json", asset));
+
+        byte[] data = JsonCodec.writer().writeValueAsBytes(index);
+
+        assertEquals(index, JsonCodec.read(data, AssetsIndex.class));
+        assertEquals(index, JsonCodec.read(new ByteArrayInputStream(data), AssetsIndex.class));
+        Map<String, Object> tree = JsonCodec.read(data, new TypeReference<Map<String, Object>>() {});
+        assertEquals(false, tree.get("virtual"));
+    }
+
+}